@@ -0,0 +1,142 @@
+-- =========================
+-- Before/after query plans for the admin grid's "not deleted" filter
+-- (V11__BackfillDeletedFlag, V12__live_issue_indexes.sql).
+--
+-- before: nullable deleted, queries say "deleted = false OR deleted IS NULL",
+--         partial indexes WHERE deleted IS NOT TRUE (V2).
+-- after:  deleted NOT NULL DEFAULT false, queries say "deleted = false",
+--         partial indexes WHERE NOT deleted.
+--
+-- Seeds 1M issues over ~3 years into a throwaway schema (bench_deleted), prints
+-- EXPLAIN (ANALYZE, BUFFERS) for the same admin queries on both tables, then drops
+-- the schema. Run it against a scratch database, not production:
+--
+--   psql -d bugtracker_scratch -f benchmarks/explain/deleted-predicate.sql
+--
+-- Takes about a minute. Compare plan shapes and buffers; timings vary per machine.
+-- =========================
+
+DROP SCHEMA IF EXISTS bench_deleted CASCADE;
+CREATE SCHEMA bench_deleted;
+SET search_path = bench_deleted;
+
+-- 20% resolved; every 4th resolved issue deleted; 30% of the others still have
+-- the legacy NULL
+CREATE TABLE before_reports (
+    id          BIGINT       PRIMARY KEY,
+    type        VARCHAR(50)  NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL,
+    resolved    BOOLEAN      NOT NULL,
+    deleted     BOOLEAN
+);
+
+INSERT INTO before_reports
+SELECT g,
+       (ARRAY['Bug', 'Feature Request', 'Comment'])[1 + g % 3],
+       'Issue ' || g,
+       TIMESTAMP '2023-01-01' + g * INTERVAL '90 seconds',
+       g % 5 = 0,
+       CASE WHEN g % 20 = 0 THEN TRUE
+            WHEN g % 10 < 3 THEN NULL
+            ELSE FALSE END
+FROM generate_series(1, 1000000) AS g;
+
+CREATE INDEX before_admin_order
+    ON before_reports (resolved, created_at DESC, id DESC)
+    WHERE deleted IS NOT TRUE;
+CREATE INDEX before_type_admin_order
+    ON before_reports (type, resolved, created_at DESC, id DESC)
+    WHERE deleted IS NOT TRUE;
+
+-- The same rows after the backfill
+CREATE TABLE after_reports (
+    id          BIGINT       PRIMARY KEY,
+    type        VARCHAR(50)  NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL,
+    resolved    BOOLEAN      NOT NULL,
+    deleted     BOOLEAN      NOT NULL DEFAULT FALSE
+);
+
+INSERT INTO after_reports
+SELECT id, type, description, created_at, resolved, coalesce(deleted, FALSE)
+FROM before_reports;
+
+CREATE INDEX after_admin_order
+    ON after_reports (resolved, created_at DESC, id DESC)
+    WHERE NOT deleted;
+CREATE INDEX after_type_admin_order
+    ON after_reports (type, resolved, created_at DESC, id DESC)
+    WHERE NOT deleted;
+
+VACUUM ANALYZE before_reports;
+VACUUM ANALYZE after_reports;
+
+-- 1. Default grid, first page (GET /api/admin/issues)
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT id, type, description, created_at, resolved, deleted
+FROM before_reports
+WHERE deleted = FALSE OR deleted IS NULL
+ORDER BY resolved, created_at DESC, id DESC
+LIMIT 10;
+
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT id, type, description, created_at, resolved, deleted
+FROM after_reports
+WHERE deleted = FALSE
+ORDER BY resolved, created_at DESC, id DESC
+LIMIT 10;
+
+-- 2. Unresolved bugs, page 500 (type + resolved filters, OFFSET)
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT id, type, description, created_at, resolved, deleted
+FROM before_reports
+WHERE type = 'Bug' AND resolved = FALSE AND (deleted = FALSE OR deleted IS NULL)
+ORDER BY resolved, created_at DESC, id DESC
+OFFSET 5000 LIMIT 10;
+
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT id, type, description, created_at, resolved, deleted
+FROM after_reports
+WHERE type = 'Bug' AND resolved = FALSE AND deleted = FALSE
+ORDER BY resolved, created_at DESC, id DESC
+OFFSET 5000 LIMIT 10;
+
+-- 3. Cursor slice deep in the resolved issues (cursor=...), ~130k resolved issues
+-- after the first page. The statement Hibernate sends for searchIssuesAfter
+-- (IssueCursorPagingTest captures it): the seek predicate from the cursor
+-- (resolved, created_at, id), bounded by created_at <= so it is an index range,
+-- and the grid ordering by select-list position. Both versions have the same seek;
+-- only the deleted predicate differs.
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT id, type, description, created_at, resolved, deleted
+FROM before_reports
+WHERE (deleted = FALSE OR deleted IS NULL)
+  AND resolved = TRUE
+  AND created_at <= TIMESTAMP '2024-01-01 00:00:00'
+  AND (created_at < TIMESTAMP '2024-01-01 00:00:00' OR id < 350400)
+ORDER BY 5, 4 DESC, 1 DESC
+OFFSET 0 ROWS FETCH FIRST 11 ROWS ONLY;
+
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT id, type, description, created_at, resolved, deleted
+FROM after_reports
+WHERE NOT (deleted)
+  AND resolved = TRUE
+  AND created_at <= TIMESTAMP '2024-01-01 00:00:00'
+  AND (created_at < TIMESTAMP '2024-01-01 00:00:00' OR id < 350400)
+ORDER BY 5, 4 DESC, 1 DESC
+OFFSET 0 ROWS FETCH FIRST 11 ROWS ONLY;
+
+-- 4. Total for the pager (count query)
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT count(*) FROM before_reports
+WHERE type = 'Bug' AND (deleted = FALSE OR deleted IS NULL);
+
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT count(*) FROM after_reports
+WHERE type = 'Bug' AND deleted = FALSE;
+
+RESET search_path;
+DROP SCHEMA bench_deleted CASCADE;
@@ -0,0 +1,20 @@
+#!/bin/sh
+# Builds the app, runs the JMH benchmarks and saves the results as
+# benchmarks/results/<commit>.json (<commit>-dirty.json with uncommitted changes).
+#
+# Extra arguments go to Maven, e.g.:
+#   benchmarks/run.sh -Djmh.include=ExportBenchmark
+#
+# Compare two result files with any JMH JSON viewer (e.g. https://jmh.morethan.io).
+set -e
+cd "$(dirname "$0")/.."
+
+rev=$(git rev-parse --short HEAD)
+if ! git diff --quiet HEAD -- src pom.xml benchmarks/src benchmarks/pom.xml; then
+    rev="$rev-dirty"
+fi
+result="$PWD/benchmarks/results/$rev.json"
+
+mvn -B -q -DskipTests install
+mvn -B -q -f benchmarks/pom.xml package exec:exec -Djmh.resultFile="$result" "$@"
+echo "Results: $result"
@@ -0,0 +1,177 @@
+package com.iworks.bugtracker.controller;
+
+import com.iworks.bugtracker.model.BugReport;
+import com.iworks.bugtracker.repository.BugReportRepository;
+import com.iworks.bugtracker.service.BugReportService;
+import com.iworks.bugtracker.service.ExportFormat;
+import com.iworks.bugtracker.service.IssueExportWriter;
+import com.iworks.bugtracker.service.IssueFilter;
+import com.iworks.bugtracker.service.IssueStatsService;
+import com.iworks.bugtracker.service.MailOutbox;
+import com.iworks.bugtracker.service.SampleReports;
+import com.iworks.bugtracker.service.ScreenshotStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end export: {@link BugReportService#exportIssues} streaming from the
+ * database through each {@link ExportFormat}'s writer into a null stream, like
+ * GET /api/admin/issues/export minus the HTTP layer.
+ *
+ * Runs against H2 in PostgreSQL mode (schema from the entities, not the Flyway
+ * migrations), so absolute numbers are not Postgres numbers; compare them between
+ * commits, not with production.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+@State(Scope.Benchmark)
+public class ExportBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    /** "all": every non-deleted issue; "openBugs": unresolved bugs created in 2024. */
+    @Param({"all", "openBugs"})
+    public String filter;
+
+    @Param({"CSV", "CSV_GZIP", "NDJSON", "ARROW"})
+    public ExportFormat format;
+
+    private Path uploadDir;
+    private ConfigurableApplicationContext context;
+    private BugReportService bugReportService;
+    private IssueFilter issueFilter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // ScreenshotStore creates its directories at startup; nothing is uploaded here
+        uploadDir = Files.createTempDirectory("export-benchmark");
+        context = new SpringApplicationBuilder(ExportContext.class)
+                .logStartupInfo(false)
+                // Command-line args win over any application.properties in the app jar
+                .run("--spring.main.web-application-type=none",
+                        "--spring.main.banner-mode=off",
+                        "--spring.datasource.url=jdbc:h2:mem:export;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+                                + "DEFAULT_NULL_ORDERING=HIGH;NON_KEYWORDS=DAY,VALUE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.flyway.enabled=false",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.open-in-view=false",
+                        "--bugtracker.upload-dir=" + uploadDir,
+                        "--logging.level.root=WARN");
+        bugReportService = context.getBean(BugReportService.class);
+        seed(context.getBean(JdbcTemplate.class), rows);
+
+        issueFilter = "openBugs".equals(filter)
+                ? IssueFilter.of("Bug", Boolean.FALSE, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), false, null)
+                : IssueFilter.of(null, null, null, null, false, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        try (Stream<Path> paths = Files.walk(uploadDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    @Benchmark
+    public long export() throws IOException {
+        try (IssueExportWriter writer = format.open(OutputStream.nullOutputStream())) {
+            long written = bugReportService.exportIssues(issueFilter, writer);
+            writer.finish();
+            return written;
+        }
+    }
+
+    private static void seed(JdbcTemplate jdbc, int rows) {
+        // ddl-auto gives the id column no default; draw ids from the entity's sequence
+        jdbc.batchUpdate("INSERT INTO bug_reports (id, name, email, role, browser, event_time, type, description, " +
+                        "screenshot_path, created_at, resolved, resolved_by, resolution_description, resolved_at, " +
+                        "deleted, deleted_at) " +
+                        "VALUES (nextval('bug_reports_seq'), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                SampleReports.generate(rows, false),
+                1000,
+                (ps, r) -> {
+                    ps.setString(1, r.getName());
+                    ps.setString(2, r.getEmail());
+                    ps.setString(3, r.getRole());
+                    ps.setString(4, r.getBrowser());
+                    setTimestamp(ps, 5, r.getEventTime());
+                    ps.setString(6, r.getType());
+                    ps.setString(7, r.getDescription());
+                    ps.setString(8, r.getScreenshotPath());
+                    setTimestamp(ps, 9, r.getCreatedAt());
+                    ps.setBoolean(10, r.isResolved());
+                    ps.setString(11, r.getResolvedBy());
+                    ps.setString(12, r.getResolutionDescription());
+                    setTimestamp(ps, 13, r.getResolvedAt());
+                    ps.setBoolean(14, r.isDeleted());
+                    setTimestamp(ps, 15, r.getDeletedAt());
+                });
+    }
+
+    private static void setTimestamp(PreparedStatement ps, int index, LocalDateTime value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.TIMESTAMP);
+        } else {
+            ps.setTimestamp(index, Timestamp.valueOf(value));
+        }
+    }
+
+    /**
+     * Just the persistence layer and the services BugReportService needs.
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = BugReport.class)
+    @EnableJpaRepositories(basePackageClasses = BugReportRepository.class)
+    @Import({BugReportService.class, IssueStatsService.class, MailOutbox.class, ScreenshotStore.class})
+    static class ExportContext {
+    }
+}
@@ -0,0 +1,92 @@
+package com.iworks.bugtracker.controller;
+
+import com.iworks.bugtracker.model.BugReport;
+import com.iworks.bugtracker.service.CsvEncoder;
+import com.iworks.bugtracker.service.CsvExportWriter;
+import com.iworks.bugtracker.service.SampleReports;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV encoding of the admin export ({@link CsvExportWriter#writeRow} over
+ * {@link CsvEncoder}) and the resolved-filter parsing that runs on every list/export
+ * request.
+ *
+ * Watch gc.alloc.rate.norm (run with -prof gc, the default in exec:exec): the encode
+ * benchmarks should stay at ~0 bytes per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExportRowBenchmark {
+
+    private static final int ROWS = 1000;
+    private static final String[] RESOLVED_VALUES = {null, "all", "Resolved", "false", "bogus"};
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2024, 5, 1, 9, 30, 12, 345_678_000);
+
+    private List<BugReport> reports;
+    private CsvEncoder csv;
+
+    @Setup
+    public void setUp() {
+        reports = SampleReports.generate(ROWS, true);
+        csv = new CsvEncoder(Writer.nullWriter());
+    }
+
+    /** Per row, over a mix of sample reports. */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void exportRow() throws IOException {
+        for (BugReport report : reports) {
+            CsvExportWriter.writeRow(csv, report);
+        }
+        csv.flush();
+    }
+
+    @Benchmark
+    public CsvEncoder textPlain() throws IOException {
+        return csv.text("Chrome").endRow();
+    }
+
+    @Benchmark
+    public CsvEncoder textQuoted() throws IOException {
+        return csv.text("Clicking \"Save\" does nothing, twice").endRow();
+    }
+
+    @Benchmark
+    public CsvEncoder textFormula() throws IOException {
+        return csv.text("=HYPERLINK(\"http://example.com\")").endRow();
+    }
+
+    @Benchmark
+    public CsvEncoder dateTime() throws IOException {
+        return csv.dateTime(TIMESTAMP).endRow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(5)
+    public void parseResolvedFilter(Blackhole bh) {
+        for (String value : RESOLVED_VALUES) {
+            bh.consume(AdminReportController.parseResolvedFilter(value));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.model.BugReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BugReportService#buildAdminSpecification} for a few typical admin filters,
+ * and {@link IssueFilter#of} which runs before it on every list/export request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AdminSpecificationBenchmark {
+
+    private IssueFilter noFilters;
+    private IssueFilter allFilters;
+    private IssueFilter search;
+
+    @Setup
+    public void setUp() {
+        noFilters = IssueFilter.of(null, null, null, null, false, null);
+        allFilters = IssueFilter.of("Bug", Boolean.FALSE,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), false, null);
+        search = IssueFilter.of("All", null, null, null, true, "login button");
+    }
+
+    @Benchmark
+    public Specification<BugReport> noFilters() {
+        return BugReportService.buildAdminSpecification(noFilters);
+    }
+
+    @Benchmark
+    public Specification<BugReport> allFilters() {
+        return BugReportService.buildAdminSpecification(allFilters);
+    }
+
+    @Benchmark
+    public Specification<BugReport> search() {
+        return BugReportService.buildAdminSpecification(search);
+    }
+
+    @Benchmark
+    public IssueFilter filterOf() {
+        return IssueFilter.of(" Feature Request ", Boolean.TRUE,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 6, 30), false, "  export crash ");
+    }
+}
@@ -0,0 +1,92 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.model.BugReport;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic bug reports for the benchmarks, with roughly the shape of real data:
+ * mostly plain text, some values with quotes, commas and line breaks, a few that
+ * need the formula-injection guard, and a mix of resolved/deleted states.
+ */
+public final class SampleReports {
+
+    private static final String[] TYPES = {"Bug", "Feature Request", "Comment"};
+    private static final String[] BROWSERS = {"Chrome", "Firefox", "Safari", "Edge"};
+    private static final String[] WORDS = {
+            "login", "button", "page", "crash", "slow", "export", "upload", "search",
+            "error", "layout", "dashboard", "report", "timeout", "screenshot", "filter"
+    };
+
+    // bug_reports.description is VARCHAR(255), like the submission form limit
+    private static final int MAX_DESCRIPTION = 255;
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 8, 0);
+
+    private SampleReports() {
+    }
+
+    /** Reports with ids 1..count (ids are left null when withIds is false, for inserts). */
+    public static List<BugReport> generate(int count, boolean withIds) {
+        Random random = new Random(42);
+        List<BugReport> reports = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            BugReport r = new BugReport();
+            if (withIds) {
+                r.setId((long) i);
+            }
+            r.setName("User " + (i % 500));
+            r.setEmail("user" + (i % 500) + "@iworkscorp.com");
+            r.setRole((i % 3 == 0) ? "Developer" : "QA");
+            r.setBrowser(BROWSERS[random.nextInt(BROWSERS.length)]);
+            r.setType(TYPES[random.nextInt(TYPES.length)]);
+            r.setDescription(description(random, i));
+            r.setCreatedAt(START.plusMinutes(i * 7L));
+            if (i % 2 == 0) {
+                r.setEventTime(START.plusMinutes(i * 7L - 30));
+            }
+            if (i % 4 == 0) {
+                r.setScreenshotPath(Long.toHexString(i * 0x9E3779B97F4A7C15L) + ".png");
+            }
+            if (i % 3 == 0) {
+                r.setResolved(true);
+                r.setResolvedBy("admin");
+                r.setResolutionDescription("Fixed in build " + (i % 97) + ", see \"release notes\"");
+                r.setResolvedAt(START.plusMinutes(i * 7L + 600));
+            }
+            if (i % 20 == 0) {
+                r.setDeleted(true);
+                r.setDeletedAt(START.plusMinutes(i * 7L + 900));
+            } else {
+                r.setDeleted(false);
+            }
+            reports.add(r);
+        }
+        return reports;
+    }
+
+    private static String description(Random random, int i) {
+        StringBuilder text = new StringBuilder();
+        if (i % 50 == 0) {
+            // Needs the formula-injection guard
+            text.append("=HYPERLINK(\"http://example.com\") ");
+        }
+        int words = 8 + random.nextInt(25);
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        if (i % 5 == 0) {
+            text.append(", then \"Save\" fails");
+        }
+        if (i % 11 == 0) {
+            text.append("\nSteps: open, click, wait");
+        }
+        return (text.length() <= MAX_DESCRIPTION) ? text.toString() : text.substring(0, MAX_DESCRIPTION);
+    }
+}
@@ -0,0 +1,69 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.model.BugReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * bug_reports.csv rows ({@link CsvSpreadsheetWriter}): the snapshot taken on the
+ * submission path, and the encoding done by the writer thread.
+ *
+ * Watch gc.alloc.rate.norm (run with -prof gc, the default in exec:exec): encoding
+ * should stay at ~0 bytes per row.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpreadsheetRowBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private List<BugReport> reports;
+    private List<CsvSpreadsheetWriter.Row> rows;
+    private CsvEncoder csv;
+
+    @Setup
+    public void setUp() {
+        reports = SampleReports.generate(ROWS, true);
+        rows = reports.stream().map(CsvSpreadsheetWriter.Row::of).toList();
+        csv = new CsvEncoder(Writer.nullWriter());
+    }
+
+    /** Per row, over a mix of sample reports. */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void encodeRow() throws IOException {
+        for (CsvSpreadsheetWriter.Row row : rows) {
+            CsvSpreadsheetWriter.writeRow(csv, row);
+        }
+        csv.flush();
+    }
+
+    /** Per row: what the submission thread pays before queueing. */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public Object snapshotRow() {
+        Object last = null;
+        for (BugReport report : reports) {
+            last = CsvSpreadsheetWriter.Row.of(report);
+        }
+        return last;
+    }
+}
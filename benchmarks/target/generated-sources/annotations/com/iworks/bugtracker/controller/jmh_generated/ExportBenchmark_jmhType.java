@@ -0,0 +1,4 @@
+package com.iworks.bugtracker.controller.jmh_generated;
+public class ExportBenchmark_jmhType extends ExportBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.iworks.bugtracker.controller.jmh_generated;
+public class ExportRowBenchmark_jmhType extends ExportRowBenchmark_jmhType_B3 {
+}
+
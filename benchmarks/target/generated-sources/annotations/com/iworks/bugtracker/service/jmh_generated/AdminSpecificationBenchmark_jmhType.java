@@ -0,0 +1,4 @@
+package com.iworks.bugtracker.service.jmh_generated;
+public class AdminSpecificationBenchmark_jmhType extends AdminSpecificationBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.iworks.bugtracker.service.jmh_generated;
+public class NormalizeTypeBenchmark_jmhType extends NormalizeTypeBenchmark_jmhType_B3 {
+}
+
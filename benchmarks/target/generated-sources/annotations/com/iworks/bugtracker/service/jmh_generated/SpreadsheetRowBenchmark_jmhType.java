@@ -0,0 +1,4 @@
+package com.iworks.bugtracker.service.jmh_generated;
+public class SpreadsheetRowBenchmark_jmhType extends SpreadsheetRowBenchmark_jmhType_B3 {
+}
+
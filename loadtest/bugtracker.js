@@ -0,0 +1,113 @@
+// =========================
+// k6 load test: platform vs virtual threads
+//
+// Mixed blocking workload at a fixed arrival rate: multipart submissions with a
+// screenshot (file copy + DB insert + CSV append), uncached admin list queries and
+// full CSV exports. Run it once per threading mode against the same database and
+// compare http_reqs (throughput), dropped_iterations and http_req_duration p95:
+//
+//   SPRING_THREADS_VIRTUAL_ENABLED=false java -jar target/bugtracker-0.0.1-SNAPSHOT-exec.jar
+//   k6 run loadtest/bugtracker.js
+//
+//   SPRING_THREADS_VIRTUAL_ENABLED=true  java -jar target/bugtracker-0.0.1-SNAPSHOT-exec.jar   (Java 21+)
+//   k6 run loadtest/bugtracker.js
+//
+// The startup log says which mode is active ("... run on virtual threads").
+// Add -Djdk.tracePinnedThreads=short to the virtual run to report carrier pinning.
+//
+// Env: BASE_URL (default http://localhost:8080), RATE (iterations/s, default 300),
+// DURATION (default 1m), MAX_VUS (default 2000).
+// =========================
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const RATE = parseInt(__ENV.RATE || '300', 10);
+const DURATION = __ENV.DURATION || '1m';
+const MAX_VUS = parseInt(__ENV.MAX_VUS || '2000', 10);
+
+function scenario(exec, share) {
+    return {
+        executor: 'constant-arrival-rate',
+        exec: exec,
+        rate: Math.max(1, Math.round(RATE * share)),
+        timeUnit: '1s',
+        duration: DURATION,
+        preAllocatedVUs: Math.round(MAX_VUS * share / 4),
+        maxVUs: Math.round(MAX_VUS * share),
+    };
+}
+
+export const options = {
+    scenarios: {
+        submit: scenario('submit', 0.5),
+        list: scenario('list', 0.45),
+        exportCsv: scenario('exportCsv', 0.05),
+    },
+    thresholds: {
+        'http_req_failed': ['rate<0.01'],
+        'http_req_duration{scenario:list}': ['p(95)<500'],
+    },
+};
+
+const TYPES = ['Bug', 'Feature Request', 'Comment'];
+const BROWSERS = ['Chrome', 'Firefox', 'Safari', 'Edge'];
+const WORDS = ['login', 'button', 'page', 'crash', 'slow', 'export', 'upload', 'search', 'error', 'layout'];
+
+// ~200 KB fake PNG: the PNG signature followed by filler, enough to exercise the upload path
+const SCREENSHOT = (() => {
+    const bytes = new Uint8Array(200 * 1024);
+    bytes.set([0x89, 0x50, 0x4e, 0x47, 0x0d, 0x0a, 0x1a, 0x0a]);
+    for (let i = 8; i < bytes.length; i++) {
+        bytes[i] = (i * 31) & 0xff;
+    }
+    return bytes.buffer;
+})();
+
+function pick(values) {
+    return values[Math.floor(Math.random() * values.length)];
+}
+
+function sentence(words) {
+    const out = [];
+    for (let i = 0; i < words; i++) {
+        out.push(pick(WORDS));
+    }
+    return out.join(' ');
+}
+
+export function submit() {
+    const body = {
+        name: 'Load Test',
+        email: 'loadtest@iworkscorp.com',
+        role: 'QA',
+        browser: pick(BROWSERS),
+        type: pick(TYPES),
+        description: `${sentence(12)} (${__VU}-${__ITER})`,
+    };
+    if (Math.random() < 0.3) {
+        body.screenshot = http.file(SCREENSHOT, 'screenshot.png', 'image/png');
+    }
+    const res = http.post(`${BASE_URL}/api/bug-report`, body, { tags: { name: 'submit' } });
+    check(res, { 'submit 2xx': (r) => r.status >= 200 && r.status < 300 });
+}
+
+export function list() {
+    // Random page + search term, so most requests miss the issue list cache and hit the DB
+    const params = [
+        `page=${Math.floor(Math.random() * 50)}`,
+        'size=10',
+        `type=${encodeURIComponent(pick(['All', ...TYPES]))}`,
+    ];
+    if (Math.random() < 0.5) {
+        params.push(`q=${pick(WORDS)}`);
+    }
+    const res = http.get(`${BASE_URL}/api/admin/issues?${params.join('&')}`, { tags: { name: 'list' } });
+    check(res, { 'list 200': (r) => r.status === 200 });
+}
+
+export function exportCsv() {
+    const res = http.get(`${BASE_URL}/api/admin/issues/export?type=${encodeURIComponent(pick(TYPES))}`,
+        { tags: { name: 'export' }, responseType: 'none', timeout: '120s' });
+    check(res, { 'export 200': (r) => r.status === 200 });
+}
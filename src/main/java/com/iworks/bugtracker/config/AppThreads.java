@@ -0,0 +1,54 @@
+package com.iworks.bugtracker.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Thread factories for the app's own executors for blocking I/O.
+ *
+ * With spring.threads.virtual.enabled=true on Java 21+, Spring Boot already runs Tomcat
+ * request handling and {@code @Scheduled} jobs on virtual threads; executors created from
+ * here follow the same switch. Otherwise (including on Java 17) they get daemon
+ * platform threads, as before.
+ *
+ * CPU-bound work (thumbnail rendering) and the single long-lived CSV writer thread
+ * stay on platform threads either way: virtual threads gain nothing there.
+ */
+@Component
+public class AppThreads {
+
+    private static final Logger log = LoggerFactory.getLogger(AppThreads.class);
+
+    private final boolean virtual;
+
+    public AppThreads(Environment environment) {
+        this.virtual = Threading.VIRTUAL.isActive(environment);
+        log.info("Request handling and background I/O run on {} threads",
+                virtual ? "virtual" : "platform");
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Threads named name (platform) or name-N (virtual).
+     */
+    public ThreadFactory factory(String name) {
+        if (virtual) {
+            // Compiles on 17; only instantiated when Threading.VIRTUAL says we're on 21+
+            return new VirtualThreadTaskExecutor(name + "-").getVirtualThreadFactory();
+        }
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package com.iworks.bugtracker.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * In-process (Caffeine) caches.
+ *
+ * The cache manager is transaction-aware: an eviction requested inside a transaction
+ * is applied after that transaction commits, so a poll between the write and the
+ * commit can't re-cache the old rows for the rest of the TTL.
+ *
+ * Hit/miss/eviction counts are published as cache.* metrics (needs recordStats in the spec).
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /** Admin issue list pages/slices, keyed by filter + paging + fields. */
+    public static final String ISSUE_LISTS = "issueLists";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${bugtracker.cache.issue-lists.spec:maximumSize=500,expireAfterWrite=30s,recordStats}")
+            String issueListsSpec
+    ) {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager(ISSUE_LISTS);
+        caffeine.setCacheSpecification(issueListsSpec);
+        caffeine.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+}
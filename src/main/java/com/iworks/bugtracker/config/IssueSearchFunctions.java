@@ -0,0 +1,61 @@
+package com.iworks.bugtracker.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.query.sqm.function.SqmFunctionRegistry;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Postgres full-text search functions for criteria queries.
+ *
+ * All of them take the four indexed columns plus the user's query:
+ * (description, resolution_description, name, browser, q). The query is parsed with
+ * websearch_to_tsquery, so "checkout timeout", quoted phrases, "or" and -excluded
+ * words all work and malformed input never raises a syntax error.
+ *
+ * Registered through META-INF/services/org.hibernate.boot.model.FunctionContributor.
+ */
+public class IssueSearchFunctions implements FunctionContributor {
+
+    /** Boolean: the issue matches the query (uses idx_bug_reports_search). */
+    public static final String MATCHES = "issue_search_matches";
+
+    /** Double: relevance of the issue for the query, higher is better. */
+    public static final String RANK = "issue_search_rank";
+
+    /** String: description + resolution excerpt with the matches wrapped in &lt;mark&gt;. */
+    public static final String HEADLINE = "issue_search_headline";
+
+    /** Must match the expression of idx_bug_reports_search (V4__issue_search_index.sql). */
+    static final String DOCUMENT =
+            "(setweight(to_tsvector('english'::regconfig, coalesce(?1, '')), 'A')"
+                    + " || setweight(to_tsvector('english'::regconfig, coalesce(?2, '')), 'B')"
+                    + " || setweight(to_tsvector('simple'::regconfig, coalesce(?3, '')), 'C')"
+                    + " || setweight(to_tsvector('simple'::regconfig, coalesce(?4, '')), 'D'))";
+
+    static final String QUERY = "websearch_to_tsquery('english'::regconfig, ?5)";
+
+    private static final String HEADLINE_OPTIONS =
+            "'StartSel=<mark>, StopSel=</mark>, MaxWords=30, MinWords=10, MaxFragments=2'";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        SqmFunctionRegistry registry = functionContributions.getFunctionRegistry();
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+
+        registry.registerPattern(MATCHES,
+                "(" + DOCUMENT + " @@ " + QUERY + ")",
+                types.resolve(StandardBasicTypes.BOOLEAN));
+
+        registry.registerPattern(RANK,
+                "ts_rank(" + DOCUMENT + ", " + QUERY + ")",
+                types.resolve(StandardBasicTypes.DOUBLE));
+
+        // Only the text columns are excerpted; name/browser matches still rank
+        registry.registerPattern(HEADLINE,
+                "ts_headline('english'::regconfig, concat_ws(' / ', ?1, ?2), " + QUERY + ", "
+                        + HEADLINE_OPTIONS + ")",
+                types.resolve(StandardBasicTypes.STRING));
+    }
+}
@@ -0,0 +1,122 @@
+package com.iworks.bugtracker.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Histogram buckets for the app's own timers and distribution summaries, and
+ * Hibernate statistics as hibernate.* metrics.
+ *
+ * Every bugtracker.* timer and summary gets fixed buckets (cumulative Prometheus
+ * histograms on /actuator/prometheus), so latencies can be aggregated across
+ * instances; the call sites just build plain timers.
+ */
+@Configuration
+public class MetricsConfig {
+
+    private static final String PREFIX = "bugtracker.";
+
+    private static final Duration[] LATENCY_BUCKETS = {
+            Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(10), Duration.ofMillis(25),
+            Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofMillis(500),
+            Duration.ofSeconds(1), Duration.ofMillis(2500), Duration.ofSeconds(5), Duration.ofSeconds(10),
+            Duration.ofSeconds(30), Duration.ofSeconds(60), Duration.ofSeconds(300)
+    };
+
+    // Counts and sizes: powers of ten
+    private static final double[] SIZE_BUCKETS = {1, 10, 100, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9};
+
+    @Bean
+    public MeterFilter bugtrackerHistograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!id.getName().startsWith(PREFIX)) {
+                    return config;
+                }
+                if (id.getType() == Meter.Type.TIMER) {
+                    double[] nanos = new double[LATENCY_BUCKETS.length];
+                    for (int i = 0; i < nanos.length; i++) {
+                        nanos[i] = LATENCY_BUCKETS[i].toNanos();
+                    }
+                    return DistributionStatisticConfig.builder()
+                            .serviceLevelObjectives(nanos)
+                            .build()
+                            .merge(config);
+                }
+                if (id.getType() == Meter.Type.DISTRIBUTION_SUMMARY) {
+                    return DistributionStatisticConfig.builder()
+                            .serviceLevelObjectives(SIZE_BUCKETS)
+                            .build()
+                            .merge(config);
+                }
+                return config;
+            }
+        };
+    }
+
+    /**
+     * Needs hibernate.generate_statistics=true; without it the counters stay at 0.
+     */
+    @Bean
+    public MeterBinder hibernateStatistics(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return registry -> {
+            counter(registry, statistics, "hibernate.sessions.open", "Sessions opened",
+                    Statistics::getSessionOpenCount);
+            counter(registry, statistics, "hibernate.transactions", "Transactions completed",
+                    Statistics::getTransactionCount);
+            counter(registry, statistics, "hibernate.connections.obtained", "JDBC connections obtained",
+                    Statistics::getConnectCount);
+            counter(registry, statistics, "hibernate.statements.prepared", "JDBC statements prepared",
+                    Statistics::getPrepareStatementCount);
+            counter(registry, statistics, "hibernate.flushes", "Session flushes",
+                    Statistics::getFlushCount);
+            counter(registry, statistics, "hibernate.query.executions", "HQL/criteria/native queries executed",
+                    Statistics::getQueryExecutionCount);
+            counter(registry, statistics, "hibernate.entities.loads", "Entities loaded",
+                    Statistics::getEntityLoadCount);
+            counter(registry, statistics, "hibernate.entities.fetches", "Entities fetched lazily",
+                    Statistics::getEntityFetchCount);
+            counter(registry, statistics, "hibernate.entities.inserts", "Entities inserted",
+                    Statistics::getEntityInsertCount);
+            counter(registry, statistics, "hibernate.entities.updates", "Entities updated",
+                    Statistics::getEntityUpdateCount);
+            counter(registry, statistics, "hibernate.entities.deletes", "Entities deleted",
+                    Statistics::getEntityDeleteCount);
+            counter(registry, statistics, "hibernate.optimistic.failures", "Optimistic lock failures",
+                    Statistics::getOptimisticFailureCount);
+
+            TimeGauge.builder("hibernate.query.executions.max", statistics, TimeUnit.MILLISECONDS,
+                            Statistics::getQueryExecutionMaxTime)
+                    .description("Slowest query since startup")
+                    .register(registry);
+            Gauge.builder("hibernate.sessions.active", statistics,
+                            s -> s.getSessionOpenCount() - s.getSessionCloseCount())
+                    .description("Sessions open right now")
+                    .register(registry);
+        };
+    }
+
+    private static void counter(MeterRegistry registry, Statistics statistics, String name, String description,
+                                ToDoubleFunction<Statistics> count) {
+        FunctionCounter.builder(name, statistics, count)
+                .description(description)
+                .register(registry);
+    }
+}
@@ -0,0 +1,13 @@
+package com.iworks.bugtracker.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Turns on {@code @Scheduled} background jobs (e.g. the mail outbox dispatcher).
+ * They share Spring Boot's single "scheduling-" thread, so keep them short.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
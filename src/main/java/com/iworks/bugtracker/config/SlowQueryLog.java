@@ -0,0 +1,95 @@
+package com.iworks.bugtracker.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Samples Hibernate's slow query log.
+ *
+ * Hibernate logs every statement slower than hibernate.log_slow_query ms to
+ * org.hibernate.SQL_SLOW. When the database has a bad minute that is every statement,
+ * so only the first log-per-minute lines of each minute get through; the rest are
+ * counted and summed up in one line when the next minute starts. All of them are
+ * counted in bugtracker.db.slow.queries.
+ */
+@Component
+public class SlowQueryLog extends TurboFilter {
+
+    private static final org.slf4j.Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private static final String SLOW_QUERY_LOGGER = "org.hibernate.SQL_SLOW";
+    private static final long WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final int logPerMinute;
+    private final Counter slowQueries;
+
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger logged = new AtomicInteger();
+    private final AtomicInteger suppressed = new AtomicInteger();
+
+    public SlowQueryLog(
+            @Value("${bugtracker.slow-query.log-per-minute:20}") int logPerMinute,
+            MeterRegistry meterRegistry
+    ) {
+        this.logPerMinute = logPerMinute;
+        this.slowQueries = Counter.builder("bugtracker.db.slow.queries")
+                .description("Statements slower than hibernate.log_slow_query")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void install() {
+        loggerContext().addTurboFilter(this);
+        start();
+    }
+
+    @PreDestroy
+    void uninstall() {
+        stop();
+        loggerContext().getTurboFilterList().remove(this);
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // Called for every log statement in the app: keep the common path to one comparison.
+        // A null format is an isXxxEnabled() check, not a line.
+        if (format == null || !SLOW_QUERY_LOGGER.equals(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        slowQueries.increment();
+
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+            logged.set(0);
+            int dropped = suppressed.getAndSet(0);
+            if (dropped > 0) {
+                log.warn("{} more slow queries in the last minute were not logged", dropped);
+            }
+        }
+        if (logged.incrementAndGet() <= logPerMinute) {
+            return FilterReply.NEUTRAL;
+        }
+        suppressed.incrementAndGet();
+        return FilterReply.DENY;
+    }
+
+    private static LoggerContext loggerContext() {
+        return (LoggerContext) LoggerFactory.getILoggerFactory();
+    }
+}
@@ -1,28 +1,58 @@
 package com.iworks.bugtracker.controller;
 
-import com.iworks.bugtracker.model.BugReport;
 import com.iworks.bugtracker.service.BugReportService;
 import com.iworks.bugtracker.service.BugReportService.BulkUpdateRequest;
-import org.springframework.data.domain.Page;
+import com.iworks.bugtracker.service.DuplicateCluster;
+import com.iworks.bugtracker.service.DuplicateIndex;
+import com.iworks.bugtracker.service.DuplicateMatch;
+import com.iworks.bugtracker.service.ExportFormat;
+import com.iworks.bugtracker.service.HeavyOperationGate;
+import com.iworks.bugtracker.service.IssueEventStream;
+import com.iworks.bugtracker.service.IssueExporter;
+import com.iworks.bugtracker.service.IssueFields;
+import com.iworks.bugtracker.service.IssueFilter;
+import com.iworks.bugtracker.service.IssuePage;
+import com.iworks.bugtracker.service.IssueSlice;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/admin")
 public class AdminReportController {
 
     private final BugReportService bugReportService;
+    private final DuplicateIndex duplicateIndex;
+    private final IssueEventStream issueEventStream;
+    private final IssueExporter issueExporter;
+    // Exports and bulk updates of at least bulkThreshold issues queue here
+    private final HeavyOperationGate heavyOperationGate;
+    private final int bulkThreshold;
 
-    public AdminReportController(BugReportService bugReportService) {
+    public AdminReportController(BugReportService bugReportService,
+                                 DuplicateIndex duplicateIndex,
+                                 IssueEventStream issueEventStream,
+                                 IssueExporter issueExporter,
+                                 HeavyOperationGate heavyOperationGate,
+                                 @Value("${bugtracker.admission.heavy.bulk-threshold:100}") int bulkThreshold) {
         this.bugReportService = bugReportService;
+        this.duplicateIndex = duplicateIndex;
+        this.issueEventStream = issueEventStream;
+        this.issueExporter = issueExporter;
+        this.heavyOperationGate = heavyOperationGate;
+        this.bulkThreshold = bulkThreshold;
     }
 
     /**
@@ -30,9 +60,27 @@ public class AdminReportController {
      *
      * Returns a page of issues for the admin view,
      * filtered by type, resolved state, date range, and deleted state.
+     *
+     * Each issue is a flat JSON object with only the columns the grid needs
+     * (IssueFields.DEFAULT); "fields" picks a subset, e.g. fields=type,createdAt.
+     * "id" is always included.
+     *
+     * Two paging modes:
+     *  - page/size (default): an IssuePage with total counts, as used by admin-reports.html.
+     *  - cursor/size: when the "cursor" parameter is present (empty for the first slice),
+     *    returns an IssueSlice with an opaque "nextCursor" and no total count. Each slice
+     *    seeks directly to its start, so deep slices cost the same as the first.
+     *
+     * "q" is a full-text search over description, resolution, name and browser
+     * (web-search syntax: words, "quoted phrases", or, -excluded). Matching pages are
+     * ordered by relevance and each row gets a "snippet" with the matches wrapped in
+     * &lt;mark&gt;; the rest of the snippet text is NOT HTML-escaped.
+     *
+     * size is at most 200 in both modes. An invalid cursor token, unknown field, bad
+     * page/size (including a page so deep its offset overflows) or overlong q results in 400.
      */
     @GetMapping("/issues")
-    public Page<BugReport> getIssues(
+    public ResponseEntity<?> getIssues(
             @RequestParam(value = "type", required = false) String type,
             @RequestParam(value = "resolved", required = false) String resolved,
             @RequestParam(value = "fromDate", required = false)
@@ -41,18 +89,88 @@ public class AdminReportController {
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
             @RequestParam(value = "viewDeleted", defaultValue = "false") boolean viewDeleted,
             @RequestParam(value = "page", defaultValue = "0") int page,
-            @RequestParam(value = "size", defaultValue = "10") int size
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestParam(value = "q", required = false) String q
     ) {
-        Boolean resolvedFilter = parseResolvedFilter(resolved);
-        return bugReportService.searchIssues(
-                type,
-                resolvedFilter,
-                fromDate,
-                toDate,
-                viewDeleted,
-                page,
-                size
-        );
+        try {
+            IssueFilter filter = IssueFilter.of(
+                    type,
+                    parseResolvedFilter(resolved),
+                    fromDate,
+                    toDate,
+                    viewDeleted,
+                    q
+            );
+            List<String> selectedFields = IssueFields.parse(fields, filter.isSearch());
+
+            if (cursor != null) {
+                IssueSlice<Map<String, Object>> slice = bugReportService.searchIssuesAfter(
+                        filter,
+                        cursor,
+                        size,
+                        selectedFields
+                );
+                return ResponseEntity.ok(slice);
+            }
+
+            IssuePage<Map<String, Object>> result = bugReportService.searchIssues(
+                    filter,
+                    page,
+                    size,
+                    selectedFields
+            );
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException ex) {
+            // Malformed / tampered cursor token, unknown field, bad paging values, q too long
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * GET /api/admin/issues/events
+     *
+     * Server-Sent Events stream of committed issue changes, so the admin page
+     * doesn't have to poll. Events are named created / resolved / unresolved / deleted;
+     * each carries {"kind", "issues"} with just the changed rows (same fields as
+     * /api/admin/issues). A client that falls too far behind is disconnected.
+     *
+     * 503 (with Retry-After) when too many streams are already open.
+     */
+    @GetMapping(value = "/issues/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamIssueEvents() {
+        try {
+            return ResponseEntity.ok(issueEventStream.subscribe());
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+        }
+    }
+
+    /**
+     * GET /api/admin/issues/{id}/duplicates
+     *
+     * Open issues that look like near duplicates of the given issue
+     * (similar description, same type/browser), closest first.
+     * Empty if there are none or the issue doesn't exist.
+     */
+    @GetMapping("/issues/{id}/duplicates")
+    public List<DuplicateMatch> getIssueDuplicates(@PathVariable("id") Long id) {
+        return duplicateIndex.duplicatesOf(id);
+    }
+
+    /**
+     * GET /api/admin/issues/duplicates
+     *
+     * All groups of open issues that are near duplicates of each other, largest first.
+     * A whole group can be resolved in one call by posting its ids to
+     * /api/admin/issues/bulk-update.
+     */
+    @GetMapping("/issues/duplicates")
+    public List<DuplicateCluster> getDuplicateClusters() {
+        return duplicateIndex.clusters();
     }
 
     /**
@@ -63,22 +181,42 @@ public class AdminReportController {
      *  - Only allowing delete on already-resolved issues in the UI.
      *  - Showing confirmation dialogs as needed.
      *
-     * If an invalid delete is attempted (e.g. delete on unresolved issue),
-     * the service may throw IllegalStateException and we respond with 400.
+     * If an invalid delete is attempted (e.g. delete on unresolved issue), or an id
+     * is unknown or archived (archived issues are read-only), the service throws
+     * IllegalStateException and we respond with 400; nothing is changed.
+     *
+     * Responds with {"changed": n}, the number of issues that actually changed.
+     *
+     * Updates of bugtracker.admission.heavy.bulk-threshold issues or more wait for a
+     * slot in the HeavyOperationGate, shared with exports; 503 with Retry-After when
+     * none frees up in time.
      */
     @PostMapping("/issues/bulk-update")
-    public ResponseEntity<Void> bulkUpdateIssues(
+    public ResponseEntity<Map<String, Integer>> bulkUpdateIssues(
             @RequestBody List<BulkUpdateRequest> updates
     ) {
         if (updates == null || updates.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
 
+        if (updates.size() < bulkThreshold) {
+            return applyBulkUpdate(updates);
+        }
+        try (HeavyOperationGate.Permit permit = heavyOperationGate.enter("bulk-update")) {
+            return applyBulkUpdate(updates);
+        } catch (RejectedExecutionException ex) {
+            return ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(heavyOperationGate.retryAfterSeconds()))
+                    .build();
+        }
+    }
+
+    private ResponseEntity<Map<String, Integer>> applyBulkUpdate(List<BulkUpdateRequest> updates) {
         try {
-            bugReportService.applyBulkResolutionChanges(updates);
-            return ResponseEntity.ok().build();
+            return ResponseEntity.ok(Map.of("changed", bugReportService.applyBulkResolutionChanges(updates)));
         } catch (IllegalStateException ex) {
-            // Business rule violation (e.g., delete non-resolved issue)
+            // Business rule violation (e.g., delete non-resolved issue, archived issue)
             return ResponseEntity.badRequest().build();
         }
     }
@@ -86,13 +224,22 @@ public class AdminReportController {
     /**
      * GET /api/admin/issues/export
      *
-     * Exports all issues matching the current filters as a CSV file.
+     * Exports all issues matching the current filters (including a "q" search)
+     * in the admin grid ordering.
      * Pagination is NOT applied here; the full filtered dataset is exported.
+     * Rows are streamed as they are read, so large exports do not build up in memory.
+     *
+     * The format comes from "format" (csv, csv.gz, ndjson, arrow) or else the Accept
+     * header; CSV by default. See ExportFormat.
      *
      * Includes logical delete fields in the export.
+     *
+     * Runs through the HeavyOperationGate: at most a few exports (and large bulk
+     * updates) at once, the rest queue briefly; 503 with Retry-After when the queue
+     * is full or the wait runs out.
      */
     @GetMapping("/issues/export")
-    public void exportIssuesAsCsv(
+    public void exportIssues(
             @RequestParam(value = "type", required = false) String type,
             @RequestParam(value = "resolved", required = false) String resolved,
             @RequestParam(value = "fromDate", required = false)
@@ -100,51 +247,50 @@ public class AdminReportController {
             @RequestParam(value = "toDate", required = false)
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
             @RequestParam(value = "viewDeleted", defaultValue = "false") boolean viewDeleted,
+            @RequestParam(value = "q", required = false) String q,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
             HttpServletResponse response
     ) throws IOException {
 
-        Boolean resolvedFilter = parseResolvedFilter(resolved);
-
-        List<BugReport> issues = bugReportService.exportIssues(
-                type,
-                resolvedFilter,
-                fromDate,
-                toDate,
-                viewDeleted
-        );
-
-        response.setContentType("text/csv");
-        response.setCharacterEncoding("UTF-8");
-        response.setHeader(
-                HttpHeaders.CONTENT_DISPOSITION,
-                "attachment; filename=\"bug_reports_export.csv\""
-        );
-
-        try (PrintWriter writer = response.getWriter()) {
-            // CSV header – now includes deleted/deleted_at
-            writer.println("id,type,name,email,role,browser,description,event_time,created_at," +
-                    "resolved,resolved_by,resolution_description,resolved_at,deleted,deleted_at");
-
-            for (BugReport b : issues) {
-                writer.println(String.join(",",
-                        csv(b.getId()),
-                        csv(b.getType()),
-                        csv(b.getName()),
-                        csv(b.getEmail()),
-                        csv(b.getRole()),
-                        csv(b.getBrowser()),
-                        csv(b.getDescription()),
-                        csv(b.getEventTime()),
-                        csv(b.getCreatedAt()),
-                        csv(b.isResolved()),
-                        csv(b.getResolvedBy()),
-                        csv(b.getResolutionDescription()),
-                        csv(b.getResolvedAt()),
-                        csv(b.isDeleted()),
-                        csv(b.getDeletedAt())
-                ));
-            }
-            writer.flush();
+        ExportFormat exportFormat;
+        IssueFilter filter;
+        try {
+            exportFormat = ExportFormat.negotiate(format, accept);
+            filter = IssueFilter.of(
+                    type,
+                    parseResolvedFilter(resolved),
+                    fromDate,
+                    toDate,
+                    viewDeleted,
+                    q
+            );
+        } catch (IllegalArgumentException ex) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+
+        HeavyOperationGate.Permit permit;
+        try {
+            permit = heavyOperationGate.enter("export");
+        } catch (RejectedExecutionException ex) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(heavyOperationGate.retryAfterSeconds()));
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+
+        try (permit) {
+            response.setContentType(exportFormat.mediaType().toString());
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            response.setHeader(
+                    HttpHeaders.CONTENT_DISPOSITION,
+                    "attachment; filename=\"bug_reports_export." + exportFormat.extension() + "\""
+            );
+
+            // Rows are streamed from the DB cursor straight into the response;
+            // the service flushes the writer every few hundred rows.
+            issueExporter.export(filter, exportFormat, response.getOutputStream(), rows -> {
+            });
         }
     }
 
@@ -154,7 +300,7 @@ public class AdminReportController {
      *  - "true", "resolved" -> true
      *  - "false", "unresolved" -> false
      */
-    private Boolean parseResolvedFilter(String value) {
+    static Boolean parseResolvedFilter(String value) {
         if (value == null) {
             return null;
         }
@@ -171,29 +317,4 @@ public class AdminReportController {
         // If it's an unrecognized value, treat as "all"
         return null;
     }
-
-    /**
-     * Simple CSV cell formatter:
-     *  - null -> empty ""
-     *  - wraps in quotes
-     *  - escapes internal quotes
-     *  - mildly protects against CSV formula injection by prefixing
-     *    fields starting with =,+,-,@ with a single quote.
-     */
-    private String csv(Object value) {
-        if (value == null) {
-            return "\"\"";
-        }
-        String s = String.valueOf(value);
-
-        if (!s.isEmpty()) {
-            char first = s.charAt(0);
-            if (first == '=' || first == '+' || first == '-' || first == '@') {
-                s = "'" + s;
-            }
-        }
-
-        s = s.replace("\"", "\"\"");
-        return "\"" + s + "\"";
-    }
 }
@@ -0,0 +1,55 @@
+package com.iworks.bugtracker.controller;
+
+import com.iworks.bugtracker.service.IssueStats;
+import com.iworks.bugtracker.service.IssueStatsService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/stats")
+public class AdminStatsController {
+
+    private final IssueStatsService issueStatsService;
+
+    public AdminStatsController(IssueStatsService issueStatsService) {
+        this.issueStatsService = issueStatsService;
+    }
+
+    /**
+     * GET /api/admin/stats
+     *
+     * Created / open / resolved / deleted counts and mean time to resolve for issues
+     * created in [fromDate, toDate]: overall, per type, per browser and per day.
+     * Defaults to the last 30 days. Served from pre-aggregated daily rollups.
+     *
+     * fromDate after toDate results in 400.
+     */
+    @GetMapping
+    public ResponseEntity<IssueStats> getStats(
+            @RequestParam(value = "fromDate", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(value = "toDate", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate
+    ) {
+        try {
+            return ResponseEntity.ok(issueStatsService.getStats(fromDate, toDate));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * POST /api/admin/stats/rebuild
+     *
+     * Recomputes the rollups from bug_reports (recovery after manual data fixes).
+     * Submissions and bulk updates wait while it runs.
+     */
+    @PostMapping("/rebuild")
+    public Map<String, Integer> rebuildStats() {
+        return Map.of("rows", issueStatsService.rebuild());
+    }
+}
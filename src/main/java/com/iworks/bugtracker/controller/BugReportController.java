@@ -1,60 +1,89 @@
 package com.iworks.bugtracker.controller;
 
 import com.iworks.bugtracker.model.BugReport;
-import com.iworks.bugtracker.repository.BugReportRepository;
+import com.iworks.bugtracker.service.BugReportService;
+import com.iworks.bugtracker.service.CsvSpreadsheetWriter;
+import com.iworks.bugtracker.service.QueuedReport;
+import com.iworks.bugtracker.service.ScreenshotStore;
+import com.iworks.bugtracker.service.ScreenshotTooLargeException;
+import com.iworks.bugtracker.service.SubmissionJournal;
+import com.iworks.bugtracker.service.SubmissionRateLimiter;
+import com.iworks.bugtracker.service.ThumbnailCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.*;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api")
 public class BugReportController {
 
-    private final BugReportRepository bugReportRepository;
-
-    // These will be set based on properties bugtracker.upload-dir and bugtracker.report-dir
-    private final Path uploadDir;
-    private final Path reportsDir;
-    private final Path csvFile;
-
-    private final DateTimeFormatter dateTimeFormatter =
-            DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private final BugReportService bugReportService;
+
+    // Storage lives in these components, based on properties
+    // bugtracker.upload-dir and bugtracker.report-dir
+    private final ScreenshotStore screenshotStore;
+    private final ThumbnailCache thumbnailCache;
+    private final CsvSpreadsheetWriter csvSpreadsheetWriter;
+    // Write-behind mode (bugtracker.ingest.write-behind=true)
+    private final SubmissionJournal submissionJournal;
+    // Per email/address token buckets (bugtracker.ratelimit.submit.*)
+    private final SubmissionRateLimiter rateLimiter;
+
+    // bugtracker.submit, per phase of handleBugReport
+    private final Timer validationTimer;
+    private final Timer uploadTimer;
+    private final Timer insertTimer;
+    private final Timer csvTimer;
+    private final Timer journalTimer;
 
     public BugReportController(
-            BugReportRepository bugReportRepository,
-            @Value("${bugtracker.upload-dir}") String uploadDirProperty,
-            @Value("${bugtracker.report-dir}") String reportsDirProperty
+            BugReportService bugReportService,
+            ScreenshotStore screenshotStore,
+            ThumbnailCache thumbnailCache,
+            CsvSpreadsheetWriter csvSpreadsheetWriter,
+            SubmissionJournal submissionJournal,
+            SubmissionRateLimiter rateLimiter,
+            MeterRegistry meterRegistry
     ) {
-        this.bugReportRepository = bugReportRepository;
-
-        // Normalize paths (works for both relative and absolute paths)
-        this.uploadDir = Paths.get(uploadDirProperty).toAbsolutePath().normalize();
-        this.reportsDir = Paths.get(reportsDirProperty).toAbsolutePath().normalize();
-        this.csvFile = this.reportsDir.resolve("bug_reports.csv");
-
-        // Ensure directories exist
-        try {
-            Files.createDirectories(this.uploadDir);
-            Files.createDirectories(this.reportsDir);
-        } catch (IOException e) {
-            // Fail fast if we can't prepare storage directories
-            throw new IllegalStateException("Failed to create upload/report directories", e);
-        }
+        this.bugReportService = bugReportService;
+        this.screenshotStore = screenshotStore;
+        this.thumbnailCache = thumbnailCache;
+        this.csvSpreadsheetWriter = csvSpreadsheetWriter;
+        this.submissionJournal = submissionJournal;
+        this.rateLimiter = rateLimiter;
+
+        this.validationTimer = submitTimer(meterRegistry, "validation");
+        this.uploadTimer = submitTimer(meterRegistry, "upload");
+        this.insertTimer = submitTimer(meterRegistry, "insert");
+        this.csvTimer = submitTimer(meterRegistry, "csv");
+        this.journalTimer = submitTimer(meterRegistry, "journal");
     }
 
+    /**
+     * POST /api/bug-report
+     *
+     * 200 once the report is saved. In write-behind mode (bugtracker.ingest.write-behind)
+     * 202 as soon as it is in the submission journal, with its tracking id; it is
+     * inserted shortly after (see SubmissionDrainer). 503 with Retry-After while the
+     * journal is full.
+     *
+     * 429 with Retry-After when the sender's email or address has used up its
+     * submissions for now (see SubmissionRateLimiter); checked before the screenshot
+     * is stored.
+     */
     @PostMapping("/bug-report")
     public ResponseEntity<String> handleBugReport(
             @RequestParam("name") @NotBlank @Size(max = 100) String name,
@@ -64,16 +93,31 @@ public class BugReportController {
             @RequestParam(value = "datetime", required = false) String datetime,
             @RequestParam("type") @NotBlank @Size(max = 50) String type,
             @RequestParam("description") @NotBlank @Size(max = 255) String description,
-            @RequestParam(value = "screenshot", required = false) MultipartFile screenshot
+            @RequestParam(value = "screenshot", required = false) MultipartFile screenshot,
+            HttpServletRequest request
     ) {
+        Timer.Sample validation = Timer.start();
+
         // enforce @iworkscorp.com domain
         if (!email.toLowerCase().endsWith("@iworkscorp.com")) {
+            validation.stop(validationTimer);
             return ResponseEntity
                     .status(HttpStatus.BAD_REQUEST)
                     .body("Email must be an @iworkscorp.com address.");
         }
 
+        Duration wait = rateLimiter.acquire(email, request.getRemoteAddr());
+        if (!wait.isZero()) {
+            validation.stop(validationTimer);
+            long seconds = Math.max(1, (wait.toMillis() + 999) / 1000);
+            return ResponseEntity
+                    .status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(seconds))
+                    .body("Too many bug reports; please try again in " + seconds + " seconds.");
+        }
+
         BugReport report = new BugReport();
+        report.setTrackingId(UUID.randomUUID());
         report.setName(name);
         report.setEmail(email);
         report.setRole(role);
@@ -92,85 +136,81 @@ public class BugReportController {
 
         // server-side createdAt timestamp
         report.setCreatedAt(LocalDateTime.now());
+        validation.stop(validationTimer);
 
         // handle optional file upload
         if (screenshot != null && !screenshot.isEmpty()) {
+            Timer.Sample upload = Timer.start();
             try {
-                String originalFilename =
-                        StringUtils.cleanPath(screenshot.getOriginalFilename());
-                String filename = System.currentTimeMillis() + "_" + originalFilename;
-
-                Path targetPath = uploadDir.resolve(filename);
-                Files.copy(screenshot.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
-
-                // Store the absolute path (or relative, up to you)
-                report.setScreenshotPath(targetPath.toString());
+                // Content-addressed: identical screenshots are stored once.
+                // The key is relative to the upload dir (ab/cd/<sha256>).
+                report.setScreenshotPath(screenshotStore.store(screenshot));
+            } catch (ScreenshotTooLargeException e) {
+                return ResponseEntity
+                        .status(HttpStatus.PAYLOAD_TOO_LARGE)
+                        .body("Screenshot is too large.");
             } catch (IOException e) {
                 return ResponseEntity
                         .status(HttpStatus.INTERNAL_SERVER_ERROR)
                         .body("Failed to save screenshot.");
+            } finally {
+                upload.stop(uploadTimer);
             }
         }
 
+        if (submissionJournal.isEnabled()) {
+            return enqueue(report);
+        }
+
         // save to database first so we get the generated ID
-        BugReport saved = bugReportRepository.save(report);
+        BugReport saved = insertTimer.record(() -> bugReportService.submitReport(report));
 
-        // append to CSV "spreadsheet" (best-effort; don't fail the request if this fails)
-        try {
-            appendToCsv(saved);
-        } catch (IOException e) {
-            System.err.println("Failed to write to CSV: " + e.getMessage());
+        // append to CSV "spreadsheet" (best-effort, written in the background;
+        // don't fail or slow down the request for it)
+        csvTimer.record(() -> csvSpreadsheetWriter.append(saved));
+
+        // warm the admin grid thumbnail off-thread
+        if (saved.getScreenshotPath() != null) {
+            thumbnailCache.prefetch(saved.getScreenshotPath());
         }
 
         return ResponseEntity.ok("Bug report submitted. Thank you!");
     }
 
-    private void appendToCsv(BugReport report) throws IOException {
-        boolean fileExists = Files.exists(csvFile);
-
-        try (BufferedWriter writer = Files.newBufferedWriter(
-                csvFile,
-                StandardCharsets.UTF_8,
-                StandardOpenOption.CREATE,
-                StandardOpenOption.APPEND
-        )) {
-            // write header once
-            if (!fileExists) {
-                writer.write("id,name,email,role,browser,type,description,event_time,created_at,screenshot_path");
-                writer.newLine();
-            }
+    /**
+     * Write-behind: journal the report, and leave the insert and the CSV row to the
+     * drainer.
+     */
+    private ResponseEntity<String> enqueue(BugReport report) {
+        Timer.Sample journal = Timer.start();
+        try {
+            submissionJournal.append(QueuedReport.of(report));
+        } catch (IllegalStateException e) {
+            return ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body("Too many bug reports right now; please try again shortly.");
+        } catch (IOException e) {
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Failed to save bug report.");
+        } finally {
+            journal.stop(journalTimer);
+        }
 
-            String eventTimeStr = report.getEventTime() != null
-                    ? dateTimeFormatter.format(report.getEventTime())
-                    : "";
-
-            String createdAtStr = report.getCreatedAt() != null
-                    ? dateTimeFormatter.format(report.getCreatedAt())
-                    : "";
-
-            writer.write(String.join(",",
-                    csv(report.getId()),
-                    csv(report.getName()),
-                    csv(report.getEmail()),
-                    csv(report.getRole()),
-                    csv(report.getBrowser()),
-                    csv(report.getType()),
-                    csv(report.getDescription()),
-                    csv(eventTimeStr),
-                    csv(createdAtStr),
-                    csv(report.getScreenshotPath())
-            ));
-            writer.newLine();
+        if (report.getScreenshotPath() != null) {
+            thumbnailCache.prefetch(report.getScreenshotPath());
         }
+
+        return ResponseEntity
+                .status(HttpStatus.ACCEPTED)
+                .body("Bug report received. Thank you! Tracking id: " + report.getTrackingId());
     }
 
-    // Simple CSV escaping: wrap in quotes and escape internal quotes
-    private String csv(Object value) {
-        if (value == null) {
-            return "\"\"";
-        }
-        String s = String.valueOf(value);
-        s = s.replace("\"", "\"\""); // escape quotes
-        return "\"" + s + "\"";
+    private static Timer submitTimer(MeterRegistry meterRegistry, String phase) {
+        return Timer.builder("bugtracker.submit")
+                .description("Bug report submission, per phase")
+                .tag("phase", phase)
+                .register(meterRegistry);
     }
 }
@@ -0,0 +1,142 @@
+package com.iworks.bugtracker.controller;
+
+import com.iworks.bugtracker.service.ExportFormat;
+import com.iworks.bugtracker.service.ExportJob;
+import com.iworks.bugtracker.service.ExportJobService;
+import com.iworks.bugtracker.service.IssueFilter;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api/admin/exports")
+public class ExportJobController {
+
+    private final ExportJobService exportJobService;
+
+    public ExportJobController(ExportJobService exportJobService) {
+        this.exportJobService = exportJobService;
+    }
+
+    /**
+     * POST /api/admin/exports
+     *
+     * Starts a background export with the same parameters as
+     * GET /api/admin/issues/export (filters, "q" and "format"). Responds 202 with the
+     * job (see GET /api/admin/exports/{id}) and its URL in Location. An identical
+     * export that is already queued, running or done with the current data is
+     * returned instead of starting a new one.
+     *
+     * 400 for bad parameters, 429 when the caller already has the maximum number of
+     * exports in progress, 503 (with Retry-After) when the queue is full.
+     */
+    @PostMapping
+    public ResponseEntity<ExportJob> submitExport(
+            @RequestParam(value = "type", required = false) String type,
+            @RequestParam(value = "resolved", required = false) String resolved,
+            @RequestParam(value = "fromDate", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(value = "toDate", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(value = "viewDeleted", defaultValue = "false") boolean viewDeleted,
+            @RequestParam(value = "q", required = false) String q,
+            @RequestParam(value = "format", required = false) String format,
+            HttpServletRequest request
+    ) {
+        ExportFormat exportFormat;
+        IssueFilter filter;
+        try {
+            exportFormat = ExportFormat.negotiate(format, null);
+            filter = IssueFilter.of(
+                    type,
+                    AdminReportController.parseResolvedFilter(resolved),
+                    fromDate,
+                    toDate,
+                    viewDeleted,
+                    q
+            );
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ExportJob job;
+        try {
+            job = exportJobService.submit(filter, exportFormat, owner(request));
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        } catch (RejectedExecutionException ex) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "60")
+                    .build();
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/admin/exports/" + job.getId()))
+                .body(job);
+    }
+
+    /**
+     * GET /api/admin/exports/{id}
+     *
+     * Job status for polling: state (QUEUED, RUNNING, DONE, FAILED), rows written so
+     * far out of totalRows, and once DONE the file size and downloadUrl.
+     * 404 for unknown or expired jobs.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ExportJob> getExport(@PathVariable("id") String id) {
+        return ResponseEntity.of(exportJobService.find(id));
+    }
+
+    /**
+     * GET /api/admin/exports/{id}/file
+     *
+     * Downloads a finished export. Supports Range / If-Range, so interrupted
+     * downloads can be resumed (e.g. curl -C -).
+     *
+     * 404 for unknown or expired jobs, 409 while the job isn't DONE.
+     */
+    @GetMapping("/{id}/file")
+    public void downloadExport(
+            @PathVariable("id") String id,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        Optional<ExportJob> found = exportJobService.find(id);
+        if (found.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        ExportJob job = found.get();
+        if (job.getState() != ExportJob.State.DONE) {
+            response.sendError(HttpServletResponse.SC_CONFLICT);
+            return;
+        }
+
+        response.setHeader(
+                HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"bug_reports_export." + job.format().extension() + "\""
+        );
+        // The file only changes under a new job id
+        FileResponses.send(request, response, job.file(), Files.size(job.file()),
+                job.format().mediaType().toString(), "\"" + job.getId() + "\"");
+    }
+
+    /**
+     * Whom the per-user limit applies to: the authenticated user when the container
+     * (or a proxy) provides one, the client address otherwise.
+     */
+    private static String owner(HttpServletRequest request) {
+        String user = request.getRemoteUser();
+        return user != null ? user : request.getRemoteAddr();
+    }
+}
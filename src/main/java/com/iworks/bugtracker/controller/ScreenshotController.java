@@ -0,0 +1,111 @@
+package com.iworks.bugtracker.controller;
+
+import com.iworks.bugtracker.service.BugReportService;
+import com.iworks.bugtracker.service.ScreenshotStore;
+import com.iworks.bugtracker.service.StoredScreenshot;
+import com.iworks.bugtracker.service.ThumbnailCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+
+@RestController
+@RequestMapping("/api/admin/issues")
+public class ScreenshotController {
+
+    private final BugReportService bugReportService;
+    private final ScreenshotStore screenshotStore;
+    private final ThumbnailCache thumbnailCache;
+
+    public ScreenshotController(BugReportService bugReportService,
+                                ScreenshotStore screenshotStore,
+                                ThumbnailCache thumbnailCache) {
+        this.bugReportService = bugReportService;
+        this.screenshotStore = screenshotStore;
+        this.thumbnailCache = thumbnailCache;
+    }
+
+    /**
+     * GET /api/admin/issues/{id}/screenshot
+     *
+     * Streams the issue's screenshot from the upload directory.
+     * Responds with a strong ETag (the content hash), Cache-Control: immutable,
+     * 304 for a matching If-None-Match and 206 for a byte Range.
+     * Only PNG, JPEG, GIF and WebP are shown inline; anything else is a download
+     * (see {@link ScreenshotStore#servedContentType}).
+     * 404 if the issue has no screenshot or the file is gone.
+     */
+    @RequestMapping(value = "/{id}/screenshot", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void getScreenshot(
+            @PathVariable("id") Long id,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        StoredScreenshot screenshot = bugReportService.findScreenshotPath(id)
+                .map(this::locate)
+                .orElse(null);
+
+        if (screenshot == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        FileResponses.send(request, response,
+                screenshot.file(), screenshot.size(), screenshot.contentType(), screenshot.etag());
+    }
+
+    /**
+     * GET /api/admin/issues/{id}/screenshot/thumbnail
+     *
+     * A small JPEG preview of the screenshot for the admin grid, rendered once and
+     * then served from the on-disk thumbnail cache with the same caching headers
+     * as the full image. 404 if there is no screenshot or it isn't a readable image.
+     */
+    @RequestMapping(value = "/{id}/screenshot/thumbnail", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void getScreenshotThumbnail(
+            @PathVariable("id") Long id,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        StoredScreenshot screenshot = bugReportService.findScreenshotPath(id)
+                .map(this::locate)
+                .orElse(null);
+
+        ThumbnailCache.Thumbnail thumbnail = (screenshot != null) ? thumbnailCache.getThumbnail(screenshot) : null;
+        if (thumbnail == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        try {
+            sendThumbnail(request, response, screenshot, thumbnail);
+        } catch (NoSuchFileException e) {
+            // Evicted between the lookup and the read: render it once more
+            response.reset();
+            thumbnail = thumbnailCache.getThumbnail(screenshot);
+            if (thumbnail == null) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            sendThumbnail(request, response, screenshot, thumbnail);
+        }
+    }
+
+    private void sendThumbnail(HttpServletRequest request,
+                               HttpServletResponse response,
+                               StoredScreenshot screenshot,
+                               ThumbnailCache.Thumbnail thumbnail) throws IOException {
+        FileResponses.send(request, response,
+                thumbnail.file(), thumbnail.size(), "image/jpeg", thumbnailCache.etag(screenshot));
+    }
+
+    private StoredScreenshot locate(String screenshotPath) {
+        try {
+            return screenshotStore.locate(screenshotPath);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
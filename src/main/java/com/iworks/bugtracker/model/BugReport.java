@@ -5,15 +5,23 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Entity
 @Table(name = "bug_reports")
 public class BugReport {
 
+    // Pooled: one nextval per 50 ids, so inserts can be JDBC-batched.
+    // allocationSize must match INCREMENT BY of the sequence (V7 migration).
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bug_reports_seq")
+    @SequenceGenerator(name = "bug_reports_seq", sequenceName = "bug_reports_seq", allocationSize = 50)
     private Long id;
 
+    // Assigned on submission and returned to the reporter; unique
+    @Column(name = "tracking_id", updatable = false)
+    private UUID trackingId;
+
     @NotBlank
     @Size(max = 100)
     private String name;
@@ -64,10 +72,10 @@ public class BugReport {
     @Column(name = "resolved_at")
     private LocalDateTime resolvedAt;
 
-    // --- NEW logical delete fields ---
+    // --- Logical delete fields ---
 
-    @Column(name = "deleted")
-    private Boolean deleted;   // null or false = not deleted
+    @Column(name = "deleted", nullable = false)
+    private boolean deleted = false;
 
     @Column(name = "deleted_at")
     private LocalDateTime deletedAt;
@@ -92,6 +100,14 @@ public class BugReport {
         this.id = id;
     }
 
+    public UUID getTrackingId() {
+        return trackingId;
+    }
+
+    public void setTrackingId(UUID trackingId) {
+        this.trackingId = trackingId;
+    }
+
     public String getName() {
         return name;
     }
@@ -196,13 +212,13 @@ public class BugReport {
         this.resolvedAt = resolvedAt;
     }
 
-    // --- NEW getters & setters for deleted ---
+    // --- Getters & setters for deleted ---
 
-    public Boolean getDeleted() {
+    public boolean isDeleted() {
         return deleted;
     }
 
-    public void setDeleted(Boolean deleted) {
+    public void setDeleted(boolean deleted) {
         this.deleted = deleted;
     }
 
@@ -214,11 +230,6 @@ public class BugReport {
         this.deletedAt = deletedAt;
     }
 
-    // Optional convenience for UI checks
-    public boolean isDeleted() {
-        return Boolean.TRUE.equals(deleted);
-    }
-
     // Convenience methods (unchanged)
 
     public void markResolved(String resolvedBy, String resolutionDescription, LocalDateTime resolvedAt) {
@@ -0,0 +1,172 @@
+package com.iworks.bugtracker.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A bug report read from the bug_reports_with_archive view: the hot bug_reports
+ * table plus bug_reports_archive (see IssueArchiver). Same attribute names as
+ * {@link BugReport}, so the admin filters and field selections work on either.
+ *
+ * Read-only; changes go through {@link BugReport}, and archived issues don't change.
+ */
+@Entity
+@Immutable
+@Table(name = "bug_reports_with_archive")
+public class BugReportWithArchive {
+
+    @Id
+    private Long id;
+
+    @Column(name = "tracking_id")
+    private UUID trackingId;
+
+    private String name;
+
+    private String email;
+
+    private String role;
+
+    private String browser;
+
+    private LocalDateTime eventTime;
+
+    private String type;
+
+    private String description;
+
+    @Column(name = "screenshot_path")
+    private String screenshotPath;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "resolved")
+    private boolean resolved;
+
+    @Column(name = "resolved_by")
+    private String resolvedBy;
+
+    @Column(name = "resolution_description")
+    private String resolutionDescription;
+
+    @Column(name = "resolved_at")
+    private LocalDateTime resolvedAt;
+
+    @Column(name = "deleted")
+    private boolean deleted;
+
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
+    // Null while the issue is still in bug_reports
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+
+    // --- Getters ---
+
+    public Long getId() {
+        return id;
+    }
+
+    public UUID getTrackingId() {
+        return trackingId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public String getBrowser() {
+        return browser;
+    }
+
+    public LocalDateTime getEventTime() {
+        return eventTime;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getScreenshotPath() {
+        return screenshotPath;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public boolean isResolved() {
+        return resolved;
+    }
+
+    public String getResolvedBy() {
+        return resolvedBy;
+    }
+
+    public String getResolutionDescription() {
+        return resolutionDescription;
+    }
+
+    public LocalDateTime getResolvedAt() {
+        return resolvedAt;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    public boolean isArchived() {
+        return archivedAt != null;
+    }
+
+    /**
+     * A detached {@link BugReport} with the same values, for code that takes one
+     * (e.g. the export writers). Never save it.
+     */
+    public BugReport toBugReport() {
+        BugReport report = new BugReport();
+        report.setId(id);
+        report.setTrackingId(trackingId);
+        report.setName(name);
+        report.setEmail(email);
+        report.setRole(role);
+        report.setBrowser(browser);
+        report.setEventTime(eventTime);
+        report.setType(type);
+        report.setDescription(description);
+        report.setScreenshotPath(screenshotPath);
+        report.setCreatedAt(createdAt);
+        report.setResolved(resolved);
+        report.setResolvedBy(resolvedBy);
+        report.setResolutionDescription(resolutionDescription);
+        report.setResolvedAt(resolvedAt);
+        report.setDeleted(deleted);
+        report.setDeletedAt(deletedAt);
+        return report;
+    }
+}
@@ -0,0 +1,52 @@
+package com.iworks.bugtracker.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Issue counters for one (creation day, type, browser), kept up to date as reports
+ * are submitted, resolved, unresolved and deleted.
+ *
+ * Written only through the set-based statements in IssueDailyRollupRepository.
+ */
+@Entity
+@Table(name = "issue_daily_rollups")
+public class IssueDailyRollup {
+
+    @EmbeddedId
+    private IssueDailyRollupId id;
+
+    @Column(name = "created_count", nullable = false)
+    private long createdCount;
+
+    @Column(name = "resolved_count", nullable = false)
+    private long resolvedCount;
+
+    @Column(name = "deleted_count", nullable = false)
+    private long deletedCount;
+
+    // Sum of (resolvedAt - createdAt) in seconds over the resolved issues
+    @Column(name = "resolve_seconds_sum", nullable = false)
+    private long resolveSecondsSum;
+
+    // --- Getters ---
+
+    public IssueDailyRollupId getId() {
+        return id;
+    }
+
+    public long getCreatedCount() {
+        return createdCount;
+    }
+
+    public long getResolvedCount() {
+        return resolvedCount;
+    }
+
+    public long getDeletedCount() {
+        return deletedCount;
+    }
+
+    public long getResolveSecondsSum() {
+        return resolveSecondsSum;
+    }
+}
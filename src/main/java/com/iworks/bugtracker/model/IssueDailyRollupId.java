@@ -0,0 +1,54 @@
+package com.iworks.bugtracker.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Key of {@link IssueDailyRollup}: creation day, issue type and browser.
+ */
+@Embeddable
+public class IssueDailyRollupId implements Serializable {
+
+    @Column(name = "day", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "type", length = 50, nullable = false)
+    private String type;
+
+    @Column(name = "browser", length = 50, nullable = false)
+    private String browser;
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getBrowser() {
+        return browser;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IssueDailyRollupId other)) {
+            return false;
+        }
+        return Objects.equals(day, other.day)
+                && Objects.equals(type, other.type)
+                && Objects.equals(browser, other.browser);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(day, type, browser);
+    }
+}
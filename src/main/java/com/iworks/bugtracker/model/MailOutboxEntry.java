@@ -0,0 +1,68 @@
+package com.iworks.bugtracker.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One pending alert email for a submitted bug report.
+ *
+ * Written and claimed only through the statements in MailOutboxRepository.
+ */
+@Entity
+@Table(name = "mail_outbox")
+public class MailOutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bug_report_id", nullable = false)
+    private Long bugReportId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Send attempts so far, including the one in progress once claimed
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    // Set once max-attempts is reached; such rows are kept for inspection but never retried
+    @Column(name = "failed_at")
+    private LocalDateTime failedAt;
+
+    // --- Getters ---
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getBugReportId() {
+        return bugReportId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public LocalDateTime getFailedAt() {
+        return failedAt;
+    }
+}
@@ -0,0 +1,60 @@
+package com.iworks.bugtracker.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Metadata for one stored screenshot file, keyed by its SHA-256 content hash.
+ *
+ * Identical uploads share a single file; refCount tracks how many saved bug reports
+ * use it. storedAt is the last time the content was uploaded.
+ */
+@Entity
+@Table(name = "screenshot_blobs")
+public class ScreenshotBlob {
+
+    @Id
+    @Column(name = "hash", length = 64)
+    private String hash;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "stored_at", nullable = false)
+    private LocalDateTime storedAt;
+
+    // --- Getters ---
+
+    public String getHash() {
+        return hash;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public int getRefCount() {
+        return refCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getStoredAt() {
+        return storedAt;
+    }
+}
@@ -1,18 +1,148 @@
 package com.iworks.bugtracker.repository;
 
 import com.iworks.bugtracker.model.BugReport;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 public interface BugReportRepository extends JpaRepository<BugReport, Long>,
         JpaSpecificationExecutor<BugReport> {
 
-    // For now, we rely entirely on JpaSpecificationExecutor
+    // Reads go through JpaSpecificationExecutor
     // via BugReportService.buildAdminSpecification(...) for:
     //  - searchIssues (paginated)
-    //  - exportIssues (full list)
+    //  - exportIssues (streamed through a JDBC cursor in the service)
     //
-    // If we ever need custom JPQL queries again (e.g., performance tuning),
-    // we can reintroduce @Query methods with standard String concatenation
-    // instead of text blocks to avoid compilation issues.
+    // The set-based updates below back BugReportService.applyBulkResolutionChanges.
+    // They use standard String concatenation instead of text blocks to avoid
+    // compilation issues, and clear the persistence context afterwards so no
+    // stale entities survive the bulk statement.
+
+    /**
+     * Just the screenshot key/path for one issue (empty if the issue doesn't exist
+     * or has no screenshot), without loading the whole row.
+     */
+    @Query("SELECT b.screenshotPath FROM BugReport b WHERE b.id = :id AND b.screenshotPath IS NOT NULL")
+    Optional<String> findScreenshotPathById(@Param("id") Long id);
+
+    /**
+     * Which of the given tracking ids are already stored (write-behind replays).
+     */
+    @Query("SELECT b.trackingId FROM BugReport b WHERE b.trackingId IN :trackingIds")
+    List<UUID> findExistingTrackingIds(@Param("trackingIds") Collection<UUID> trackingIds);
+
+    /**
+     * Id + the text used for duplicate fingerprints of every open
+     * (unresolved, not deleted) issue.
+     */
+    @Query("SELECT b.id AS id, b.type AS type, b.browser AS browser, b.description AS description " +
+            "FROM BugReport b " +
+            "WHERE b.resolved = false AND b.deleted = false")
+    List<IssueText> findOpenIssueTexts();
+
+    /**
+     * Same projection for specific issues, regardless of their state.
+     */
+    @Query("SELECT b.id AS id, b.type AS type, b.browser AS browser, b.description AS description " +
+            "FROM BugReport b WHERE b.id IN :ids")
+    List<IssueText> findIssueTextsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Loads the given issues and locks them (FOR UPDATE) until the transaction ends,
+     * in id order so concurrent bulk updates can't deadlock. A bulk update decides
+     * what to change, and the rollup deltas are computed, from the state read here;
+     * no other writer can change it in between.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM BugReport b WHERE b.id IN :ids ORDER BY b.id")
+    List<BugReport> lockAllById(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Marks the given issues resolved. resolvedAt is only stamped on issues
+     * that were not already resolved.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BugReport b SET b.resolved = true, " +
+            "b.resolvedBy = :resolvedBy, " +
+            "b.resolutionDescription = :resolutionDescription, " +
+            "b.resolvedAt = CASE WHEN b.resolved = true THEN b.resolvedAt ELSE :now END " +
+            "WHERE b.id IN :ids")
+    int markResolved(@Param("ids") Collection<Long> ids,
+                     @Param("resolvedBy") String resolvedBy,
+                     @Param("resolutionDescription") String resolutionDescription,
+                     @Param("now") LocalDateTime now);
+
+    /**
+     * Marks the given issues unresolved and clears all resolution fields.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BugReport b SET b.resolved = false, " +
+            "b.resolvedBy = null, " +
+            "b.resolutionDescription = null, " +
+            "b.resolvedAt = null " +
+            "WHERE b.id IN :ids")
+    int markUnresolved(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Logically deletes the given issues. Unresolved or already-deleted
+     * rows are left untouched.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BugReport b SET b.deleted = true, b.deletedAt = :now " +
+            "WHERE b.id IN :ids AND b.resolved = true AND b.deleted = false")
+    int markDeleted(@Param("ids") Collection<Long> ids,
+                    @Param("now") LocalDateTime now);
+
+    // --- Archiving (BugReportService.archiveIssues) ---
+
+    /**
+     * Locks up to :limit issues that are due for the archive: deleted before
+     * :deletedBefore, or resolved before :resolvedBefore (null = never). Rows locked
+     * by someone else (e.g. a bulk update in progress) are skipped until next time.
+     */
+    @Query(value = "SELECT id FROM bug_reports " +
+            "WHERE (deleted AND deleted_at < :deletedBefore) " +
+            "OR (resolved AND resolved_at < CAST(:resolvedBefore AS TIMESTAMP)) " +
+            "LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Long> lockArchivable(@Param("deletedBefore") LocalDateTime deletedBefore,
+                              @Param("resolvedBefore") LocalDateTime resolvedBefore,
+                              @Param("limit") int limit);
+
+    /**
+     * The years the given issues were created in, i.e. the archive partitions they need.
+     */
+    @Query(value = "SELECT DISTINCT CAST(extract(YEAR FROM created_at) AS INTEGER) " +
+            "FROM bug_reports WHERE id IN (:ids)",
+            nativeQuery = true)
+    List<Integer> findCreatedYears(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Moves the given issues from bug_reports to bug_reports_archive in one statement.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "WITH moved AS (" +
+            "DELETE FROM bug_reports WHERE id IN (:ids) " +
+            "RETURNING id, tracking_id, name, email, role, browser, event_time, type, description, " +
+            "screenshot_path, created_at, resolved, resolved_by, resolution_description, " +
+            "resolved_at, deleted, deleted_at) " +
+            "INSERT INTO bug_reports_archive (id, tracking_id, name, email, role, browser, event_time, " +
+            "type, description, screenshot_path, created_at, resolved, resolved_by, " +
+            "resolution_description, resolved_at, deleted, deleted_at, archived_at) " +
+            "SELECT id, tracking_id, name, email, role, browser, event_time, type, description, " +
+            "screenshot_path, created_at, resolved, resolved_by, resolution_description, " +
+            "resolved_at, deleted, deleted_at, :now FROM moved",
+            nativeQuery = true)
+    int moveToArchive(@Param("ids") Collection<Long> ids,
+                      @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,20 @@
+package com.iworks.bugtracker.repository;
+
+import com.iworks.bugtracker.model.BugReportWithArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface BugReportWithArchiveRepository extends JpaRepository<BugReportWithArchive, Long> {
+
+    // Admin list reads over hot + archived issues (viewDeleted=true) go through
+    // BugReportService.buildAdminSpecification(...) like those on BugReportRepository.
+
+    /**
+     * Screenshot key/path for an issue that may have been archived.
+     */
+    @Query("SELECT b.screenshotPath FROM BugReportWithArchive b WHERE b.id = :id AND b.screenshotPath IS NOT NULL")
+    Optional<String> findScreenshotPathById(@Param("id") Long id);
+}
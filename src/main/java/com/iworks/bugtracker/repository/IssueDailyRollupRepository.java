@@ -0,0 +1,151 @@
+package com.iworks.bugtracker.repository;
+
+import com.iworks.bugtracker.model.IssueDailyRollup;
+import com.iworks.bugtracker.model.IssueDailyRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface IssueDailyRollupRepository extends JpaRepository<IssueDailyRollup, IssueDailyRollupId> {
+
+    // The record* statements run inside the transaction that changes bug_reports,
+    // so the counters commit (or roll back) together with the change. Each one is a
+    // single upsert computed from the affected rows; the resolve/unresolve/delete
+    // ones must run BEFORE the matching BugReportRepository update, while the rows
+    // still show their previous state, and only on rows the caller has locked
+    // (BugReportRepository.lockAllById): otherwise a concurrent update of the same
+    // rows could commit in between and both would count the same change.
+
+    @Modifying
+    @Query(value = "INSERT INTO issue_daily_rollups AS r (day, type, browser, created_count) " +
+            "VALUES (:day, :type, :browser, 1) " +
+            "ON CONFLICT (day, type, browser) DO UPDATE SET created_count = r.created_count + 1",
+            nativeQuery = true)
+    int recordCreated(@Param("day") LocalDate day,
+                      @Param("type") String type,
+                      @Param("browser") String browser);
+
+    /**
+     * Counts the just-inserted issues among ids as created; must run AFTER the
+     * inserts have been flushed.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO issue_daily_rollups AS r (day, type, browser, created_count) " +
+            "SELECT CAST(created_at AS DATE), type, browser, count(*) " +
+            "FROM bug_reports WHERE id IN (:ids) " +
+            "GROUP BY 1, 2, 3 " +
+            "ON CONFLICT (day, type, browser) DO UPDATE SET " +
+            "created_count = r.created_count + EXCLUDED.created_count",
+            nativeQuery = true)
+    int recordCreatedByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Counts the not-yet-resolved issues among ids as resolved at :now.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO issue_daily_rollups AS r (day, type, browser, resolved_count, resolve_seconds_sum) " +
+            "SELECT CAST(created_at AS DATE), type, browser, count(*), " +
+            "coalesce(sum(round(extract(epoch FROM CAST(:now AS TIMESTAMP) - created_at))), 0) " +
+            "FROM bug_reports WHERE id IN (:ids) AND resolved = false " +
+            "GROUP BY 1, 2, 3 " +
+            "ON CONFLICT (day, type, browser) DO UPDATE SET " +
+            "resolved_count = r.resolved_count + EXCLUDED.resolved_count, " +
+            "resolve_seconds_sum = r.resolve_seconds_sum + EXCLUDED.resolve_seconds_sum",
+            nativeQuery = true)
+    int recordResolved(@Param("ids") Collection<Long> ids,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * Takes the resolved issues among ids back out of the resolved counters.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO issue_daily_rollups AS r (day, type, browser, resolved_count, resolve_seconds_sum) " +
+            "SELECT CAST(created_at AS DATE), type, browser, -count(*), " +
+            "-coalesce(sum(round(extract(epoch FROM resolved_at - created_at))), 0) " +
+            "FROM bug_reports WHERE id IN (:ids) AND resolved = true " +
+            "GROUP BY 1, 2, 3 " +
+            "ON CONFLICT (day, type, browser) DO UPDATE SET " +
+            "resolved_count = r.resolved_count + EXCLUDED.resolved_count, " +
+            "resolve_seconds_sum = r.resolve_seconds_sum + EXCLUDED.resolve_seconds_sum",
+            nativeQuery = true)
+    int recordUnresolved(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Counts the issues among ids that BugReportRepository.markDeleted will delete.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO issue_daily_rollups AS r (day, type, browser, deleted_count) " +
+            "SELECT CAST(created_at AS DATE), type, browser, count(*) " +
+            "FROM bug_reports WHERE id IN (:ids) AND resolved = true AND NOT deleted " +
+            "GROUP BY 1, 2, 3 " +
+            "ON CONFLICT (day, type, browser) DO UPDATE SET " +
+            "deleted_count = r.deleted_count + EXCLUDED.deleted_count",
+            nativeQuery = true)
+    int recordDeleted(@Param("ids") Collection<Long> ids);
+
+    // --- Rebuild (IssueStatsService.rebuild) ---
+
+    /**
+     * Blocks the incremental updates above until the rebuilding transaction ends.
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE issue_daily_rollups IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    @Modifying
+    @Query(value = "DELETE FROM issue_daily_rollups", nativeQuery = true)
+    int deleteAllRollups();
+
+    @Modifying
+    @Query(value = "INSERT INTO issue_daily_rollups " +
+            "(day, type, browser, created_count, resolved_count, deleted_count, resolve_seconds_sum) " +
+            "SELECT CAST(created_at AS DATE), type, browser, " +
+            "count(*), " +
+            "count(*) FILTER (WHERE resolved), " +
+            "count(*) FILTER (WHERE deleted), " +
+            "coalesce(sum(round(extract(epoch FROM resolved_at - created_at))) " +
+            "FILTER (WHERE resolved AND resolved_at IS NOT NULL), 0) " +
+            "FROM bug_reports_with_archive " +
+            "GROUP BY 1, 2, 3",
+            nativeQuery = true)
+    int insertRollupsFromReports();
+
+    // --- Reads for /api/admin/stats (a few hundred rows per year at most) ---
+
+    @Query("SELECT 'all' AS groupKey, " +
+            "SUM(r.createdCount) AS created, SUM(r.resolvedCount) AS resolved, " +
+            "SUM(r.deletedCount) AS deleted, SUM(r.resolveSecondsSum) AS resolveSeconds " +
+            "FROM IssueDailyRollup r WHERE r.id.day BETWEEN :from AND :to")
+    RollupTotals sumBetween(@Param("from") LocalDate from,
+                            @Param("to") LocalDate to);
+
+    @Query("SELECT r.id.type AS groupKey, " +
+            "SUM(r.createdCount) AS created, SUM(r.resolvedCount) AS resolved, " +
+            "SUM(r.deletedCount) AS deleted, SUM(r.resolveSecondsSum) AS resolveSeconds " +
+            "FROM IssueDailyRollup r WHERE r.id.day BETWEEN :from AND :to " +
+            "GROUP BY r.id.type ORDER BY r.id.type")
+    List<RollupTotals> sumByType(@Param("from") LocalDate from,
+                                 @Param("to") LocalDate to);
+
+    @Query("SELECT r.id.browser AS groupKey, " +
+            "SUM(r.createdCount) AS created, SUM(r.resolvedCount) AS resolved, " +
+            "SUM(r.deletedCount) AS deleted, SUM(r.resolveSecondsSum) AS resolveSeconds " +
+            "FROM IssueDailyRollup r WHERE r.id.day BETWEEN :from AND :to " +
+            "GROUP BY r.id.browser ORDER BY r.id.browser")
+    List<RollupTotals> sumByBrowser(@Param("from") LocalDate from,
+                                    @Param("to") LocalDate to);
+
+    @Query("SELECT CAST(r.id.day AS String) AS groupKey, " +
+            "SUM(r.createdCount) AS created, SUM(r.resolvedCount) AS resolved, " +
+            "SUM(r.deletedCount) AS deleted, SUM(r.resolveSecondsSum) AS resolveSeconds " +
+            "FROM IssueDailyRollup r WHERE r.id.day BETWEEN :from AND :to " +
+            "GROUP BY r.id.day ORDER BY r.id.day")
+    List<RollupTotals> sumByDay(@Param("from") LocalDate from,
+                                @Param("to") LocalDate to);
+}
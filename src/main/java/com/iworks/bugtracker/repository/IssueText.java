@@ -0,0 +1,15 @@
+package com.iworks.bugtracker.repository;
+
+/**
+ * Projection of the columns duplicate detection looks at.
+ */
+public interface IssueText {
+
+    Long getId();
+
+    String getType();
+
+    String getBrowser();
+
+    String getDescription();
+}
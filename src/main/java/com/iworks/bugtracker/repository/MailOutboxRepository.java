@@ -0,0 +1,67 @@
+package com.iworks.bugtracker.repository;
+
+import com.iworks.bugtracker.model.MailOutboxEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface MailOutboxRepository extends JpaRepository<MailOutboxEntry, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO mail_outbox (bug_report_id, created_at, next_attempt_at) " +
+            "VALUES (:bugReportId, :now, :now)",
+            nativeQuery = true)
+    int enqueue(@Param("bugReportId") Long bugReportId,
+                @Param("now") LocalDateTime now);
+
+    /**
+     * Claims up to :limit due rows, oldest first: counts the attempt and hides them
+     * until :leaseUntil, so a crashed sender's rows come back on their own.
+     * SKIP LOCKED lets several instances poll the same table without blocking or
+     * claiming the same rows. Must run in a read-write transaction.
+     */
+    @Query(value = "UPDATE mail_outbox SET attempts = attempts + 1, next_attempt_at = :leaseUntil " +
+            "WHERE id IN (" +
+            "SELECT id FROM mail_outbox " +
+            "WHERE failed_at IS NULL AND next_attempt_at <= :now " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "RETURNING *",
+            nativeQuery = true)
+    List<MailOutboxEntry> claimDue(@Param("now") LocalDateTime now,
+                                   @Param("leaseUntil") LocalDateTime leaseUntil,
+                                   @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM mail_outbox WHERE id IN (:ids)", nativeQuery = true)
+    int deleteSent(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Schedules the next attempt with exponential backoff
+     * (baseSeconds * 2^(attempts - 1), capped at maxSeconds), or gives up
+     * once maxAttempts have been made.
+     */
+    @Modifying
+    @Query(value = "UPDATE mail_outbox SET last_error = :error, " +
+            "next_attempt_at = CAST(:now AS TIMESTAMP) + " +
+            "make_interval(secs => least(:baseSeconds * power(2, attempts - 1), :maxSeconds)), " +
+            "failed_at = CASE WHEN attempts >= :maxAttempts THEN CAST(:now AS TIMESTAMP) END " +
+            "WHERE id IN (:ids)",
+            nativeQuery = true)
+    int recordFailure(@Param("ids") Collection<Long> ids,
+                      @Param("error") String error,
+                      @Param("now") LocalDateTime now,
+                      @Param("baseSeconds") long baseSeconds,
+                      @Param("maxSeconds") long maxSeconds,
+                      @Param("maxAttempts") int maxAttempts);
+
+    @Query(value = "SELECT count(*) FROM mail_outbox WHERE failed_at IS NULL", nativeQuery = true)
+    long countPending();
+
+    @Query(value = "SELECT count(*) FROM mail_outbox WHERE failed_at IS NOT NULL", nativeQuery = true)
+    long countFailed();
+}
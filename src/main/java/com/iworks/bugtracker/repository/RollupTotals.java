@@ -0,0 +1,18 @@
+package com.iworks.bugtracker.repository;
+
+/**
+ * Summed issue_daily_rollups counters for one group (a type, browser, day, or "all").
+ * Sums are null when no rollup rows fall in the range.
+ */
+public interface RollupTotals {
+
+    String getGroupKey();
+
+    Long getCreated();
+
+    Long getResolved();
+
+    Long getDeleted();
+
+    Long getResolveSeconds();
+}
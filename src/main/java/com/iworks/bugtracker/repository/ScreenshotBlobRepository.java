@@ -0,0 +1,53 @@
+package com.iworks.bugtracker.repository;
+
+import com.iworks.bugtracker.model.ScreenshotBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ScreenshotBlobRepository extends JpaRepository<ScreenshotBlob, String> {
+
+    /**
+     * Records a stored file, creating the row (with no references yet) on first
+     * upload and bumping stored_at on later ones. Native upsert so concurrent
+     * uploads of the same content can't collide. Commits on its own, before the
+     * report that will reference it is saved.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO screenshot_blobs (hash, size_bytes, content_type, ref_count, created_at, stored_at) " +
+            "VALUES (:hash, :sizeBytes, :contentType, 0, now(), now()) " +
+            "ON CONFLICT (hash) DO UPDATE SET stored_at = now()",
+            nativeQuery = true)
+    int recordStored(@Param("hash") String hash,
+                     @Param("sizeBytes") long sizeBytes,
+                     @Param("contentType") String contentType);
+
+    /**
+     * Adds :count references to a stored file; called in the transaction that
+     * inserts the reports pointing at it.
+     *
+     * @return 0 if the row is gone (removed as unreferenced).
+     */
+    @Modifying
+    @Query(value = "UPDATE screenshot_blobs SET ref_count = ref_count + :count WHERE hash = :hash",
+            nativeQuery = true)
+    int addReferences(@Param("hash") String hash, @Param("count") int count);
+
+    /**
+     * Locks up to :limit files nobody references that were last uploaded before
+     * :storedBefore. An upload of the same content waits for the lock, so it sees
+     * either the row or the file gone, never half of it.
+     */
+    @Query(value = "SELECT hash FROM screenshot_blobs " +
+            "WHERE ref_count = 0 AND stored_at < :storedBefore " +
+            "LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<String> lockUnreferenced(@Param("storedBefore") LocalDateTime storedBefore,
+                                  @Param("limit") int limit);
+}
@@ -0,0 +1,185 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.model.BugReport;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * The export as an Arrow IPC stream (application/vnd.apache.arrow.stream), for
+ * pandas/pyarrow, Polars, DuckDB and Spark:
+ *
+ * <pre>
+ * pyarrow.ipc.open_stream(open("bug_reports_export.arrows", "rb")).read_all()
+ * </pre>
+ *
+ * Same columns as the CSV: id is int64, flags are bool, text is utf8 and date-times are
+ * timestamp[us] without a time zone (server local time, like everywhere else).
+ *
+ * Written with arrow-java's {@link ArrowStreamWriter}: rows are set into one
+ * {@link VectorSchemaRoot} and sent as a record batch every {@link #ROWS_PER_BATCH}
+ * rows, after which the vectors are reset and their buffers reused, so memory is
+ * bounded by one batch. The buffers are off-heap and belong to this writer's
+ * allocator, which {@link #close()} releases. arrow-memory needs
+ * --add-opens=java.base/java.nio=ALL-UNNAMED, see the README.
+ */
+final class ArrowExportWriter implements IssueExportWriter {
+
+    static final int ROWS_PER_BATCH = 4096;
+
+    private static final List<Column> COLUMNS = List.of(
+            id("id", BugReport::getId),
+            text("type", BugReport::getType),
+            text("name", BugReport::getName),
+            text("email", BugReport::getEmail),
+            text("role", BugReport::getRole),
+            text("browser", BugReport::getBrowser),
+            text("description", BugReport::getDescription),
+            timestamp("event_time", BugReport::getEventTime),
+            timestamp("created_at", BugReport::getCreatedAt),
+            bool("resolved", BugReport::isResolved),
+            text("resolved_by", BugReport::getResolvedBy),
+            text("resolution_description", BugReport::getResolutionDescription),
+            timestamp("resolved_at", BugReport::getResolvedAt),
+            bool("deleted", BugReport::isDeleted),
+            timestamp("deleted_at", BugReport::getDeletedAt)
+    );
+
+    static final Schema SCHEMA = new Schema(COLUMNS.stream().map(Column::field).toList());
+
+    private final OutputStream out;
+    private final BufferAllocator allocator;
+    private final VectorSchemaRoot root;
+    private final List<FieldVector> vectors;
+    private final ArrowStreamWriter writer;
+    private int rows;
+
+    ArrowExportWriter(OutputStream out) throws IOException {
+        this.out = new BufferedOutputStream(out, 65536);
+        this.allocator = new RootAllocator();
+        try {
+            this.root = VectorSchemaRoot.create(SCHEMA, allocator);
+            this.vectors = root.getFieldVectors();
+            root.allocateNew();
+            // Not closed: that would close the caller's stream. end() writes the trailer
+            this.writer = new ArrowStreamWriter(root, null, Channels.newChannel(this.out));
+            writer.start();
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void write(BugReport report) throws IOException {
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            COLUMNS.get(i).setter.set(vectors.get(i), rows, report);
+        }
+        if (++rows == ROWS_PER_BATCH) {
+            writeBatch();
+        }
+    }
+
+    /**
+     * Passes completed batches on; rows of the batch in progress stay buffered.
+     */
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (rows > 0) {
+            writeBatch();
+        }
+        writer.end();
+        out.flush();
+    }
+
+    /**
+     * Frees the column buffers, whether or not the export got to {@link #finish()}.
+     */
+    @Override
+    public void close() {
+        if (root != null) {
+            root.close();
+        }
+        allocator.close();
+    }
+
+    private void writeBatch() throws IOException {
+        root.setRowCount(rows);
+        writer.writeBatch();
+        for (FieldVector vector : vectors) {
+            vector.reset();
+        }
+        rows = 0;
+    }
+
+    private static Column id(String name, Function<BugReport, Long> getter) {
+        return new Column(new Field(name, FieldType.notNullable(new ArrowType.Int(64, true)), null),
+                (vector, row, report) -> ((BigIntVector) vector).setSafe(row, getter.apply(report)));
+    }
+
+    private static Column bool(String name, Predicate<BugReport> getter) {
+        return new Column(new Field(name, FieldType.notNullable(ArrowType.Bool.INSTANCE), null),
+                (vector, row, report) -> ((BitVector) vector).setSafe(row, getter.test(report) ? 1 : 0));
+    }
+
+    private static Column timestamp(String name, Function<BugReport, LocalDateTime> getter) {
+        return new Column(new Field(name, FieldType.nullable(new ArrowType.Timestamp(TimeUnit.MICROSECOND, null)), null),
+                (vector, row, report) -> {
+                    LocalDateTime value = getter.apply(report);
+                    if (value == null) {
+                        ((TimeStampMicroVector) vector).setNull(row);
+                    } else {
+                        ((TimeStampMicroVector) vector).setSafe(row,
+                                value.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + value.getNano() / 1_000);
+                    }
+                });
+    }
+
+    // String.getBytes(UTF_8): unpaired surrogates become '?'
+    private static Column text(String name, Function<BugReport, String> getter) {
+        return new Column(new Field(name, FieldType.nullable(ArrowType.Utf8.INSTANCE), null),
+                (vector, row, report) -> {
+                    String value = getter.apply(report);
+                    if (value == null) {
+                        ((VarCharVector) vector).setNull(row);
+                    } else {
+                        ((VarCharVector) vector).setSafe(row, value.getBytes(StandardCharsets.UTF_8));
+                    }
+                });
+    }
+
+    private record Column(Field field, Setter setter) {
+    }
+
+    @FunctionalInterface
+    private interface Setter {
+        void set(FieldVector vector, int row, BugReport report);
+    }
+}
@@ -1,109 +1,302 @@
 package com.iworks.bugtracker.service;
 
+import com.iworks.bugtracker.config.CacheConfig;
 import com.iworks.bugtracker.model.BugReport;
+import com.iworks.bugtracker.model.BugReportWithArchive;
 import com.iworks.bugtracker.repository.BugReportRepository;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import com.iworks.bugtracker.repository.BugReportWithArchiveRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
 public class BugReportService {
 
-    private final BugReportRepository bugReportRepository;
+    /**
+     * Rows fetched per JDBC round trip when streaming exports; also the interval
+     * (in rows) at which the export writer is flushed to the client.
+     */
+    static final int EXPORT_FETCH_SIZE = 500;
 
-    public BugReportService(BugReportRepository bugReportRepository) {
+    /** Largest page/slice the admin list returns; everything at once is what export is for. */
+    static final int MAX_PAGE_SIZE = 200;
+
+    private final BugReportRepository bugReportRepository;
+    private final BugReportWithArchiveRepository withArchiveRepository;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IssueStatsService issueStatsService;
+    private final MailOutbox mailOutbox;
+    private final ScreenshotStore screenshotStore;
+
+    // Admin list queries, split into the row query and the total count
+    private final Timer searchQueryTimer;
+    private final Timer searchCountTimer;
+    private final Timer bulkUpdateTimer;
+    private final DistributionSummary bulkUpdateBatchSize;
+    private final DistributionSummary bulkUpdateChanged;
+
+    public BugReportService(BugReportRepository bugReportRepository,
+                            BugReportWithArchiveRepository withArchiveRepository,
+                            EntityManager entityManager,
+                            ApplicationEventPublisher eventPublisher,
+                            IssueStatsService issueStatsService,
+                            MailOutbox mailOutbox,
+                            ScreenshotStore screenshotStore,
+                            MeterRegistry meterRegistry) {
         this.bugReportRepository = bugReportRepository;
+        this.withArchiveRepository = withArchiveRepository;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.issueStatsService = issueStatsService;
+        this.mailOutbox = mailOutbox;
+        this.screenshotStore = screenshotStore;
+
+        this.searchQueryTimer = Timer.builder("bugtracker.search")
+                .description("Admin issue list queries (cache misses only)")
+                .tag("phase", "query")
+                .register(meterRegistry);
+        this.searchCountTimer = Timer.builder("bugtracker.search")
+                .description("Admin issue list queries (cache misses only)")
+                .tag("phase", "count")
+                .register(meterRegistry);
+        this.bulkUpdateTimer = Timer.builder("bugtracker.bulk.update")
+                .register(meterRegistry);
+        this.bulkUpdateBatchSize = DistributionSummary.builder("bugtracker.bulk.update.batch.size")
+                .description("Updates per bulk request")
+                .register(meterRegistry);
+        this.bulkUpdateChanged = DistributionSummary.builder("bugtracker.bulk.update.changed")
+                .description("Issues actually changed per bulk request")
+                .register(meterRegistry);
     }
 
     /**
      * Search issues for the admin view with filters + pagination.
      *
-     * @param typeFilter     "Bug", "Feature Request", "Comment", or "All"/null for all types.
-     * @param resolvedFilter null for all, true for resolved only, false for unresolved only.
-     * @param fromDate       filter createdAt >= fromDate (nullable).
-     * @param toDate         filter createdAt <= toDate (nullable).
-     * @param viewDeleted    false = hide deleted; true = include deleted issues.
-     * @param page           0-based page index.
-     * @param size           page size (we'll use 10 for the UI, but it's configurable).
+     * Selects only the requested columns (no managed entities, no dirty-checking
+     * snapshots) inside a read-only transaction. Results are cached per
+     * (filter, page, size, fields) until the next write or the cache TTL.
+     *
+     * Full-text searches (filter.query()) are ordered by relevance instead of
+     * the admin grid ordering.
+     *
+     * viewDeleted filters also read archived issues (see {@link #adminSource}).
+     *
+     * @param filter the normalized admin filters.
+     * @param page   0-based page index.
+     * @param size   page size (we'll use 10 for the UI, but it's configurable),
+     *               at most {@value #MAX_PAGE_SIZE}.
+     * @param fields columns to return, see {@link IssueFields}.
+     * @throws IllegalArgumentException if page or size is out of range, or the page
+     *                                  starts beyond the largest supported offset.
      */
-    public Page<BugReport> searchIssues(
-            String typeFilter,
-            Boolean resolvedFilter,
-            LocalDate fromDate,
-            LocalDate toDate,
-            boolean viewDeleted,
+    @Cacheable(CacheConfig.ISSUE_LISTS)
+    @Transactional(readOnly = true)
+    public IssuePage<Map<String, Object>> searchIssues(
+            IssueFilter filter,
             int page,
-            int size
+            int size,
+            List<String> fields
     ) {
-        String typeParam = normalizeType(typeFilter);
-        Boolean resolvedParam = resolvedFilter;
-
-        LocalDateTime fromDateTime = (fromDate != null) ? fromDate.atStartOfDay() : null;
-        // Inclusive end-of-day
-        LocalDateTime toDateTime = (toDate != null)
-                ? toDate.plusDays(1).atStartOfDay().minusNanos(1)
-                : null;
-
-        // Unresolved first, then newest first
-        Sort sort = Sort.by(
-                Sort.Order.asc("resolved"),
-                Sort.Order.desc("createdAt")
-        );
+        if (page < 0) {
+            throw new IllegalArgumentException("page must be >= 0");
+        }
+        checkPageSize(size);
+        long offset = (long) page * size;
+        if (offset > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("page is too large");
+        }
+        return searchIssues(adminSource(filter), filter, page, size, (int) offset, fields);
+    }
 
-        Pageable pageable = PageRequest.of(page, size, sort);
+    private <T> IssuePage<Map<String, Object>> searchIssues(
+            Class<T> source,
+            IssueFilter filter,
+            int page,
+            int size,
+            int offset,
+            List<String> fields
+    ) {
+        Specification<T> spec = buildAdminSpecification(filter);
 
-        Specification<BugReport> spec = buildAdminSpecification(
-                typeParam,
-                resolvedParam,
-                fromDateTime,
-                toDateTime,
-                viewDeleted
-        );
+        List<Map<String, Object>> content = searchQueryTimer.record(() -> selectRows(
+                source, spec, filter.query(), filter.isSearch(), fields, offset, size));
+
+        // A short page tells us the total without a count query
+        long total = (content.size() < size && (page == 0 || !content.isEmpty()))
+                ? (long) page * size + content.size()
+                : searchCountTimer.record(() -> countIssues(source, spec));
 
-        return bugReportRepository.findAll(spec, pageable);
+        return new IssuePage<>(content, page, size, total);
     }
 
     /**
-     * Get a full list of issues matching filters for CSV export (no pagination).
+     * Keyset (seek) variant of {@link #searchIssues} for the admin view.
+     *
+     * Instead of an OFFSET scan plus a count query, the next slice starts right after
+     * the row identified by {@code cursor} in (resolved, createdAt, id) order, so deep
+     * slices cost the same as the first one: each query is an index range within one
+     * resolved group, and a slice that reaches the end of the unresolved issues is
+     * topped up from the resolved ones with a second query. Cached like {@link #searchIssues}
+     * (the String cursor keeps these keys apart from the int page keys).
+     *
+     * Searches are filtered by filter.query() but keep the admin grid ordering,
+     * which is what the cursor encodes.
+     *
+     * @param cursor token from a previous {@link IssueSlice#getNextCursor()},
+     *               or null/blank for the first slice.
+     * @param size   slice size, at most {@value #MAX_PAGE_SIZE}.
+     * @throws IllegalArgumentException if the cursor token is malformed or size is out of range.
      */
-    public List<BugReport> exportIssues(
-            String typeFilter,
-            Boolean resolvedFilter,
-            LocalDate fromDate,
-            LocalDate toDate,
-            boolean viewDeleted
+    @Cacheable(CacheConfig.ISSUE_LISTS)
+    @Transactional(readOnly = true)
+    public IssueSlice<Map<String, Object>> searchIssuesAfter(
+            IssueFilter filter,
+            String cursor,
+            int size,
+            List<String> fields
     ) {
-        String typeParam = normalizeType(typeFilter);
-        Boolean resolvedParam = resolvedFilter;
+        checkPageSize(size);
+        return searchIssuesAfter(adminSource(filter), filter, cursor, size, fields);
+    }
 
-        LocalDateTime fromDateTime = (fromDate != null) ? fromDate.atStartOfDay() : null;
-        LocalDateTime toDateTime = (toDate != null)
-                ? toDate.plusDays(1).atStartOfDay().minusNanos(1)
-                : null;
+    private <T> IssueSlice<Map<String, Object>> searchIssuesAfter(
+            Class<T> source,
+            IssueFilter filter,
+            String cursor,
+            int size,
+            List<String> fields
+    ) {
+        Specification<T> filtered = buildAdminSpecification(filter);
+
+        // The cursor is built from these, so they are always returned in this mode
+        List<String> selected = IssueFields.including(fields, "id", "resolved", "createdAt");
+
+        // Fetch one extra row to learn whether another slice exists
+        List<Map<String, Object>> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = searchQueryTimer.record(() -> selectRows(
+                    source, filtered, filter.query(), false, selected, 0, size + 1));
+        } else {
+            IssueCursor after = IssueCursor.decode(cursor);
+            rows = new ArrayList<>(searchQueryTimer.record(() -> selectRows(
+                    source, filtered.and(seekWithinGroup(after)), filter.query(), false, selected, 0, size + 1)));
+            // The seek stays inside the cursor's resolved group; unresolved issues run on into the resolved ones
+            if (rows.size() <= size && !after.isResolved() && filter.resolved() == null) {
+                int remaining = size + 1 - rows.size();
+                rows.addAll(searchQueryTimer.record(() -> selectRows(
+                        source, filtered.and(resolvedGroup(true)), filter.query(), false, selected, 0, remaining)));
+            }
+        }
 
-        Sort sort = Sort.by(
-                Sort.Order.asc("resolved"),
-                Sort.Order.desc("createdAt")
-        );
+        boolean hasNext = rows.size() > size;
+        List<Map<String, Object>> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            Map<String, Object> last = content.get(content.size() - 1);
+            nextCursor = new IssueCursor(
+                    (Boolean) last.get("resolved"),
+                    (LocalDateTime) last.get("createdAt"),
+                    (Long) last.get("id")
+            ).encode();
+        }
 
-        Specification<BugReport> spec = buildAdminSpecification(
-                typeParam,
-                resolvedParam,
-                fromDateTime,
-                toDateTime,
-                viewDeleted
-        );
+        return new IssueSlice<>(content, size, hasNext, nextCursor);
+    }
+
+    private static void checkPageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    /**
+     * Streams every issue matching the filters (no pagination) to the given row writer,
+     * for export (every {@link ExportFormat} is fed from here).
+     *
+     * Rows are read through a forward-only JDBC cursor ({@link #EXPORT_FETCH_SIZE} rows per
+     * round trip) and detached from the persistence context as soon as they are written,
+     * so heap use stays flat regardless of how many rows match.
+     */
+    @Transactional(readOnly = true)
+    public long exportIssues(
+            IssueFilter filter,
+            ExportRowWriter rowWriter
+    ) throws IOException {
+        if (filter.viewDeleted()) {
+            return exportIssues(BugReportWithArchive.class, BugReportWithArchive::toBugReport, filter, rowWriter);
+        }
+        return exportIssues(BugReport.class, Function.identity(), filter, rowWriter);
+    }
 
-        return bugReportRepository.findAll(spec, sort);
+    private <T> long exportIssues(
+            Class<T> source,
+            Function<T, BugReport> asReport,
+            IssueFilter filter,
+            ExportRowWriter rowWriter
+    ) throws IOException {
+        Specification<T> spec = buildAdminSpecification(filter);
+
+        long written = 0;
+        try (Stream<T> rows = createAdminQuery(source, spec)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, EXPORT_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+
+            Iterator<T> it = rows.iterator();
+            while (it.hasNext()) {
+                T row = it.next();
+                rowWriter.write(asReport.apply(row));
+                entityManager.detach(row);
+
+                if (++written % EXPORT_FETCH_SIZE == 0) {
+                    rowWriter.flush();
+                }
+            }
+        }
+        rowWriter.flush();
+        return written;
+    }
+
+    /**
+     * Number of issues matching the filters, i.e. the rows {@link #exportIssues} would write.
+     */
+    @Transactional(readOnly = true)
+    public long countIssues(IssueFilter filter) {
+        return countIssues(adminSource(filter), buildAdminSpecification(filter));
     }
 
     /**
@@ -122,125 +315,428 @@ public class BugReportService {
      *  - You can ONLY delete an issue that is already resolved.
      *  - We do NOT support "undelete" from here (deleted=false leaves it as-is).
      *
-     * If an invalid delete is attempted, we throw IllegalStateException.
+     * If an invalid delete is attempted, we throw IllegalStateException before
+     * anything is read or written, so the batch is rejected as a whole.
+     * Likewise if any id isn't in bug_reports: archived issues are read-only and
+     * unknown ids are a client bug, and neither is silently skipped.
+     *
+     * All affected rows are loaded and locked with a single SELECT ... FOR UPDATE
+     * (concurrent bulk updates of the same issues take turns); the changes are then
+     * applied as set-based UPDATE statements (one for unresolve, one per distinct
+     * resolvedBy/resolutionDescription pair for resolve, one for delete) rather
+     * than one SELECT + UPDATE per row.
+     *
+     * The issue_daily_rollups counters are updated in the same transaction
+     * (see {@link IssueStatsService}), and an {@link IssueChangeEvent} is
+     * published per kind of change.
+     *
+     * The issue list cache is cleared once the transaction commits.
+     *
+     * @return how many issues actually changed.
      */
+    @CacheEvict(cacheNames = CacheConfig.ISSUE_LISTS, allEntries = true)
     @Transactional
-    public void applyBulkResolutionChanges(List<BulkUpdateRequest> updates) {
+    public int applyBulkResolutionChanges(List<BulkUpdateRequest> updates) {
+        // Timed without the commit, which happens after this returns
+        long started = System.nanoTime();
+        int changed = applyChanges(updates);
+        bulkUpdateTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        bulkUpdateBatchSize.record(updates.size());
+        bulkUpdateChanged.record(changed);
+        return changed;
+    }
+
+    private int applyChanges(List<BulkUpdateRequest> updates) {
         LocalDateTime now = LocalDateTime.now();
 
+        // Last entry wins if the same id is sent twice
+        Map<Long, BulkUpdateRequest> updatesById = new LinkedHashMap<>();
         for (BulkUpdateRequest update : updates) {
             if (update.getId() == null) {
                 continue; // ignore invalid entries
             }
+            updatesById.put(update.getId(), update);
+        }
+        if (updatesById.isEmpty()) {
+            return 0;
+        }
 
-            Optional<BugReport> optional = bugReportRepository.findById(update.getId());
-            if (optional.isEmpty()) {
-                continue; // ignore missing ids
+        // Business rule: cannot delete if not resolved (checked for the whole batch up front)
+        for (BulkUpdateRequest update : updatesById.values()) {
+            if (update.isDeleted() && !update.isResolved()) {
+                throw new IllegalStateException("Cannot delete an unresolved issue (id=" + update.getId() + ")");
             }
+        }
+
+        List<Long> toUnresolve = new ArrayList<>();
+        Map<Resolution, List<Long>> toResolve = new LinkedHashMap<>();
+        List<Long> toDelete = new ArrayList<>();
+
+        // Locked until commit: a concurrent bulk update of the same issues waits here
+        // and then sees our result, so neither changes nor counts anything twice
+        List<BugReport> locked = bugReportRepository.lockAllById(updatesById.keySet());
+        if (locked.size() < updatesById.size()) {
+            // Archived issues are read-only, and unknown ids are a client bug: reject the batch
+            Set<Long> missing = new TreeSet<>(updatesById.keySet());
+            locked.forEach(report -> missing.remove(report.getId()));
+            throw new IllegalStateException("Issues not found or archived (read-only): " + missing);
+        }
 
-            BugReport existing = optional.get();
-            boolean wasResolved = existing.isResolved();
-            boolean willBeResolved = update.isResolved();
-            boolean deleteRequested = update.isDeleted();
+        for (BugReport existing : locked) {
+            BulkUpdateRequest update = updatesById.get(existing.getId());
 
             // --- Handle resolved/unresolved first ---
-            if (willBeResolved) {
-                // Mark as resolved
-                existing.setResolved(true);
-                existing.setResolvedBy(update.getResolvedBy());
-                existing.setResolutionDescription(update.getResolutionDescription());
-
-                // Only set resolvedAt when transitioning from unresolved -> resolved
-                if (!wasResolved) {
-                    existing.setResolvedAt(now);
+            if (update.isResolved()) {
+                boolean unchanged = existing.isResolved()
+                        && Objects.equals(existing.getResolvedBy(), update.getResolvedBy())
+                        && Objects.equals(existing.getResolutionDescription(), update.getResolutionDescription());
+                if (!unchanged) {
+                    Resolution resolution = new Resolution(update.getResolvedBy(), update.getResolutionDescription());
+                    toResolve.computeIfAbsent(resolution, r -> new ArrayList<>()).add(existing.getId());
                 }
-            } else {
-                // Mark as unresolved (always clear resolution info)
-                existing.setResolved(false);
-                existing.setResolvedBy(null);
-                existing.setResolutionDescription(null);
-                existing.setResolvedAt(null);
+            } else if (existing.isResolved()
+                    || existing.getResolvedBy() != null
+                    || existing.getResolutionDescription() != null
+                    || existing.getResolvedAt() != null) {
+                toUnresolve.add(existing.getId());
             }
 
-            // --- Handle logical delete ---
-            if (deleteRequested) {
-                // Business rule: cannot delete if not resolved
-                if (!existing.isResolved()) {
-                    throw new IllegalStateException("Cannot delete an unresolved issue (id=" + existing.getId() + ")");
-                }
-                // Only mark deleted; we do not "undelete" here
-                if (!existing.isDeleted()) {
-                    existing.setDeleted(true);
-                    existing.setDeletedAt(now);
-                }
+            // --- Handle logical delete (only mark deleted; we do not "undelete" here) ---
+            if (update.isDeleted() && !existing.isDeleted()) {
+                toDelete.add(existing.getId());
             }
+        }
+
+        // Resolution changes must land before the delete, which requires resolved = true
+        // Stats counters are adjusted first, from the rows' previous state
+        if (!toUnresolve.isEmpty()) {
+            issueStatsService.recordUnresolved(toUnresolve);
+            bugReportRepository.markUnresolved(toUnresolve);
+            eventPublisher.publishEvent(IssueChangeEvent.of(IssueChangeEvent.Kind.UNRESOLVED, toUnresolve));
+        }
+        List<Long> resolvedIds = new ArrayList<>();
+        for (Map.Entry<Resolution, List<Long>> entry : toResolve.entrySet()) {
+            Resolution resolution = entry.getKey();
+            issueStatsService.recordResolved(entry.getValue(), now);
+            bugReportRepository.markResolved(
+                    entry.getValue(),
+                    resolution.resolvedBy(),
+                    resolution.resolutionDescription(),
+                    now
+            );
+            resolvedIds.addAll(entry.getValue());
+        }
+        if (!resolvedIds.isEmpty()) {
+            eventPublisher.publishEvent(IssueChangeEvent.of(IssueChangeEvent.Kind.RESOLVED, resolvedIds));
+        }
+        if (!toDelete.isEmpty()) {
+            issueStatsService.recordDeleted(toDelete);
+            bugReportRepository.markDeleted(toDelete, now);
+            eventPublisher.publishEvent(IssueChangeEvent.of(IssueChangeEvent.Kind.DELETED, toDelete));
+        }
+
+        Set<Long> changed = new HashSet<>(toUnresolve);
+        changed.addAll(resolvedIds);
+        changed.addAll(toDelete);
+        return changed.size();
+    }
+
+    /**
+     * Saves a newly submitted report and returns it with its generated id.
+     * The stats counters are updated, its screenshot is counted as referenced
+     * (see {@link ScreenshotStore}) and the alert email is queued
+     * (see {@link MailOutbox}) in the same transaction.
+     *
+     * The issue list cache is cleared once the transaction commits.
+     */
+    @CacheEvict(cacheNames = CacheConfig.ISSUE_LISTS, allEntries = true)
+    @Transactional
+    public BugReport submitReport(BugReport report) {
+        BugReport saved = bugReportRepository.save(report);
+        issueStatsService.recordCreated(saved);
+        screenshotStore.addReferences(List.of(saved));
+        mailOutbox.enqueue(saved);
+        eventPublisher.publishEvent(IssueChangeEvent.created(saved));
+        return saved;
+    }
+
+    /**
+     * Batch form of {@link #submitReport} for the write-behind queue (see
+     * {@link SubmissionDrainer}): one transaction, JDBC-batched inserts, one rollup
+     * upsert. Reports whose tracking id is already stored (a journal entry replayed
+     * after a crash) are skipped.
+     *
+     * @return the reports actually inserted, with their ids.
+     */
+    @CacheEvict(cacheNames = CacheConfig.ISSUE_LISTS, allEntries = true)
+    @Transactional
+    public List<BugReport> submitReports(List<BugReport> reports) {
+        List<UUID> trackingIds = reports.stream().map(BugReport::getTrackingId).toList();
+        Set<UUID> existing = new HashSet<>(bugReportRepository.findExistingTrackingIds(trackingIds));
+        List<BugReport> fresh = reports.stream()
+                .filter(report -> !existing.contains(report.getTrackingId()))
+                .toList();
+        if (fresh.isEmpty()) {
+            return List.of();
+        }
+
+        List<BugReport> saved = bugReportRepository.saveAllAndFlush(fresh);
+        issueStatsService.recordCreated(saved.stream().map(BugReport::getId).toList());
+        screenshotStore.addReferences(saved);
+        for (BugReport report : saved) {
+            mailOutbox.enqueue(report);
+            eventPublisher.publishEvent(IssueChangeEvent.created(report));
+        }
+        return saved;
+    }
+
+    /**
+     * Current admin-grid rows ({@link IssueFields#DEFAULT}) for the given issues,
+     * deleted or not, in the admin grid ordering.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findIssueRows(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Specification<BugReport> spec = (root, query, cb) -> root.get("id").in(ids);
+        return selectRows(BugReport.class, spec, null, false, IssueFields.DEFAULT, 0, ids.size());
+    }
+
+    /**
+     * Stored screenshot key/path for an issue, if it has one. Archived issues
+     * (shown with viewDeleted) keep theirs.
+     */
+    public Optional<String> findScreenshotPath(Long id) {
+        return bugReportRepository.findScreenshotPathById(id)
+                .or(() -> withArchiveRepository.findScreenshotPathById(id));
+    }
+
+    /**
+     * Moves up to batchSize issues deleted before deletedBefore, or resolved before
+     * resolvedBefore (null = keep resolved issues), to bug_reports_archive, in one
+     * transaction. Called repeatedly by {@link IssueArchiver}.
+     *
+     * The issues stay visible with viewDeleted (which reads bug_reports_with_archive),
+     * and the stats counters don't change. Publishes {@link IssueChangeEvent.Kind#ARCHIVED}.
+     *
+     * @return how many issues were moved; fewer than batchSize once none are left.
+     */
+    @CacheEvict(cacheNames = CacheConfig.ISSUE_LISTS, allEntries = true)
+    @Transactional
+    public int archiveIssues(LocalDateTime deletedBefore, LocalDateTime resolvedBefore, int batchSize) {
+        List<Long> ids = bugReportRepository.lockArchivable(deletedBefore, resolvedBefore, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        for (Integer year : bugReportRepository.findCreatedYears(ids)) {
+            createArchivePartition(year);
+        }
+        int moved = bugReportRepository.moveToArchive(ids, LocalDateTime.now());
+        eventPublisher.publishEvent(IssueChangeEvent.of(IssueChangeEvent.Kind.ARCHIVED, ids));
+        return moved;
+    }
+
+    /**
+     * Creates bug_reports_archive's partition for one year of created_at, unless it exists.
+     */
+    private void createArchivePartition(int year) {
+        entityManager.createNativeQuery(
+                "CREATE TABLE IF NOT EXISTS bug_reports_archive_y" + year
+                        + " PARTITION OF bug_reports_archive"
+                        + " FOR VALUES FROM ('" + year + "-01-01') TO ('" + (year + 1) + "-01-01')"
+        ).executeUpdate();
+    }
+
+    /**
+     * bug_reports, or bug_reports_with_archive for viewDeleted filters: archived
+     * issues are all resolved or deleted, and only show up when deleted ones do.
+     */
+    private static Class<?> adminSource(IssueFilter filter) {
+        return filter.viewDeleted() ? BugReportWithArchive.class : BugReport.class;
+    }
+
+    /**
+     * Creates an entity query over the given specification in the admin grid ordering.
+     */
+    private <T> TypedQuery<T> createAdminQuery(Class<T> source, Specification<T> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(source);
+        Root<T> root = query.from(source);
+        applyAdminCriteria(query, root, cb, spec, null);
+        return entityManager.createQuery(query);
+    }
 
-            bugReportRepository.save(existing);
+    /**
+     * Selects just the given fields (see {@link IssueFields}) for one window of rows,
+     * in the admin grid ordering, or by relevance when rankBySearch is set.
+     *
+     * @param searchQuery full-text search text for the snippet/rank fields (nullable).
+     */
+    private <T> List<Map<String, Object>> selectRows(
+            Class<T> source,
+            Specification<T> spec,
+            String searchQuery,
+            boolean rankBySearch,
+            List<String> fields,
+            int offset,
+            int limit
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(source);
+        query.multiselect(IssueFields.selections(fields, root, cb, searchQuery));
+        applyAdminCriteria(query, root, cb, spec, rankBySearch ? searchQuery : null);
+
+        List<Tuple> tuples = entityManager.createQuery(query)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            rows.add(IssueFields.toRow(tuple, fields));
         }
+        return rows;
+    }
+
+    private <T> long countIssues(Class<T> source, Specification<T> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(source);
+        query.select(cb.count(root));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
     }
 
     /**
-     * Builds a dynamic Specification for the admin filters.
+     * Applies the filters and the admin grid ordering:
+     * unresolved first, then newest first, then highest id (so paging is stable).
+     *
+     * @param rankQuery when non-null, order by relevance to this search instead
+     *                  (newest, then highest id, break ties).
      */
-    private Specification<BugReport> buildAdminSpecification(
-            String typeParam,
-            Boolean resolvedParam,
-            LocalDateTime fromDateTime,
-            LocalDateTime toDateTime,
-            boolean viewDeleted
+    private <T> void applyAdminCriteria(
+            CriteriaQuery<?> query,
+            Root<T> root,
+            CriteriaBuilder cb,
+            Specification<T> spec,
+            String rankQuery
     ) {
-        Specification<BugReport> spec = Specification.where(null);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (rankQuery != null) {
+            query.orderBy(
+                    cb.desc(IssueSearch.rank(root, cb, rankQuery)),
+                    cb.desc(root.get("createdAt")),
+                    cb.desc(root.get("id"))
+            );
+            return;
+        }
+        query.orderBy(
+                cb.asc(root.get("resolved")),
+                cb.desc(root.get("createdAt")),
+                cb.desc(root.get("id"))
+        );
+    }
+
+    /**
+     * Rows after the cursor within its resolved group, in (createdAt DESC, id DESC) order:
+     *  resolved = r AND createdAt <= c AND (createdAt < c OR id < i)
+     *
+     * Written so that resolved = r AND createdAt <= c is a range on the admin order
+     * indexes (an Index Cond); the OR only has to drop the rows at exactly c. An OR over
+     * the whole row comparison would be a Filter, and deep cursors would read and
+     * discard every row before them. Rows in later groups come from a second query,
+     * see {@link #searchIssuesAfter}.
+     */
+    private static <T> Specification<T> seekWithinGroup(IssueCursor cursor) {
+        return (root, query, cb) -> {
+            Path<LocalDateTime> createdAt = root.get("createdAt");
+            Path<Long> id = root.get("id");
+            return cb.and(
+                    cb.equal(root.get("resolved"), cursor.isResolved()),
+                    cb.lessThanOrEqualTo(createdAt, cursor.getCreatedAt()),
+                    cb.or(
+                            cb.lessThan(createdAt, cursor.getCreatedAt()),
+                            cb.lessThan(id, cursor.getId())
+                    )
+            );
+        };
+    }
+
+    private static <T> Specification<T> resolvedGroup(boolean resolved) {
+        return (root, query, cb) -> cb.equal(root.get("resolved"), resolved);
+    }
 
+    /**
+     * Builds a dynamic Specification for the admin filters, for {@link BugReport}
+     * or {@link BugReportWithArchive} (same attribute names).
+     */
+    static <T> Specification<T> buildAdminSpecification(IssueFilter filter) {
+        Specification<T> spec = Specification.where(null);
+
+        String typeParam = filter.type();
         if (typeParam != null) {
             spec = spec.and((root, query, cb) ->
                     cb.equal(root.get("type"), typeParam));
         }
 
+        Boolean resolvedParam = filter.resolved();
         if (resolvedParam != null) {
             spec = spec.and((root, query, cb) ->
                     cb.equal(root.get("resolved"), resolvedParam));
         }
 
+        LocalDateTime fromDateTime = filter.from();
         if (fromDateTime != null) {
             spec = spec.and((root, query, cb) ->
                     cb.greaterThanOrEqualTo(root.get("createdAt"), fromDateTime));
         }
 
+        LocalDateTime toDateTime = filter.to();
         if (toDateTime != null) {
             spec = spec.and((root, query, cb) ->
                     cb.lessThanOrEqualTo(root.get("createdAt"), toDateTime));
         }
 
+        String searchQuery = filter.query();
+        if (searchQuery != null) {
+            spec = spec.and((root, query, cb) ->
+                    IssueSearch.matches(root, cb, searchQuery));
+        }
+
         // Hide deleted by default; include them only if explicitly requested.
-        // Treat NULL as "not deleted" for backward compatibility.
-        if (!viewDeleted) {
+        // NOT deleted matches the partial indexes (V12__live_issue_indexes.sql).
+        if (!filter.viewDeleted()) {
             spec = spec.and((root, query, cb) ->
-                    cb.or(
-                            cb.isFalse(root.get("deleted")),
-                            cb.isNull(root.get("deleted"))
-                    ));
+                    cb.isFalse(root.get("deleted")));
         }
 
         return spec;
     }
 
     /**
-     * Normalizes the issue type filter:
-     *  - null or "All" (case-insensitive) → null (no filter)
-     *  - otherwise returns the original string.
+     * Grouping key for resolve updates that can share one UPDATE statement.
      */
-    private String normalizeType(String typeFilter) {
-        if (typeFilter == null) {
-            return null;
-        }
-        String trimmed = typeFilter.trim();
-        if (trimmed.isEmpty()) {
-            return null;
-        }
-        if ("all".equalsIgnoreCase(trimmed)) {
-            return null;
-        }
-        return trimmed;
+    private record Resolution(String resolvedBy, String resolutionDescription) {
+    }
+
+    /**
+     * Callback used by {@link #exportIssues} to write each row as it is read.
+     */
+    public interface ExportRowWriter {
+        void write(BugReport report) throws IOException;
+
+        /**
+         * Called periodically so partially written output reaches the client.
+         */
+        void flush() throws IOException;
     }
 
     /**
@@ -0,0 +1,260 @@
+package com.iworks.bugtracker.service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Writes RFC 4180 CSV straight into a {@link Writer}, through a reusable char buffer.
+ *
+ * Every cell is quoted and embedded quotes are doubled while the text is copied into
+ * the buffer (no intermediate Strings), so encoding a row allocates nothing. Rows end with CRLF. Text cells
+ * starting with =, +, -, @, tab or CR get a leading ' so spreadsheets don't run them
+ * as formulas. null is written as an empty quoted cell.
+ *
+ * Date-times are written as ISO-8601 (2024-05-01T09:30:00, plus .SSS/.SSSSSS/.SSSSSSSSS
+ * when there is a fraction); the date part is cached, since consecutive rows are
+ * usually from the same day.
+ *
+ * Not thread-safe: use one encoder per writer. Nothing reaches the writer before
+ * the buffer fills up or {@link #flush()} is called.
+ */
+public final class CsvEncoder {
+
+    private static final int DEFAULT_BUFFER_CHARS = 8192;
+
+    private final Writer out;
+    private final char[] buffer;
+    private int position;
+    private boolean firstCell = true;
+
+    // Last date written, as "yyyy-MM-dd"
+    private LocalDate cachedDate;
+    private final char[] cachedDateChars = new char[10];
+
+    // Digits of a long, written right to left
+    private final char[] digits = new char[20];
+
+    public CsvEncoder(Writer out) {
+        this(out, DEFAULT_BUFFER_CHARS);
+    }
+
+    public CsvEncoder(Writer out, int bufferChars) {
+        this.out = out;
+        this.buffer = new char[bufferChars];
+    }
+
+    /**
+     * A text cell, with the formula-injection guard.
+     */
+    public CsvEncoder text(CharSequence value) throws IOException {
+        startCell();
+        if (value != null) {
+            int length = value.length();
+            if (length > 0 && isFormulaStart(value.charAt(0))) {
+                put('\'');
+            }
+            if (value instanceof String s) {
+                putEscaped(s, length);
+            } else {
+                for (int i = 0; i < length; i++) {
+                    char c = value.charAt(i);
+                    if (c == '"') {
+                        put('"');
+                    }
+                    put(c);
+                }
+            }
+        }
+        return endCell();
+    }
+
+    public CsvEncoder number(Long value) throws IOException {
+        startCell();
+        if (value != null) {
+            putLong(value);
+        }
+        return endCell();
+    }
+
+    public CsvEncoder bool(boolean value) throws IOException {
+        startCell();
+        putAscii(value ? "true" : "false");
+        return endCell();
+    }
+
+    public CsvEncoder dateTime(LocalDateTime value) throws IOException {
+        startCell();
+        if (value != null) {
+            putDateTime(value);
+        }
+        return endCell();
+    }
+
+    /**
+     * Ends the current row.
+     */
+    public CsvEncoder endRow() throws IOException {
+        put('\r');
+        put('\n');
+        firstCell = true;
+        return this;
+    }
+
+    /**
+     * Writes a literal line (e.g. a header) followed by CRLF. The text is not escaped.
+     */
+    public CsvEncoder line(String text) throws IOException {
+        putAscii(text);
+        return endRow();
+    }
+
+    /**
+     * Passes everything buffered to the writer and flushes it.
+     */
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    static boolean isFormulaStart(char c) {
+        return c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r';
+    }
+
+    private void startCell() throws IOException {
+        if (!firstCell) {
+            put(',');
+        }
+        firstCell = false;
+        put('"');
+    }
+
+    private CsvEncoder endCell() throws IOException {
+        put('"');
+        return this;
+    }
+
+    private void put(char c) throws IOException {
+        if (position == buffer.length) {
+            drain();
+        }
+        buffer[position++] = c;
+    }
+
+    /**
+     * Copies the runs between quotes in bulk, doubling each quote.
+     */
+    private void putEscaped(String s, int length) throws IOException {
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            if (s.charAt(i) == '"') {
+                putChars(s, start, i + 1);
+                put('"');
+                start = i + 1;
+            }
+        }
+        putChars(s, start, length);
+    }
+
+    private void putChars(String s, int from, int to) throws IOException {
+        while (from < to) {
+            if (position == buffer.length) {
+                drain();
+            }
+            int n = Math.min(to - from, buffer.length - position);
+            s.getChars(from, from + n, buffer, position);
+            position += n;
+            from += n;
+        }
+    }
+
+    private void putAscii(String s) throws IOException {
+        putChars(s, 0, s.length());
+    }
+
+    private void putLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            putAscii("-9223372036854775808");
+            return;
+        }
+        if (value < 0) {
+            put('-');
+            value = -value;
+        }
+        int start = digits.length;
+        do {
+            digits[--start] = (char) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        for (int i = start; i < digits.length; i++) {
+            put(digits[i]);
+        }
+    }
+
+    private void putDateTime(LocalDateTime value) throws IOException {
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            // Outside what the fixed-width format covers; never happens for real reports
+            putAscii(value.toString());
+            return;
+        }
+
+        LocalDate date = value.toLocalDate();
+        if (!date.equals(cachedDate)) {
+            fill(cachedDateChars, 0, year, 4);
+            cachedDateChars[4] = '-';
+            fill(cachedDateChars, 5, date.getMonthValue(), 2);
+            cachedDateChars[7] = '-';
+            fill(cachedDateChars, 8, date.getDayOfMonth(), 2);
+            cachedDate = date;
+        }
+        for (char c : cachedDateChars) {
+            put(c);
+        }
+
+        put('T');
+        putPadded(value.getHour(), 2);
+        put(':');
+        putPadded(value.getMinute(), 2);
+        put(':');
+        putPadded(value.getSecond(), 2);
+
+        int nanos = value.getNano();
+        if (nanos != 0) {
+            put('.');
+            // Same precision steps as LocalDateTime.toString()
+            if (nanos % 1_000_000 == 0) {
+                putPadded(nanos / 1_000_000, 3);
+            } else if (nanos % 1_000 == 0) {
+                putPadded(nanos / 1_000, 6);
+            } else {
+                putPadded(nanos, 9);
+            }
+        }
+    }
+
+    private void putPadded(int value, int width) throws IOException {
+        int divisor = 1;
+        for (int i = 1; i < width; i++) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            put((char) ('0' + (value / divisor) % 10));
+        }
+    }
+
+    private static void fill(char[] target, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            target[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private void drain() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
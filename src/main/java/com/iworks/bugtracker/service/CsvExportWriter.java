@@ -0,0 +1,74 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.model.BugReport;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The CSV export (UTF-8, CRLF rows, see {@link CsvEncoder}), optionally gzipped.
+ *
+ * The gzip stream is sync-flushed on every {@link #flush()}, so a compressed export
+ * still reaches the client as it is produced.
+ */
+public final class CsvExportWriter implements IssueExportWriter {
+
+    // Export CSV header; includes the logical delete fields
+    public static final String HEADER = "id,type,name,email,role,browser,description,event_time,created_at," +
+            "resolved,resolved_by,resolution_description,resolved_at,deleted,deleted_at";
+
+    private static final int GZIP_BUFFER_BYTES = 65536;
+
+    private final GZIPOutputStream gzip;
+    private final CsvEncoder csv;
+
+    CsvExportWriter(OutputStream out, boolean compress) throws IOException {
+        this.gzip = compress ? new GZIPOutputStream(out, GZIP_BUFFER_BYTES, true) : null;
+        this.csv = new CsvEncoder(new OutputStreamWriter(compress ? gzip : out, StandardCharsets.UTF_8));
+        csv.line(HEADER);
+    }
+
+    @Override
+    public void write(BugReport report) throws IOException {
+        writeRow(csv, report);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        csv.flush();
+    }
+
+    @Override
+    public void finish() throws IOException {
+        csv.flush();
+        if (gzip != null) {
+            gzip.finish();
+            gzip.flush();
+        }
+    }
+
+    /**
+     * One export CSV row, matching {@link #HEADER}.
+     */
+    public static void writeRow(CsvEncoder csv, BugReport b) throws IOException {
+        csv.number(b.getId())
+                .text(b.getType())
+                .text(b.getName())
+                .text(b.getEmail())
+                .text(b.getRole())
+                .text(b.getBrowser())
+                .text(b.getDescription())
+                .dateTime(b.getEventTime())
+                .dateTime(b.getCreatedAt())
+                .bool(b.isResolved())
+                .text(b.getResolvedBy())
+                .text(b.getResolutionDescription())
+                .dateTime(b.getResolvedAt())
+                .bool(b.isDeleted())
+                .dateTime(b.getDeletedAt())
+                .endRow();
+    }
+}
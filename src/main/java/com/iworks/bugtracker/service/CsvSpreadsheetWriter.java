@@ -0,0 +1,286 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.model.BugReport;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends submitted bug reports to the reports/bug_reports.csv "spreadsheet".
+ *
+ * Request threads only snapshot the row's fields and put them on a bounded queue;
+ * a single background thread owns the file and encodes rows straight into it with a
+ * reusable {@link CsvEncoder}. It keeps the channel open, writes whatever has
+ * queued up in one go (group commit), fsyncs at most every fsync-interval-ms, and
+ * rotates the file to bug_reports-yyyy-MM-dd[-n].csv when it gets too large or the
+ * day changes. When the queue is full the row is dropped and counted rather than
+ * blocking the submission.
+ */
+@Component
+public class CsvSpreadsheetWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(CsvSpreadsheetWriter.class);
+
+    static final String HEADER =
+            "id,name,email,role,browser,type,description,event_time,created_at,screenshot_path";
+
+    private static final String FILE_NAME = "bug_reports.csv";
+    private static final int MAX_BATCH = 512;
+
+    private final Path reportsDir;
+    private final Path csvFile;
+    private final long maxFileBytes;
+    private final long fsyncIntervalNanos;
+
+    private final BlockingQueue<Row> queue;
+    private final Counter droppedRows;
+    private final Counter writtenRows;
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    // --- Owned by the writer thread only ---
+    private FileChannel channel;
+    private CsvEncoder csv;
+    private LocalDate fileDate;
+    private boolean unsynced;
+    private long lastSync = System.nanoTime();
+
+    public CsvSpreadsheetWriter(
+            @Value("${bugtracker.report-dir}") String reportsDirProperty,
+            @Value("${bugtracker.csv.queue-capacity:10000}") int queueCapacity,
+            @Value("${bugtracker.csv.max-file-bytes:52428800}") long maxFileBytes,
+            @Value("${bugtracker.csv.fsync-interval-ms:1000}") long fsyncIntervalMillis,
+            MeterRegistry meterRegistry
+    ) {
+        this.reportsDir = Paths.get(reportsDirProperty).toAbsolutePath().normalize();
+        this.csvFile = this.reportsDir.resolve(FILE_NAME);
+        this.maxFileBytes = maxFileBytes;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMillis);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        try {
+            Files.createDirectories(this.reportsDir);
+        } catch (IOException e) {
+            // Fail fast if we can't prepare storage directories
+            throw new IllegalStateException("Failed to create report directory", e);
+        }
+
+        Gauge.builder("bugtracker.csv.queue.depth", queue, BlockingQueue::size)
+                .description("Rows waiting to be appended to bug_reports.csv")
+                .register(meterRegistry);
+        this.droppedRows = Counter.builder("bugtracker.csv.rows.dropped")
+                .description("Rows dropped because the CSV append queue was full")
+                .register(meterRegistry);
+        this.writtenRows = Counter.builder("bugtracker.csv.rows.written")
+                .register(meterRegistry);
+
+        this.writerThread = new Thread(this::run, "csv-spreadsheet-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queues a row for the report. Never blocks and never touches the disk.
+     *
+     * @return false if the queue was full and the row was dropped.
+     */
+    public boolean append(BugReport report) {
+        if (!queue.offer(Row.of(report))) {
+            droppedRows.increment();
+            log.warn("CSV append queue full; dropped row for bug report id={}", report.getId());
+            return false;
+        }
+        return true;
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        // No interrupt: FileChannel closes itself if interrupted mid-write.
+        // The writer polls with a timeout, so it notices the flag within fsync-interval-ms.
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void run() {
+        List<Row> batch = new ArrayList<>(MAX_BATCH);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                Row first = queue.poll(fsyncIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    writeBatch(batch);
+                }
+                syncIfDue(!running);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (IOException e) {
+                log.error("Failed to write to {}; {} row(s) lost", csvFile, batch.size(), e);
+                closeQuietly();
+            } finally {
+                batch.clear();
+            }
+        }
+
+        try {
+            syncIfDue(true);
+        } catch (IOException e) {
+            log.error("Failed to sync {} on shutdown", csvFile, e);
+        }
+        closeQuietly();
+    }
+
+    private void writeBatch(List<Row> rows) throws IOException {
+        rotateIfNeeded();
+
+        for (Row row : rows) {
+            writeRow(csv, row);
+        }
+        csv.flush();
+
+        unsynced = true;
+        writtenRows.increment(rows.size());
+    }
+
+    private void syncIfDue(boolean force) throws IOException {
+        if (!unsynced || channel == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (force || now - lastSync >= fsyncIntervalNanos) {
+            channel.force(false);
+            unsynced = false;
+            lastSync = now;
+        }
+    }
+
+    /**
+     * Opens the live file on first use and rolls it over when it is too big
+     * or was started on an earlier day.
+     */
+    private void rotateIfNeeded() throws IOException {
+        LocalDate today = LocalDate.now();
+
+        if (channel == null && Files.exists(csvFile)) {
+            fileDate = LocalDate.ofInstant(
+                    Files.getLastModifiedTime(csvFile).toInstant(), ZoneId.systemDefault());
+        }
+
+        boolean tooBig = Files.exists(csvFile) && Files.size(csvFile) >= maxFileBytes;
+        boolean stale = fileDate != null && fileDate.isBefore(today);
+        if (Files.exists(csvFile) && (tooBig || stale)) {
+            if (channel != null) {
+                channel.force(false);
+                unsynced = false;
+            }
+            closeQuietly();
+            Files.move(csvFile, rotatedName(fileDate != null ? fileDate : today));
+        }
+
+        if (channel == null) {
+            channel = FileChannel.open(csvFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            fileDate = today;
+            // UTF-8 encoding into the channel through reusable buffers
+            Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), 8192);
+            csv = new CsvEncoder(writer);
+            // Only this thread ever writes the file, so the header check can't race
+            if (channel.size() == 0) {
+                csv.line(HEADER).flush();
+            }
+        }
+    }
+
+    private Path rotatedName(LocalDate date) {
+        Path target = reportsDir.resolve("bug_reports-" + date + ".csv");
+        for (int n = 1; Files.exists(target); n++) {
+            target = reportsDir.resolve("bug_reports-" + date + "-" + n + ".csv");
+        }
+        return target;
+    }
+
+    private void closeQuietly() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Failed to close {}", csvFile, e);
+            }
+            channel = null;
+            // Anything still buffered in the encoder belonged to a failed batch
+            csv = null;
+        }
+    }
+
+    static void writeRow(CsvEncoder csv, Row row) throws IOException {
+        csv.number(row.id())
+                .text(row.name())
+                .text(row.email())
+                .text(row.role())
+                .text(row.browser())
+                .text(row.type())
+                .text(row.description())
+                .dateTime(row.eventTime())
+                .dateTime(row.createdAt())
+                .text(row.screenshotPath())
+                .endRow();
+    }
+
+    /**
+     * The spreadsheet columns of a report, taken on the request thread so the
+     * writer thread never touches the entity.
+     */
+    record Row(
+            Long id,
+            String name,
+            String email,
+            String role,
+            String browser,
+            String type,
+            String description,
+            LocalDateTime eventTime,
+            LocalDateTime createdAt,
+            String screenshotPath
+    ) {
+
+        static Row of(BugReport report) {
+            return new Row(
+                    report.getId(),
+                    report.getName(),
+                    report.getEmail(),
+                    report.getRole(),
+                    report.getBrowser(),
+                    report.getType(),
+                    report.getDescription(),
+                    report.getEventTime(),
+                    report.getCreatedAt(),
+                    report.getScreenshotPath()
+            );
+        }
+    }
+}
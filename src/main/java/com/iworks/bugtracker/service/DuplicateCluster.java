@@ -0,0 +1,10 @@
+package com.iworks.bugtracker.service;
+
+import java.util.List;
+
+/**
+ * Open issues that are near duplicates of each other, ids ascending
+ * (the first is the oldest report).
+ */
+public record DuplicateCluster(List<Long> ids) {
+}
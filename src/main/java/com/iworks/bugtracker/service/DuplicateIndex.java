@@ -0,0 +1,360 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.model.BugReport;
+import com.iworks.bugtracker.repository.BugReportRepository;
+import com.iworks.bugtracker.repository.IssueText;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory near-duplicate index over open (unresolved, not deleted) issues.
+ *
+ * Each issue is reduced to a 64-bit {@link SimHash} fingerprint. The fingerprint is
+ * split into four 16-bit bands and the issue is filed under each band value (LSH).
+ * Two fingerprints within max-distance bits of each other differ in at most
+ * max-distance / 4 bits in one of the bands, so a lookup probes every band value that
+ * close (multi-probe: 137 values per band for the default) and nothing within range
+ * is missed. A bucket holds about 1/65536 of the issues, so finding candidates for a
+ * new report is a few hundred hash lookups instead of a scan (a scan when there are
+ * fewer issues than lookups).
+ *
+ * The default of 8 bits catches most one-word edits of a short description (they
+ * land 4-9 bits apart), while unrelated reports are usually 20 or more bits apart.
+ *
+ * Built from the database once the application is ready and kept current from
+ * committed {@link IssueChangeEvent}s.
+ */
+@Service
+public class DuplicateIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(DuplicateIndex.class);
+
+    private static final int BANDS = 4;
+    private static final int BAND_BITS = 64 / BANDS;
+    private static final int BAND_MASK = (1 << BAND_BITS) - 1;
+
+    private final BugReportRepository bugReportRepository;
+    private final int maxDistance;
+    private final Counter linkedReports;
+
+    // XORed onto a band value: every value within max-distance / BANDS bits of it
+    private final int[] probes;
+
+    // id -> fingerprint, and per band: band value -> (id -> fingerprint)
+    private final Map<Long, Long> fingerprints = new HashMap<>();
+    private final List<Map<Integer, Map<Long, Long>>> bands = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public DuplicateIndex(
+            BugReportRepository bugReportRepository,
+            @Value("${bugtracker.duplicates.max-distance:8}") int maxDistance,
+            MeterRegistry meterRegistry
+    ) {
+        if (maxDistance < 0 || maxDistance > 63) {
+            throw new IllegalArgumentException("bugtracker.duplicates.max-distance must be between 0 and 63");
+        }
+        this.bugReportRepository = bugReportRepository;
+        this.maxDistance = maxDistance;
+
+        int probeRadius = maxDistance / BANDS;
+        this.probes = IntStream.rangeClosed(0, BAND_MASK)
+                .filter(mask -> Integer.bitCount(mask) <= probeRadius)
+                .toArray();
+        for (int band = 0; band < BANDS; band++) {
+            bands.add(new HashMap<>());
+        }
+
+        Gauge.builder("bugtracker.duplicates.index.size", this, DuplicateIndex::size)
+                .description("Open issues in the near-duplicate index")
+                .register(meterRegistry);
+        this.linkedReports = Counter.builder("bugtracker.duplicates.linked")
+                .description("New reports that matched at least one open issue")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Open issues similar to the given one, closest first. Works for resolved or
+     * deleted issues too (their text is looked up), but only open issues are returned.
+     *
+     * @return empty if the issue doesn't exist.
+     */
+    public List<DuplicateMatch> duplicatesOf(Long id) {
+        Long fingerprint = fingerprintOf(id);
+        if (fingerprint == null) {
+            List<IssueText> texts = bugReportRepository.findIssueTextsByIds(List.of(id));
+            if (texts.isEmpty()) {
+                return List.of();
+            }
+            fingerprint = fingerprint(texts.get(0));
+        }
+        return findSimilar(fingerprint, id);
+    }
+
+    /**
+     * Groups of open issues that are (transitively) near duplicates of each other,
+     * largest first. Issues without a duplicate are left out.
+     *
+     * Works on a copy of the fingerprints, in plain arrays: the lock is only held for
+     * the copy, so new reports are still checked and added while it runs.
+     */
+    public List<DuplicateCluster> clusters() {
+        long[] ids;
+        long[] values;
+        lock.lock();
+        try {
+            ids = new long[fingerprints.size()];
+            values = new long[ids.length];
+            int i = 0;
+            for (Map.Entry<Long, Long> entry : fingerprints.entrySet()) {
+                ids[i] = entry.getKey();
+                values[i++] = entry.getValue();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        int n = ids.length;
+        int[] parent = IntStream.range(0, n).toArray();
+        if ((long) BANDS * probes.length >= n) {
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    if (SimHash.distance(values[i], values[j]) <= maxDistance) {
+                        union(parent, i, j);
+                    }
+                }
+            }
+        } else {
+            for (int band = 0; band < BANDS; band++) {
+                // Indexes into values (and the values, for locality), sorted by band value;
+                // bucket v is members[start[v]..start[v + 1])
+                int[] start = new int[BAND_MASK + 2];
+                for (long value : values) {
+                    start[bandValue(value, band) + 1]++;
+                }
+                for (int v = 1; v < start.length; v++) {
+                    start[v] += start[v - 1];
+                }
+                int[] members = new int[n];
+                long[] memberValues = new long[n];
+                int[] next = Arrays.copyOf(start, BAND_MASK + 1);
+                for (int i = 0; i < n; i++) {
+                    int m = next[bandValue(values[i], band)]++;
+                    members[m] = i;
+                    memberValues[m] = values[i];
+                }
+
+                // Each pair of buckets within probe range once, and each pair of issues in them
+                for (int bucket = 0; bucket <= BAND_MASK; bucket++) {
+                    for (int probe : probes) {
+                        int other = bucket ^ probe;
+                        if (other < bucket) {
+                            continue;
+                        }
+                        for (int m = start[bucket]; m < start[bucket + 1]; m++) {
+                            long fingerprint = memberValues[m];
+                            for (int o = (other == bucket) ? m + 1 : start[other]; o < start[other + 1]; o++) {
+                                if (SimHash.distance(fingerprint, memberValues[o]) <= maxDistance) {
+                                    union(parent, members[m], members[o]);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        Map<Integer, List<Long>> groups = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            groups.computeIfAbsent(find(parent, i), root -> new ArrayList<>()).add(ids[i]);
+        }
+
+        List<DuplicateCluster> clusters = new ArrayList<>(groups.size());
+        for (List<Long> group : groups.values()) {
+            if (group.size() > 1) {
+                group.sort(Comparator.naturalOrder());
+                clusters.add(new DuplicateCluster(group));
+            }
+        }
+        clusters.sort(Comparator.comparingInt((DuplicateCluster c) -> c.ids().size()).reversed()
+                .thenComparing(c -> c.ids().get(0)));
+        return clusters;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return fingerprints.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.nanoTime();
+        List<IssueText> open = bugReportRepository.findOpenIssueTexts();
+        for (IssueText text : open) {
+            add(text.getId(), fingerprint(text));
+        }
+        log.info("Duplicate index loaded {} open issue(s) in {} ms",
+                open.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Applies committed changes: new and reopened issues are added,
+     * resolved and deleted ones removed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIssueChange(IssueChangeEvent event) {
+        switch (event.kind()) {
+            case CREATED -> {
+                BugReport report = event.report();
+                long fingerprint = SimHash.fingerprint(report.getType(), report.getBrowser(), report.getDescription());
+                List<DuplicateMatch> matches = findSimilar(fingerprint, report.getId());
+                if (!matches.isEmpty()) {
+                    linkedReports.increment();
+                    log.debug("Issue {} looks like a duplicate of {}", report.getId(), matches);
+                }
+                add(report.getId(), fingerprint);
+            }
+            case UNRESOLVED -> {
+                for (IssueText text : bugReportRepository.findIssueTextsByIds(event.ids())) {
+                    add(text.getId(), fingerprint(text));
+                }
+            }
+            case RESOLVED, DELETED, ARCHIVED -> event.ids().forEach(this::remove);
+        }
+    }
+
+    private List<DuplicateMatch> findSimilar(long fingerprint, Long excludeId) {
+        lock.lock();
+        try {
+            // An issue close in several bands is found in each
+            Map<Long, Integer> distances = new HashMap<>();
+            BiConsumer<Long, Long> check = (id, other) -> {
+                int distance = SimHash.distance(fingerprint, other);
+                if (distance <= maxDistance && !id.equals(excludeId)) {
+                    distances.put(id, distance);
+                }
+            };
+            if ((long) BANDS * probes.length >= fingerprints.size()) {
+                // Fewer issues than lookups
+                fingerprints.forEach(check);
+            } else {
+                for (int band = 0; band < BANDS; band++) {
+                    Map<Integer, Map<Long, Long>> buckets = bands.get(band);
+                    int value = bandValue(fingerprint, band);
+                    for (int probe : probes) {
+                        Map<Long, Long> bucket = buckets.get(value ^ probe);
+                        if (bucket != null) {
+                            bucket.forEach(check);
+                        }
+                    }
+                }
+            }
+
+            List<DuplicateMatch> matches = new ArrayList<>(distances.size());
+            distances.forEach((id, distance) -> matches.add(new DuplicateMatch(id, distance)));
+            matches.sort(Comparator.comparingInt(DuplicateMatch::distance)
+                    .thenComparing(DuplicateMatch::id, Comparator.reverseOrder()));
+            return matches;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Package-private for tests
+    void add(Long id, long fingerprint) {
+        lock.lock();
+        try {
+            removeLocked(id);
+            fingerprints.put(id, fingerprint);
+            for (int band = 0; band < BANDS; band++) {
+                bands.get(band).computeIfAbsent(bandValue(fingerprint, band), k -> new HashMap<>()).put(id, fingerprint);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(Long id) {
+        lock.lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeLocked(Long id) {
+        Long fingerprint = fingerprints.remove(id);
+        if (fingerprint == null) {
+            return;
+        }
+        for (int band = 0; band < BANDS; band++) {
+            Map<Integer, Map<Long, Long>> buckets = bands.get(band);
+            int key = bandValue(fingerprint, band);
+            Map<Long, Long> bucket = buckets.get(key);
+            if (bucket != null && bucket.remove(id) != null && bucket.isEmpty()) {
+                buckets.remove(key);
+            }
+        }
+    }
+
+    private Long fingerprintOf(Long id) {
+        lock.lock();
+        try {
+            return fingerprints.get(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long fingerprint(IssueText text) {
+        return SimHash.fingerprint(text.getType(), text.getBrowser(), text.getDescription());
+    }
+
+    private static int bandValue(long fingerprint, int band) {
+        return (int) (fingerprint >>> (band * BAND_BITS)) & BAND_MASK;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA != rootB) {
+            parent[rootB] = rootA;
+        }
+    }
+
+    private static int find(int[] parent, int i) {
+        int root = i;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        // Path compression
+        while (parent[i] != root) {
+            int next = parent[i];
+            parent[i] = root;
+            i = next;
+        }
+        return root;
+    }
+}
@@ -0,0 +1,10 @@
+package com.iworks.bugtracker.service;
+
+/**
+ * An open issue that looks like a near duplicate.
+ *
+ * @param id       the similar issue.
+ * @param distance differing fingerprint bits (0 = same text, type and browser).
+ */
+public record DuplicateMatch(Long id, int distance) {
+}
@@ -0,0 +1,98 @@
+package com.iworks.bugtracker.service;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Formats of GET /api/admin/issues/export. All of them are written row by row from the
+ * same database cursor, see {@link BugReportService#exportIssues}.
+ */
+public enum ExportFormat {
+
+    CSV("text/csv;charset=UTF-8", "csv", "csv"),
+    CSV_GZIP("application/gzip", "csv.gz", "csv.gz", "csv-gzip", "gzip"),
+    NDJSON("application/x-ndjson", "ndjson", "ndjson", "jsonl"),
+    ARROW("application/vnd.apache.arrow.stream", "arrows", "arrow", "arrows");
+
+    private final MediaType mediaType;
+    private final String extension;
+    private final List<String> names;
+
+    ExportFormat(String mediaType, String extension, String... names) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+        this.extension = extension;
+        this.names = List.of(names);
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    /** File name extension, without the dot. */
+    public String extension() {
+        return extension;
+    }
+
+    /**
+     * Picks the format of an export request: the "format" parameter if given
+     * (csv, csv.gz, ndjson, arrow; case-insensitive), otherwise the type in the Accept
+     * header with the highest q that is one of ours (the earlier one on a tie),
+     * otherwise CSV. Wildcards in Accept (as sent by browsers) mean CSV, and q=0
+     * rules a type out.
+     *
+     * @throws IllegalArgumentException for an unknown "format".
+     */
+    public static ExportFormat negotiate(String format, String accept) {
+        if (format != null && !format.isBlank()) {
+            String name = format.trim().toLowerCase(Locale.ROOT);
+            for (ExportFormat candidate : values()) {
+                if (candidate.names.contains(name)) {
+                    return candidate;
+                }
+            }
+            throw new IllegalArgumentException("Unknown export format: " + format);
+        }
+
+        if (accept != null && !accept.isBlank()) {
+            List<MediaType> accepted;
+            try {
+                accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+            } catch (InvalidMediaTypeException ex) {
+                return CSV;
+            }
+            // Stable, so equal q keeps the header order
+            accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+            for (MediaType type : accepted) {
+                if (type.isWildcardType() || type.isWildcardSubtype() || type.getQualityValue() == 0) {
+                    continue;
+                }
+                for (ExportFormat candidate : values()) {
+                    if (candidate.mediaType.isCompatibleWith(type)) {
+                        return candidate;
+                    }
+                }
+            }
+        }
+        return CSV;
+    }
+
+    /**
+     * Starts an export into the given stream; anything leading the rows (CSV header,
+     * Arrow schema) is written right away.
+     */
+    public IssueExportWriter open(OutputStream out) throws IOException {
+        return switch (this) {
+            case CSV -> new CsvExportWriter(out, false);
+            case CSV_GZIP -> new CsvExportWriter(out, true);
+            case NDJSON -> new NdjsonExportWriter(out);
+            case ARROW -> new ArrowExportWriter(out);
+        };
+    }
+}
@@ -0,0 +1,141 @@
+package com.iworks.bugtracker.service;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * A background export, see {@link ExportJobService}. Serialized as the job status
+ * returned by /api/admin/exports.
+ *
+ * Progress fields are written by the worker thread only and read by status polls.
+ */
+public final class ExportJob {
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        DONE,
+        FAILED
+    }
+
+    private final String id;
+    private final String owner;
+    private final IssueFilter filter;
+    private final ExportFormat format;
+    private final long dataVersion;
+    private final Path file;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    private volatile State state = State.QUEUED;
+    private volatile long rows;
+    private volatile Long totalRows;
+    private volatile Long sizeBytes;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+
+    ExportJob(String id, String owner, IssueFilter filter, ExportFormat format, long dataVersion, Path file) {
+        this.id = id;
+        this.owner = owner;
+        this.filter = filter;
+        this.format = format;
+        this.dataVersion = dataVersion;
+        this.file = file;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public String getFormat() {
+        return format.extension();
+    }
+
+    /** Rows written so far. */
+    public long getRows() {
+        return rows;
+    }
+
+    /** Rows the export will have, once it has started; null before that. */
+    public Long getTotalRows() {
+        return totalRows;
+    }
+
+    /** File size, once DONE. */
+    public Long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    /** Where to download the result, once DONE. */
+    public String getDownloadUrl() {
+        return state == State.DONE ? "/api/admin/exports/" + id + "/file" : null;
+    }
+
+    public boolean isFinished() {
+        return state == State.DONE || state == State.FAILED;
+    }
+
+    String owner() {
+        return owner;
+    }
+
+    IssueFilter filter() {
+        return filter;
+    }
+
+    public ExportFormat format() {
+        return format;
+    }
+
+    long dataVersion() {
+        return dataVersion;
+    }
+
+    /** The result file; only complete once DONE. */
+    public Path file() {
+        return file;
+    }
+
+    void started(long totalRows) {
+        this.totalRows = totalRows;
+        this.startedAt = LocalDateTime.now();
+        this.state = State.RUNNING;
+    }
+
+    void progress(long rows) {
+        this.rows = rows;
+    }
+
+    void done(long rows, long sizeBytes) {
+        this.rows = rows;
+        this.sizeBytes = sizeBytes;
+        this.finishedAt = LocalDateTime.now();
+        this.state = State.DONE;
+    }
+
+    void failed(String error) {
+        this.error = error;
+        this.finishedAt = LocalDateTime.now();
+        this.state = State.FAILED;
+    }
+}
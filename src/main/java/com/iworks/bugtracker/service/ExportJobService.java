@@ -0,0 +1,230 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.config.AppThreads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs exports in the background and keeps the results as files under
+ * {reportsDir}/exports, so big exports don't tie an HTTP request (and a
+ * transaction) to the browser staying connected, and can be downloaded with resume.
+ *
+ * Jobs run on a small fixed pool with a bounded queue; each user (see
+ * {@link #submit}) may have a limited number queued or running at once.
+ *
+ * A finished file is reused for identical requests (same filters and format) until
+ * the data changes: every committed {@link IssueChangeEvent} bumps a data version that
+ * is part of the reuse key. Finished jobs and their files are dropped after the
+ * retention period. Jobs live in memory only; files left over from a previous run
+ * are deleted at startup.
+ */
+@Service
+public class ExportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportJobService.class);
+
+    private final BugReportService bugReportService;
+    private final IssueExporter issueExporter;
+    private final Path exportsDir;
+    private final int perUserLimit;
+    private final long retentionMinutes;
+
+    private final ThreadPoolExecutor workers;
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+    // Latest job per (filters, format, data version), for reuse
+    private final Map<ResultKey, ExportJob> results = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong dataVersion = new AtomicLong();
+
+    private final Counter reusedJobs;
+    private final Counter failedJobs;
+
+    public ExportJobService(
+            BugReportService bugReportService,
+            IssueExporter issueExporter,
+            @Value("${bugtracker.report-dir}") String reportsDirProperty,
+            @Value("${bugtracker.export.jobs.threads:2}") int threads,
+            @Value("${bugtracker.export.jobs.queue-capacity:20}") int queueCapacity,
+            @Value("${bugtracker.export.jobs.per-user:2}") int perUserLimit,
+            @Value("${bugtracker.export.jobs.retention-minutes:1440}") long retentionMinutes,
+            MeterRegistry meterRegistry,
+            AppThreads appThreads
+    ) {
+        this.bugReportService = bugReportService;
+        this.issueExporter = issueExporter;
+        this.exportsDir = Paths.get(reportsDirProperty).toAbsolutePath().normalize().resolve("exports");
+        this.perUserLimit = perUserLimit;
+        this.retentionMinutes = retentionMinutes;
+
+        try {
+            Files.createDirectories(exportsDir);
+            deleteLeftoverFiles();
+        } catch (IOException e) {
+            // Fail fast if we can't prepare storage directories
+            throw new IllegalStateException("Failed to prepare export directory", e);
+        }
+
+        this.workers = new ThreadPoolExecutor(
+                threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                appThreads.factory("export-job")
+        );
+
+        Gauge.builder("bugtracker.export.jobs.queued", workers, w -> w.getQueue().size())
+                .description("Export jobs waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("bugtracker.export.jobs.running", workers, ThreadPoolExecutor::getActiveCount)
+                .description("Export jobs being written")
+                .register(meterRegistry);
+        this.reusedJobs = Counter.builder("bugtracker.export.jobs.reused")
+                .description("Export requests answered with an existing job")
+                .register(meterRegistry);
+        this.failedJobs = Counter.builder("bugtracker.export.jobs.failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts an export, or returns the existing job if an identical one is queued,
+     * running or done with the current data.
+     *
+     * @param owner who asks, for the per-user limit (remote user or client address).
+     * @throws IllegalStateException      if the owner already has per-user jobs in progress.
+     * @throws RejectedExecutionException if the queue is full.
+     */
+    public ExportJob submit(IssueFilter filter, ExportFormat format, String owner) {
+        lock.lock();
+        try {
+            ResultKey key = new ResultKey(filter, format, dataVersion.get());
+            ExportJob existing = results.get(key);
+            if (existing != null && existing.getState() != ExportJob.State.FAILED) {
+                reusedJobs.increment();
+                return existing;
+            }
+
+            long inProgress = jobs.values().stream()
+                    .filter(job -> job.owner().equals(owner) && !job.isFinished())
+                    .count();
+            if (inProgress >= perUserLimit) {
+                throw new IllegalStateException("Too many export jobs for " + owner);
+            }
+
+            String id = UUID.randomUUID().toString();
+            ExportJob job = new ExportJob(id, owner, filter, format, key.dataVersion(),
+                    exportsDir.resolve(id + "." + format.extension()));
+            workers.execute(() -> run(job));
+            jobs.put(id, job);
+            results.put(key, job);
+            return job;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Optional<ExportJob> find(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * Any committed change makes earlier results stale for reuse (they stay
+     * downloadable by id until they expire).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIssueChange(IssueChangeEvent event) {
+        dataVersion.incrementAndGet();
+    }
+
+    @Scheduled(fixedDelayString = "${bugtracker.export.jobs.cleanup-ms:600000}")
+    public void removeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        long version = dataVersion.get();
+        lock.lock();
+        try {
+            results.entrySet().removeIf(entry -> entry.getKey().dataVersion() != version
+                    || entry.getValue().getState() == ExportJob.State.FAILED);
+            jobs.values().removeIf(job -> {
+                if (!job.isFinished() || job.getFinishedAt().isAfter(cutoff)) {
+                    return false;
+                }
+                results.values().remove(job);
+                deleteQuietly(job.file());
+                return true;
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void run(ExportJob job) {
+        Path part = exportsDir.resolve(job.getId() + ".part");
+        try {
+            job.started(bugReportService.countIssues(job.filter()));
+
+            long rows;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(part), 65536)) {
+                rows = issueExporter.export(job.filter(), job.format(), out, job::progress);
+            }
+            Files.move(part, job.file(), StandardCopyOption.ATOMIC_MOVE);
+            job.done(rows, Files.size(job.file()));
+            log.info("Export {} ({}) finished: {} rows, {} bytes",
+                    job.getId(), job.getFormat(), rows, job.getSizeBytes());
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(part);
+            failedJobs.increment();
+            job.failed("Export failed; see the server log");
+            log.warn("Export {} failed", job.getId(), e);
+        }
+    }
+
+    private void deleteLeftoverFiles() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(exportsDir)) {
+            for (Path file : files) {
+                deleteQuietly(file);
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete {}", file, e);
+        }
+    }
+
+    private record ResultKey(IssueFilter filter, ExportFormat format, long dataVersion) {
+    }
+}
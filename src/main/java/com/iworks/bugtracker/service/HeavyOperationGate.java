@@ -0,0 +1,132 @@
+package com.iworks.bugtracker.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control for heavy admin operations (direct exports, large bulk updates),
+ * which each hold a database connection, and often a long cursor, for their whole run.
+ *
+ * At most permits of them run at once. Up to max-waiting more queue for a slot, first
+ * come first served (fair semaphore), for at most max-wait-ms; anything beyond that is
+ * rejected right away so the caller can answer 503 with {@link #retryAfterSeconds()}.
+ */
+@Component
+public class HeavyOperationGate {
+
+    private final Semaphore permits;
+    private final int maxWaiting;
+    private final long maxWaitMillis;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public HeavyOperationGate(
+            @Value("${bugtracker.admission.heavy.permits:2}") int permits,
+            @Value("${bugtracker.admission.heavy.max-waiting:10}") int maxWaiting,
+            @Value("${bugtracker.admission.heavy.max-wait-ms:10000}") long maxWaitMillis,
+            MeterRegistry meterRegistry
+    ) {
+        this.permits = new Semaphore(permits, true);
+        this.maxWaiting = maxWaiting;
+        this.maxWaitMillis = maxWaitMillis;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("bugtracker.admission.permits", () -> permits)
+                .description("Heavy admin operations allowed at once")
+                .register(meterRegistry);
+        Gauge.builder("bugtracker.admission.active", this.permits, p -> permits - p.availablePermits())
+                .description("Heavy admin operations running")
+                .register(meterRegistry);
+        Gauge.builder("bugtracker.admission.waiting", waiting, AtomicInteger::get)
+                .description("Heavy admin operations waiting for a slot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * A slot for one operation; close it when the operation is done.
+     */
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Waits (in line) for a slot.
+     *
+     * @param operation metric tag, e.g. "export".
+     * @throws RejectedExecutionException if too many are already waiting, or no slot
+     *                                    freed up within max-wait-ms.
+     */
+    public Permit enter(String operation) {
+        Meters m = meters.computeIfAbsent(operation, this::meters);
+        long started = System.nanoTime();
+
+        // The timed tryAcquire honors fairness (the untimed one would barge): a free
+        // slot goes to whoever has been waiting longest
+        boolean admitted;
+        try {
+            admitted = permits.tryAcquire(0, TimeUnit.MILLISECONDS);
+            if (!admitted) {
+                if (waiting.incrementAndGet() > maxWaiting) {
+                    waiting.decrementAndGet();
+                    m.rejected.increment();
+                    throw new RejectedExecutionException("Too many heavy operations waiting");
+                }
+                try {
+                    admitted = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+                } finally {
+                    waiting.decrementAndGet();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        m.waitTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        if (!admitted) {
+            m.rejected.increment();
+            throw new RejectedExecutionException("No slot for a heavy operation within " + maxWaitMillis + " ms");
+        }
+
+        AtomicInteger released = new AtomicInteger();
+        return () -> {
+            if (released.getAndIncrement() == 0) {
+                permits.release();
+            }
+        };
+    }
+
+    /** What to put in Retry-After when {@link #enter} rejects. */
+    public long retryAfterSeconds() {
+        return Math.max(1, TimeUnit.MILLISECONDS.toSeconds(maxWaitMillis));
+    }
+
+    private Meters meters(String operation) {
+        return new Meters(
+                Timer.builder("bugtracker.admission.wait")
+                        .description("Time spent waiting for a heavy-operation slot")
+                        .tag("operation", operation)
+                        .register(meterRegistry),
+                Counter.builder("bugtracker.admission.rejected")
+                        .description("Heavy operations refused with 503")
+                        .tag("operation", operation)
+                        .register(meterRegistry)
+        );
+    }
+
+    private record Meters(Timer waitTime, Counter rejected) {
+    }
+}
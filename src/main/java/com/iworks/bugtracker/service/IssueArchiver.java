@@ -0,0 +1,116 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.config.AppThreads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves issues nobody works on any more from bug_reports to bug_reports_archive
+ * (see V9__issue_archive.sql), so the hot table and its indexes stay small.
+ *
+ * Every interval-ms it archives issues deleted more than deleted-after-days ago and,
+ * if resolved-after-days is set, issues resolved longer ago than that, in batches of
+ * batch-size with pause-ms between them, until none are left. Each batch is one short
+ * transaction ({@link BugReportService#archiveIssues}); rows a bulk update is holding
+ * are left for the next run.
+ *
+ * Archived issues are read-only and only listed (and exported) with viewDeleted=true.
+ * Runs on its own thread; off with bugtracker.archive.enabled=false.
+ */
+@Service
+@ConditionalOnProperty(name = "bugtracker.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class IssueArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(IssueArchiver.class);
+
+    private final BugReportService bugReportService;
+    private final int deletedAfterDays;
+    private final int resolvedAfterDays;
+    private final int batchSize;
+    private final long pauseMillis;
+
+    private final ScheduledExecutorService archiver;
+    private final Counter archivedIssues;
+    private final Timer batchTimer;
+
+    public IssueArchiver(
+            BugReportService bugReportService,
+            @Value("${bugtracker.archive.deleted-after-days:90}") int deletedAfterDays,
+            @Value("${bugtracker.archive.resolved-after-days:0}") int resolvedAfterDays,
+            @Value("${bugtracker.archive.batch-size:500}") int batchSize,
+            @Value("${bugtracker.archive.pause-ms:500}") long pauseMillis,
+            @Value("${bugtracker.archive.interval-ms:3600000}") long intervalMillis,
+            MeterRegistry meterRegistry,
+            AppThreads appThreads
+    ) {
+        if (deletedAfterDays < 0 || resolvedAfterDays < 0 || batchSize < 1) {
+            throw new IllegalArgumentException(
+                    "bugtracker.archive: days must be >= 0 and batch-size >= 1");
+        }
+        this.bugReportService = bugReportService;
+        this.deletedAfterDays = deletedAfterDays;
+        this.resolvedAfterDays = resolvedAfterDays;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+
+        this.archivedIssues = Counter.builder("bugtracker.archive.moved")
+                .description("Issues moved to bug_reports_archive")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("bugtracker.archive.batch")
+                .description("One archive batch (select, move, commit)")
+                .register(meterRegistry);
+
+        // Not the shared @Scheduled thread: a run may pause between batches for a while
+        this.archiver = Executors.newSingleThreadScheduledExecutor(appThreads.factory("issue-archiver"));
+        this.archiver.scheduleWithFixedDelay(this::run, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Interrupts the pause between batches; a batch in flight finishes or rolls back
+        archiver.shutdownNow();
+    }
+
+    void run() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime deletedBefore = now.minusDays(deletedAfterDays);
+        // Null never matches: resolved issues stay put
+        LocalDateTime resolvedBefore = (resolvedAfterDays > 0) ? now.minusDays(resolvedAfterDays) : null;
+
+        long started = System.nanoTime();
+        long total = 0;
+        try {
+            while (true) {
+                Timer.Sample batch = Timer.start();
+                int moved = bugReportService.archiveIssues(deletedBefore, resolvedBefore, batchSize);
+                batch.stop(batchTimer);
+                archivedIssues.increment(moved);
+                total += moved;
+                if (moved < batchSize) {
+                    break;
+                }
+                Thread.sleep(pauseMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // Database unavailable etc.; the rest waits for the next run
+            log.warn("Archiving issues failed after {} moved", total, e);
+        }
+        if (total > 0) {
+            log.info("Archived {} issue(s) in {} ms", total, (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+}
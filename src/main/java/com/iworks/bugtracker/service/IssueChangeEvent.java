@@ -0,0 +1,35 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.model.BugReport;
+
+import java.util.List;
+
+/**
+ * Published by {@link BugReportService} whenever issues are created or change state.
+ *
+ * Listeners that keep derived state in memory should use
+ * {@code @TransactionalEventListener} so they only see committed changes.
+ *
+ * @param kind   what happened.
+ * @param ids    the affected issue ids.
+ * @param report the saved report for {@link Kind#CREATED}; null otherwise.
+ */
+public record IssueChangeEvent(Kind kind, List<Long> ids, BugReport report) {
+
+    public enum Kind {
+        CREATED,
+        RESOLVED,
+        UNRESOLVED,
+        DELETED,
+        /** Moved to bug_reports_archive (see IssueArchiver); already resolved or deleted. */
+        ARCHIVED
+    }
+
+    public static IssueChangeEvent created(BugReport report) {
+        return new IssueChangeEvent(Kind.CREATED, List.of(report.getId()), report);
+    }
+
+    public static IssueChangeEvent of(Kind kind, List<Long> ids) {
+        return new IssueChangeEvent(kind, List.copyOf(ids), null);
+    }
+}
@@ -0,0 +1,73 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.model.BugReport;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last row returned by a keyset (seek) page in the admin ordering
+ * (resolved ASC, createdAt DESC, id DESC).
+ *
+ * Clients only ever see the opaque token produced by {@link #encode()}; they hand it
+ * back unchanged to fetch the next slice.
+ */
+public final class IssueCursor {
+
+    private final boolean resolved;
+    private final LocalDateTime createdAt;
+    private final long id;
+
+    public IssueCursor(boolean resolved, LocalDateTime createdAt, long id) {
+        this.resolved = resolved;
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static IssueCursor after(BugReport report) {
+        return new IssueCursor(report.isResolved(), report.getCreatedAt(), report.getId());
+    }
+
+    /**
+     * Parses a token produced by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static IssueCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            // Boolean.parseBoolean would read anything but "true" as false
+            if (parts.length != 3 || !(parts[0].equals("true") || parts[0].equals("false"))) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new IssueCursor(
+                    parts[0].equals("true"),
+                    LocalDateTime.parse(parts[1]),
+                    Long.parseLong(parts[2])
+            );
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public String encode() {
+        String raw = resolved + "|" + createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean isResolved() {
+        return resolved;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
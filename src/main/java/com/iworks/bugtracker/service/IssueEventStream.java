@@ -0,0 +1,280 @@
+package com.iworks.bugtracker.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iworks.bugtracker.config.AppThreads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes committed issue changes to open admin pages as Server-Sent Events.
+ *
+ * Each {@link IssueChangeEvent} becomes one SSE event named after its kind
+ * ("created", "resolved", "unresolved", "deleted") whose data is
+ * {"kind": ..., "issues": [rows]} with only the changed issues, in the same row format
+ * as /api/admin/issues. The JSON is built once and shared by every client.
+ *
+ * Every client has its own bounded buffer, drained by its own sender task, so a
+ * stalled browser only ever blocks its own sender. A client whose buffer fills up
+ * is disconnected (its EventSource reconnects and the page refreshes itself).
+ *
+ * Only a client's sender touches its emitter: SseEmitter.send and complete are
+ * synchronized on the emitter, so a broadcasting thread (the committing request, the
+ * heartbeat) that completed the emitter of a client stuck in send would be stuck too.
+ * Broadcasting just queues, and a client to be disconnected is flagged and completed
+ * by its sender once its current send returns.
+ */
+@Service
+public class IssueEventStream {
+
+    private static final Logger log = LoggerFactory.getLogger(IssueEventStream.class);
+
+    private final BugReportService bugReportService;
+    private final ObjectMapper objectMapper;
+    private final int maxClients;
+    private final int clientBuffer;
+    private final long timeoutMillis;
+
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor senders;
+    private final ScheduledExecutorService heartbeat;
+    private final Counter droppedClients;
+
+    public IssueEventStream(
+            BugReportService bugReportService,
+            ObjectMapper objectMapper,
+            @Value("${bugtracker.events.max-clients:50}") int maxClients,
+            @Value("${bugtracker.events.client-buffer:100}") int clientBuffer,
+            @Value("${bugtracker.events.timeout-ms:1800000}") long timeoutMillis,
+            @Value("${bugtracker.events.heartbeat-ms:20000}") long heartbeatMillis,
+            MeterRegistry meterRegistry,
+            AppThreads appThreads
+    ) {
+        this.bugReportService = bugReportService;
+        this.objectMapper = objectMapper;
+        this.maxClients = maxClients;
+        this.clientBuffer = clientBuffer;
+        this.timeoutMillis = timeoutMillis;
+
+        // At most one drain task per client at a time; twice maxClients threads leaves room
+        // for dropped clients whose sender is still stuck in a send. Idle threads go away
+        // after a minute. Virtual threads when enabled (see AppThreads). A drain that still
+        // finds no thread is rejected (never run on the broadcasting thread) and its client
+        // dropped, see Client#scheduleDrain.
+        this.senders = new ThreadPoolExecutor(
+                0, 2 * maxClients, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                appThreads.factory("issue-events-sender"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        // Keeps proxies from closing idle streams and detects dead connections
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(appThreads.factory("issue-events-heartbeat"));
+        this.heartbeat.scheduleWithFixedDelay(
+                () -> broadcast(Message.HEARTBEAT), heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+
+        Gauge.builder("bugtracker.events.clients", clients, Set::size)
+                .description("Connected admin event streams")
+                .register(meterRegistry);
+        this.droppedClients = Counter.builder("bugtracker.events.clients.dropped")
+                .description("Event stream clients disconnected because their buffer was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a new stream.
+     *
+     * @throws IllegalStateException if max-clients streams are already open.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Client client = new Client(emitter, new ArrayBlockingQueue<>(clientBuffer));
+        // Container callbacks; a timed-out stream is still completed by its sender
+        emitter.onCompletion(() -> clients.remove(client));
+        emitter.onTimeout(() -> client.disconnect());
+        emitter.onError(e -> client.drop());
+        synchronized (clients) {
+            if (clients.size() >= maxClients) {
+                throw new IllegalStateException("Too many event stream clients");
+            }
+            clients.add(client);
+        }
+
+        // Flushes the response headers so EventSource fires "open" right away
+        client.offer(Message.HEARTBEAT);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIssueChange(IssueChangeEvent event) {
+        // Archived issues have left bug_reports; there are no current rows to send
+        if (clients.isEmpty() || event.kind() == IssueChangeEvent.Kind.ARCHIVED) {
+            return;
+        }
+
+        List<Map<String, Object>> issues = (event.kind() == IssueChangeEvent.Kind.CREATED)
+                ? List.of(IssueFields.toRow(event.report(), IssueFields.DEFAULT))
+                : bugReportService.findIssueRows(event.ids());
+
+        String name = event.kind().name().toLowerCase(Locale.ROOT);
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("kind", name);
+        payload.put("issues", issues);
+        try {
+            broadcast(new Message(name, objectMapper.writeValueAsString(payload)));
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to serialize {} event", name, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeat.shutdownNow();
+        for (Client client : clients) {
+            client.disconnect();
+        }
+        senders.shutdown();
+    }
+
+    /** Clients being served. */
+    int clientCount() {
+        return clients.size();
+    }
+
+    private void broadcast(Message message) {
+        for (Client client : clients) {
+            client.offer(message);
+        }
+    }
+
+    /**
+     * One SSE event; the name is null for heartbeat comments.
+     */
+    private record Message(String name, String json) {
+
+        static final Message HEARTBEAT = new Message(null, null);
+
+        SseEmitter.SseEventBuilder toEvent() {
+            if (name == null) {
+                return SseEmitter.event().comment("ping");
+            }
+            return SseEmitter.event().name(name).data(json, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    private final class Client {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<Message> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // Set once; the sender completes the emitter and stops
+        private volatile boolean dropped;
+
+        Client(SseEmitter emitter, BlockingQueue<Message> queue) {
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+
+        /**
+         * Queues a message. Never blocks and never touches the emitter, so it is safe
+         * on broadcasting threads.
+         */
+        void offer(Message message) {
+            if (dropped) {
+                return;
+            }
+            if (!queue.offer(message)) {
+                droppedClients.increment();
+                log.debug("Dropping slow event stream client");
+                disconnect();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        /** Stops sending to this client; its sender completes the emitter. */
+        void disconnect() {
+            drop();
+            scheduleDrain();
+        }
+
+        /** Stops sending to this client without completing the emitter. */
+        void drop() {
+            dropped = true;
+            clients.remove(this);
+            queue.clear();
+        }
+
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) {
+                // The running sender sees the message, or the drop, before it stops
+                return;
+            }
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // No sender thread to spare. Holding draining means no send of ours is in
+                // progress, so complete() can't wait on the emitter's monitor here.
+                droppedClients.increment();
+                log.debug("No sender thread for event stream client; dropping it");
+                drop();
+                complete();
+            }
+        }
+
+        private void drain() {
+            try {
+                Message message;
+                while (!dropped && (message = queue.poll()) != null) {
+                    emitter.send(message.toEvent());
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away (or the emitter was already completed)
+                drop();
+            }
+            if (dropped) {
+                complete();
+                return;
+            }
+            draining.set(false);
+            // Something may have been queued, or the client dropped, after the last poll
+            if (!queue.isEmpty() || dropped) {
+                scheduleDrain();
+            }
+        }
+
+        private void complete() {
+            try {
+                emitter.complete();
+            } catch (RuntimeException e) {
+                log.debug("Failed to complete event stream", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.iworks.bugtracker.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Encodes exported issues in one {@link ExportFormat}, fed row by row from
+ * {@link BugReportService#exportIssues}.
+ *
+ * Every format has the same columns, in the same order: see {@link CsvExportWriter#HEADER}.
+ * Close it when done, finished or not.
+ */
+public interface IssueExportWriter extends BugReportService.ExportRowWriter, Closeable {
+
+    /**
+     * Writes whatever follows the last row (end-of-stream markers, compression
+     * trailers) and flushes. The underlying stream is left open.
+     */
+    void finish() throws IOException;
+
+    /**
+     * Releases what the writer holds besides the stream (Arrow's off-heap buffers).
+     * The underlying stream is left open.
+     */
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,122 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.model.BugReport;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Writes an export in a given {@link ExportFormat}, for both the direct download and
+ * background jobs, and records per format: bugtracker.export (duration),
+ * bugtracker.export.rows, bugtracker.export.bytes and bugtracker.export.throughput
+ * (rows per second).
+ */
+@Service
+public class IssueExporter {
+
+    private final BugReportService bugReportService;
+    private final MeterRegistry meterRegistry;
+    private final Map<ExportFormat, Meters> meters = new ConcurrentHashMap<>();
+
+    public IssueExporter(BugReportService bugReportService, MeterRegistry meterRegistry) {
+        this.bugReportService = bugReportService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Streams every issue matching the filters into the stream, which is flushed but
+     * left open.
+     *
+     * @param progress called with the number of rows written so far, every few hundred rows.
+     * @return the number of rows written.
+     */
+    public long export(IssueFilter filter, ExportFormat format, OutputStream out, LongConsumer progress)
+            throws IOException {
+        long started = System.nanoTime();
+        CountingOutputStream counted = new CountingOutputStream(out);
+        long rows;
+        try (IssueExportWriter writer = format.open(counted)) {
+            rows = bugReportService.exportIssues(filter, new BugReportService.ExportRowWriter() {
+                private long written;
+
+                @Override
+                public void write(BugReport report) throws IOException {
+                    writer.write(report);
+                    written++;
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    writer.flush();
+                    progress.accept(written);
+                }
+            });
+            writer.finish();
+        }
+
+        long elapsed = System.nanoTime() - started;
+        Meters m = meters.computeIfAbsent(format, this::meters);
+        m.duration.record(elapsed, TimeUnit.NANOSECONDS);
+        m.rows.record(rows);
+        m.bytes.record(counted.count);
+        if (elapsed > 0) {
+            m.throughput.record(rows * 1e9 / elapsed);
+        }
+        return rows;
+    }
+
+    private Meters meters(ExportFormat format) {
+        String tag = format.extension();
+        return new Meters(
+                Timer.builder("bugtracker.export")
+                        .description("Time to write a whole export")
+                        .tag("format", tag)
+                        .register(meterRegistry),
+                DistributionSummary.builder("bugtracker.export.rows")
+                        .tag("format", tag)
+                        .register(meterRegistry),
+                DistributionSummary.builder("bugtracker.export.bytes")
+                        .baseUnit("bytes")
+                        .tag("format", tag)
+                        .register(meterRegistry),
+                DistributionSummary.builder("bugtracker.export.throughput")
+                        .baseUnit("rows.per.second")
+                        .tag("format", tag)
+                        .register(meterRegistry)
+        );
+    }
+
+    private record Meters(Timer duration, DistributionSummary rows, DistributionSummary bytes,
+                          DistributionSummary throughput) {
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
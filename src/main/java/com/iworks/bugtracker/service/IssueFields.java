@@ -0,0 +1,183 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.model.BugReport;
+import com.iworks.bugtracker.model.BugReportWithArchive;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The columns the admin issue list can return, and how each one is selected.
+ *
+ * The list endpoint selects only these columns (never whole entities); by default
+ * {@link #DEFAULT} (what admin-reports.html renders), or the subset requested via
+ * {@code fields=}. Rows come back as ordered field -> value maps.
+ *
+ * "snippet" and "rank" only have values for full-text searches (q=); they are null otherwise.
+ * "archived" is true for issues moved to bug_reports_archive (viewDeleted lists only);
+ * those are read-only.
+ */
+public final class IssueFields {
+
+    /** Columns rendered by the admin grid. */
+    public static final List<String> DEFAULT = List.of(
+            "id", "type", "createdAt", "name", "email", "role", "browser", "description",
+            "resolved", "resolvedBy", "resolutionDescription", "resolvedAt",
+            "deleted", "hasScreenshot", "archived"
+    );
+
+    /** Default columns for a full-text search: the grid's plus the highlighted excerpt. */
+    public static final List<String> DEFAULT_SEARCH;
+
+    /** Everything a client may ask for. */
+    private static final Set<String> ALLOWED;
+
+    static {
+        List<String> search = new ArrayList<>(DEFAULT);
+        search.add("snippet");
+        DEFAULT_SEARCH = List.copyOf(search);
+
+        List<String> allowed = new ArrayList<>(DEFAULT_SEARCH);
+        allowed.add("rank");
+        allowed.add("eventTime");
+        allowed.add("deletedAt");
+        allowed.add("archivedAt");
+        ALLOWED = Set.copyOf(allowed);
+    }
+
+    private IssueFields() {
+    }
+
+    /**
+     * Parses a comma-separated {@code fields=} value. "id" is always included.
+     *
+     * @param search whether the request is a full-text search.
+     * @return {@link #DEFAULT} (or {@link #DEFAULT_SEARCH} for a search)
+     *         when the parameter is absent or blank.
+     * @throws IllegalArgumentException for unknown field names.
+     */
+    public static List<String> parse(String fieldsParam, boolean search) {
+        if (fieldsParam == null || fieldsParam.isBlank()) {
+            return search ? DEFAULT_SEARCH : DEFAULT;
+        }
+        List<String> fields = new ArrayList<>();
+        fields.add("id");
+        for (String raw : fieldsParam.split(",")) {
+            String field = raw.trim();
+            if (field.isEmpty() || fields.contains(field)) {
+                continue;
+            }
+            if (!ALLOWED.contains(field)) {
+                throw new IllegalArgumentException("Unknown field: " + field);
+            }
+            fields.add(field);
+        }
+        return List.copyOf(fields);
+    }
+
+    /**
+     * Returns fields plus any of the required ones that are missing.
+     */
+    static List<String> including(List<String> fields, String... required) {
+        List<String> result = new ArrayList<>(fields);
+        for (String field : required) {
+            if (!result.contains(field)) {
+                result.add(field);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param query the full-text search text, or null (see {@link IssueFilter#query()}).
+     */
+    static List<Selection<?>> selections(List<String> fields, Root<?> root, CriteriaBuilder cb, String query) {
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            selections.add(select(field, root, cb, query).alias(field));
+        }
+        return selections;
+    }
+
+    static Map<String, Object> toRow(Tuple tuple, List<String> fields) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String field : fields) {
+            row.put(field, tuple.get(field));
+        }
+        return row;
+    }
+
+    /**
+     * The same row built from an entity already in memory (e.g. one just saved).
+     * Search-only fields are null.
+     */
+    static Map<String, Object> toRow(BugReport report, List<String> fields) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String field : fields) {
+            row.put(field, value(report, field));
+        }
+        return row;
+    }
+
+    private static Object value(BugReport report, String field) {
+        return switch (field) {
+            case "id" -> report.getId();
+            case "type" -> report.getType();
+            case "createdAt" -> report.getCreatedAt();
+            case "eventTime" -> report.getEventTime();
+            case "name" -> report.getName();
+            case "email" -> report.getEmail();
+            case "role" -> report.getRole();
+            case "browser" -> report.getBrowser();
+            case "description" -> report.getDescription();
+            case "resolved" -> report.isResolved();
+            case "resolvedBy" -> report.getResolvedBy();
+            case "resolutionDescription" -> report.getResolutionDescription();
+            case "resolvedAt" -> report.getResolvedAt();
+            case "deleted" -> report.isDeleted();
+            case "deletedAt" -> report.getDeletedAt();
+            case "hasScreenshot" -> report.getScreenshotPath() != null;
+            // A BugReport is a live issue
+            case "archived" -> false;
+            default -> null;
+        };
+    }
+
+    private static Selection<?> select(String field, Root<?> root, CriteriaBuilder cb, String query) {
+        switch (field) {
+            case "snippet":
+                return query != null
+                        ? IssueSearch.headline(root, cb, query)
+                        : cb.nullLiteral(String.class);
+            case "rank":
+                return query != null
+                        ? IssueSearch.rank(root, cb, query)
+                        : cb.nullLiteral(Double.class);
+            case "archived":
+                return isArchiveSource(root)
+                        ? cb.<Boolean>selectCase().when(cb.isNotNull(root.get("archivedAt")), true).otherwise(false)
+                        : cb.literal(false);
+            case "archivedAt":
+                return isArchiveSource(root) ? root.get("archivedAt") : cb.nullLiteral(LocalDateTime.class);
+            case "hasScreenshot":
+                // Only whether there is one; the path itself stays server-side
+                return cb.<Boolean>selectCase()
+                        .when(cb.isNotNull(root.get("screenshotPath")), true)
+                        .otherwise(false);
+            default:
+                return root.get(field);
+        }
+    }
+
+    private static boolean isArchiveSource(Root<?> root) {
+        return root.getJavaType() == BugReportWithArchive.class;
+    }
+}
@@ -0,0 +1,97 @@
+package com.iworks.bugtracker.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * The admin list filters in normalized form.
+ *
+ * Two requests that mean the same thing ("All" vs no type, a date vs its
+ * start/end-of-day bounds) produce equal filters, so this is also what the
+ * issue list cache is keyed on.
+ *
+ * @param type        exact issue type, or null for all types.
+ * @param resolved    null for all, true for resolved only, false for unresolved only.
+ * @param from        createdAt lower bound, inclusive (nullable).
+ * @param to          createdAt upper bound, inclusive (nullable).
+ * @param viewDeleted false = hide deleted; true = include deleted issues.
+ * @param query       full-text search over description, resolution, name and browser
+ *                    (web-search syntax), or null for no search.
+ */
+public record IssueFilter(
+        String type,
+        Boolean resolved,
+        LocalDateTime from,
+        LocalDateTime to,
+        boolean viewDeleted,
+        String query
+) {
+
+    /** Longest accepted search text. */
+    static final int MAX_QUERY_LENGTH = 200;
+
+    /**
+     * @param typeFilter "Bug", "Feature Request", "Comment", or "All"/null for all types.
+     * @param fromDate   filter createdAt >= start of fromDate (nullable).
+     * @param toDate     filter createdAt <= end of toDate (nullable).
+     * @param q          search text; null/blank for no search.
+     * @throws IllegalArgumentException if q is longer than {@value #MAX_QUERY_LENGTH} characters.
+     */
+    public static IssueFilter of(
+            String typeFilter,
+            Boolean resolvedFilter,
+            LocalDate fromDate,
+            LocalDate toDate,
+            boolean viewDeleted,
+            String q
+    ) {
+        LocalDateTime fromDateTime = (fromDate != null) ? fromDate.atStartOfDay() : null;
+        // Inclusive end-of-day
+        LocalDateTime toDateTime = (toDate != null)
+                ? toDate.plusDays(1).atStartOfDay().minusNanos(1)
+                : null;
+
+        return new IssueFilter(
+                normalizeType(typeFilter),
+                resolvedFilter,
+                fromDateTime,
+                toDateTime,
+                viewDeleted,
+                normalizeQuery(q)
+        );
+    }
+
+    public boolean isSearch() {
+        return query != null;
+    }
+
+    /**
+     * Normalizes the issue type filter:
+     *  - null or "All" (case-insensitive) → null (no filter)
+     *  - otherwise returns the trimmed string.
+     */
+    static String normalizeType(String typeFilter) {
+        if (typeFilter == null) {
+            return null;
+        }
+        String trimmed = typeFilter.trim();
+        if (trimmed.isEmpty()) {
+            return null;
+        }
+        if ("all".equalsIgnoreCase(trimmed)) {
+            return null;
+        }
+        return trimmed;
+    }
+
+    private static String normalizeQuery(String q) {
+        if (q == null || q.isBlank()) {
+            return null;
+        }
+        String trimmed = q.trim();
+        if (trimmed.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search text is limited to " + MAX_QUERY_LENGTH + " characters");
+        }
+        return trimmed;
+    }
+}
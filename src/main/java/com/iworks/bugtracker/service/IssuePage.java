@@ -0,0 +1,56 @@
+package com.iworks.bugtracker.service;
+
+import java.util.List;
+
+/**
+ * One offset page of admin issues.
+ *
+ * Our own envelope rather than Spring Data's PageImpl, whose JSON shape isn't stable.
+ * Field names match what admin-reports.html has always read.
+ */
+public class IssuePage<T> {
+
+    private final List<T> content;
+    private final int number;
+    private final int size;
+    private final long totalElements;
+
+    public IssuePage(List<T> content, int number, int size, long totalElements) {
+        this.content = content;
+        this.number = number;
+        this.size = size;
+        this.totalElements = totalElements;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getNumberOfElements() {
+        return content.size();
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    public int getTotalPages() {
+        return size == 0 ? 1 : (int) Math.ceil((double) totalElements / size);
+    }
+
+    public boolean isFirst() {
+        return number == 0;
+    }
+
+    public boolean isLast() {
+        return number + 1 >= getTotalPages();
+    }
+}
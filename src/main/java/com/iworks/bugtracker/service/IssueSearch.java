@@ -0,0 +1,40 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.config.IssueSearchFunctions;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+
+/**
+ * Criteria expressions for the full-text search functions in {@link IssueSearchFunctions}.
+ */
+final class IssueSearch {
+
+    private IssueSearch() {
+    }
+
+    static Predicate matches(Root<?> root, CriteriaBuilder cb, String query) {
+        return cb.isTrue(cb.function(IssueSearchFunctions.MATCHES, Boolean.class, arguments(root, cb, query)));
+    }
+
+    static Expression<Double> rank(Root<?> root, CriteriaBuilder cb, String query) {
+        return cb.function(IssueSearchFunctions.RANK, Double.class, arguments(root, cb, query));
+    }
+
+    static Expression<String> headline(Root<?> root, CriteriaBuilder cb, String query) {
+        return cb.function(IssueSearchFunctions.HEADLINE, String.class, arguments(root, cb, query));
+    }
+
+    private static Expression<?>[] arguments(Root<?> root, CriteriaBuilder cb, String query) {
+        return new Expression<?>[] {
+                root.get("description"),
+                root.get("resolutionDescription"),
+                root.get("name"),
+                root.get("browser"),
+                // value() binds a JDBC parameter; literal() would inline the user's text
+                ((HibernateCriteriaBuilder) cb).value(query)
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package com.iworks.bugtracker.service;
+
+import java.util.List;
+
+/**
+ * One keyset page of admin issues.
+ *
+ * Unlike {@link org.springframework.data.domain.Page} there is no total count;
+ * {@code nextCursor} is null once the last slice has been returned.
+ */
+public class IssueSlice<T> {
+
+    private final List<T> content;
+    private final int size;
+    private final boolean hasNext;
+    private final String nextCursor;
+
+    public IssueSlice(List<T> content, int size, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getNumberOfElements() {
+        return content.size();
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
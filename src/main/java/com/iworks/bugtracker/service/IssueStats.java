@@ -0,0 +1,35 @@
+package com.iworks.bugtracker.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Response of /api/admin/stats for issues created between from and to (inclusive).
+ */
+public record IssueStats(
+        LocalDate from,
+        LocalDate to,
+        Bucket totals,
+        List<Bucket> byType,
+        List<Bucket> byBrowser,
+        List<Bucket> byDay
+) {
+
+    /**
+     * Counts for one group of issues, in their current state.
+     *
+     * @param key                      type, browser, ISO day, or "all".
+     * @param open                     created - resolved.
+     * @param deleted                  logically deleted (these are also counted as resolved).
+     * @param meanTimeToResolveSeconds mean createdAt -> resolvedAt, or null if none are resolved.
+     */
+    public record Bucket(
+            String key,
+            long created,
+            long open,
+            long resolved,
+            long deleted,
+            Double meanTimeToResolveSeconds
+    ) {
+    }
+}
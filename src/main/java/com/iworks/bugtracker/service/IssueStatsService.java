@@ -0,0 +1,145 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.model.BugReport;
+import com.iworks.bugtracker.repository.IssueDailyRollupRepository;
+import com.iworks.bugtracker.repository.RollupTotals;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Issue statistics from the issue_daily_rollups counters.
+ *
+ * BugReportService calls the record* methods inside its own transactions, after
+ * locking the affected reports, so the counters always match bug_reports without any
+ * GROUP BY over the reports table at read time. {@link #rebuild()} recomputes them from scratch if they ever drift
+ * (e.g. after manual SQL fixes).
+ */
+@Service
+public class IssueStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(IssueStatsService.class);
+
+    /** Range used when the caller gives no dates. */
+    static final int DEFAULT_DAYS = 30;
+
+    private final IssueDailyRollupRepository rollupRepository;
+
+    public IssueStatsService(IssueDailyRollupRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
+    }
+
+    /**
+     * Stats for issues created between fromDate and toDate (inclusive).
+     * Defaults: toDate = today, fromDate = 30 days before toDate.
+     *
+     * @throws IllegalArgumentException if fromDate is after toDate.
+     */
+    @Transactional(readOnly = true)
+    public IssueStats getStats(LocalDate fromDate, LocalDate toDate) {
+        LocalDate to = (toDate != null) ? toDate : LocalDate.now();
+        LocalDate from = (fromDate != null) ? fromDate : to.minusDays(DEFAULT_DAYS - 1);
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("fromDate must not be after toDate");
+        }
+
+        return new IssueStats(
+                from,
+                to,
+                bucket(rollupRepository.sumBetween(from, to)),
+                buckets(rollupRepository.sumByType(from, to)),
+                buckets(rollupRepository.sumByBrowser(from, to)),
+                buckets(rollupRepository.sumByDay(from, to))
+        );
+    }
+
+    /**
+     * Recomputes every rollup row from bug_reports (archived issues included) in one
+     * transaction.
+     * Concurrent submissions/updates wait for it rather than being lost.
+     *
+     * @return the number of rollup rows written.
+     */
+    @Transactional
+    public int rebuild() {
+        long started = System.nanoTime();
+        rollupRepository.lockForRebuild();
+        rollupRepository.deleteAllRollups();
+        int rows = rollupRepository.insertRollupsFromReports();
+        log.info("Rebuilt issue_daily_rollups: {} row(s) in {} ms",
+                rows, (System.nanoTime() - started) / 1_000_000);
+        return rows;
+    }
+
+    // --- Incremental updates, called from BugReportService transactions ---
+
+    @Transactional
+    public void recordCreated(BugReport report) {
+        rollupRepository.recordCreated(report.getCreatedAt().toLocalDate(), report.getType(), report.getBrowser());
+    }
+
+    /**
+     * For a batch of reports; must run after they have been inserted (flushed).
+     */
+    @Transactional
+    public void recordCreated(Collection<Long> ids) {
+        rollupRepository.recordCreatedByIds(ids);
+    }
+
+    /**
+     * Must run before the issues are marked resolved.
+     */
+    @Transactional
+    public void recordResolved(Collection<Long> ids, LocalDateTime now) {
+        rollupRepository.recordResolved(ids, now);
+    }
+
+    /**
+     * Must run before the issues are marked unresolved.
+     */
+    @Transactional
+    public void recordUnresolved(Collection<Long> ids) {
+        rollupRepository.recordUnresolved(ids);
+    }
+
+    /**
+     * Must run before the issues are marked deleted.
+     */
+    @Transactional
+    public void recordDeleted(Collection<Long> ids) {
+        rollupRepository.recordDeleted(ids);
+    }
+
+    private static List<IssueStats.Bucket> buckets(List<RollupTotals> rows) {
+        List<IssueStats.Bucket> buckets = new ArrayList<>(rows.size());
+        for (RollupTotals row : rows) {
+            buckets.add(bucket(row));
+        }
+        return buckets;
+    }
+
+    private static IssueStats.Bucket bucket(RollupTotals row) {
+        long created = valueOf(row.getCreated());
+        long resolved = valueOf(row.getResolved());
+        long resolveSeconds = valueOf(row.getResolveSeconds());
+        return new IssueStats.Bucket(
+                row.getGroupKey(),
+                created,
+                created - resolved,
+                resolved,
+                valueOf(row.getDeleted()),
+                resolved > 0 ? (double) resolveSeconds / resolved : null
+        );
+    }
+
+    private static long valueOf(Long value) {
+        return value != null ? value : 0L;
+    }
+}
@@ -0,0 +1,287 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.model.BugReport;
+import com.iworks.bugtracker.model.MailOutboxEntry;
+import com.iworks.bugtracker.repository.BugReportRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sends the alert emails queued in {@link MailOutbox}.
+ *
+ * Every poll drains the due entries in batches of up to digest-max; each batch goes
+ * out as a single digest email to bugtracker.mail.recipients, so a burst of
+ * submissions becomes one message per poll instead of one per report.
+ *
+ * The SMTP connection is kept open between digests and closed after idle-close-ms
+ * without traffic. A failed send drops the connection and hands the batch back to
+ * the outbox, which retries it with exponential backoff.
+ *
+ * Only created when bugtracker.mail.enabled=true.
+ */
+@Service
+@ConditionalOnProperty(name = "bugtracker.mail.enabled", havingValue = "true")
+public class MailDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(MailDispatcher.class);
+
+    // Descriptions longer than this are cut in the digest body
+    private static final int MAX_DESCRIPTION_CHARS = 500;
+    private static final int MAX_SUBJECT_DESCRIPTION_CHARS = 60;
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final MailOutbox outbox;
+    private final BugReportRepository bugReportRepository;
+    private final JavaMailSenderImpl mailSender;
+    private final InternetAddress from;
+    private final InternetAddress[] recipients;
+    private final int digestMax;
+    private final long idleCloseMillis;
+
+    private final ReentrantLock transportLock = new ReentrantLock();
+    private Transport transport;
+    private long lastUsedNanos;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final Counter digestsSent;
+    private final Counter reportsSent;
+    private final Counter sendFailures;
+
+    public MailDispatcher(
+            MailOutbox outbox,
+            BugReportRepository bugReportRepository,
+            JavaMailSenderImpl mailSender,
+            @Value("${bugtracker.mail.from}") String from,
+            @Value("${bugtracker.mail.recipients}") String recipients,
+            @Value("${bugtracker.mail.digest-max:50}") int digestMax,
+            @Value("${bugtracker.mail.idle-close-ms:60000}") long idleCloseMillis,
+            MeterRegistry meterRegistry
+    ) throws AddressException {
+        this.outbox = outbox;
+        this.bugReportRepository = bugReportRepository;
+        this.mailSender = mailSender;
+        this.from = new InternetAddress(from, true);
+        this.recipients = InternetAddress.parse(recipients, true);
+        if (this.recipients.length == 0) {
+            throw new IllegalArgumentException("bugtracker.mail.recipients is empty");
+        }
+        this.digestMax = digestMax;
+        this.idleCloseMillis = idleCloseMillis;
+
+        Gauge.builder("bugtracker.mail.outbox.pending", pending, AtomicLong::get)
+                .description("Alert emails waiting to be sent, as of the last poll")
+                .register(meterRegistry);
+        Gauge.builder("bugtracker.mail.outbox.failed", failed, AtomicLong::get)
+                .description("Alert emails given up on after max-attempts, as of the last poll")
+                .register(meterRegistry);
+        this.digestsSent = Counter.builder("bugtracker.mail.digests.sent")
+                .description("Digest emails sent")
+                .register(meterRegistry);
+        this.reportsSent = Counter.builder("bugtracker.mail.reports.sent")
+                .description("Bug reports announced in sent digests")
+                .register(meterRegistry);
+        this.sendFailures = Counter.builder("bugtracker.mail.send.failures")
+                .description("Digest sends that failed and were scheduled for retry")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${bugtracker.mail.poll-ms:10000}",
+            fixedDelayString = "${bugtracker.mail.poll-ms:10000}")
+    public void poll() {
+        try {
+            List<MailOutboxEntry> batch;
+            do {
+                batch = outbox.claimDue(digestMax);
+                if (!batch.isEmpty() && !send(batch)) {
+                    // SMTP trouble; leave the rest for the next poll
+                    break;
+                }
+            } while (batch.size() == digestMax);
+
+            closeIfIdle();
+            pending.set(outbox.countPending());
+            failed.set(outbox.countFailed());
+        } catch (RuntimeException e) {
+            // Database unavailable etc.; try again next poll
+            log.warn("Mail outbox poll failed", e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        transportLock.lock();
+        try {
+            closeTransport();
+        } finally {
+            transportLock.unlock();
+        }
+    }
+
+    /**
+     * Sends one digest for the batch and settles the outbox entries.
+     *
+     * @return false if the send failed.
+     */
+    private boolean send(List<MailOutboxEntry> batch) {
+        List<Long> entryIds = batch.stream().map(MailOutboxEntry::getId).toList();
+        List<Long> reportIds = batch.stream().map(MailOutboxEntry::getBugReportId).toList();
+
+        // Reports removed since they were queued are skipped
+        Map<Long, BugReport> byId = bugReportRepository.findAllById(reportIds).stream()
+                .collect(Collectors.toMap(BugReport::getId, Function.identity()));
+        List<BugReport> reports = new ArrayList<>(byId.size());
+        for (Long id : reportIds) {
+            BugReport report = byId.get(id);
+            if (report != null) {
+                reports.add(report);
+            }
+        }
+        if (reports.isEmpty()) {
+            outbox.markSent(entryIds);
+            return true;
+        }
+
+        transportLock.lock();
+        try {
+            MimeMessage message = buildDigest(reports);
+            connectedTransport().sendMessage(message, message.getAllRecipients());
+            lastUsedNanos = System.nanoTime();
+        } catch (MessagingException | RuntimeException e) {
+            closeTransport();
+            sendFailures.increment();
+            log.warn("Sending alert digest for {} report(s) failed; will retry: {}", reports.size(), e.toString());
+            outbox.markFailed(entryIds, e.toString());
+            return false;
+        } finally {
+            transportLock.unlock();
+        }
+
+        outbox.markSent(entryIds);
+        digestsSent.increment();
+        reportsSent.increment(reports.size());
+        log.debug("Sent alert digest for {} report(s)", reports.size());
+        return true;
+    }
+
+    private MimeMessage buildDigest(List<BugReport> reports) throws MessagingException {
+        MimeMessage message = new MimeMessage(mailSender.getSession());
+        message.setFrom(from);
+        message.setRecipients(Message.RecipientType.TO, recipients);
+        message.setSubject(subject(reports), "UTF-8");
+        message.setText(body(reports), "UTF-8");
+        message.setSentDate(new Date());
+        // Transport.sendMessage (unlike Transport.send) doesn't do this for us
+        message.saveChanges();
+        return message;
+    }
+
+    private static String subject(List<BugReport> reports) {
+        if (reports.size() == 1) {
+            BugReport report = reports.get(0);
+            return "[Bugtracker] New " + report.getType() + ": "
+                    + truncate(oneLine(report.getDescription()), MAX_SUBJECT_DESCRIPTION_CHARS);
+        }
+        return "[Bugtracker] " + reports.size() + " new reports";
+    }
+
+    private static String body(List<BugReport> reports) {
+        StringBuilder body = new StringBuilder();
+        body.append(reports.size() == 1 ? "A new report was submitted:" : reports.size() + " new reports were submitted:")
+                .append("\n\n");
+        for (BugReport report : reports) {
+            body.append('#').append(report.getId())
+                    .append("  ").append(report.getType())
+                    .append("  (").append(report.getBrowser()).append(")\n");
+            body.append("From: ").append(report.getName())
+                    .append(" <").append(report.getEmail()).append(">, ").append(report.getRole()).append('\n');
+            if (report.getCreatedAt() != null) {
+                body.append("Submitted: ").append(report.getCreatedAt().format(TIME_FORMAT)).append('\n');
+            }
+            if (report.getScreenshotPath() != null) {
+                body.append("Screenshot attached to the report\n");
+            }
+            body.append('\n').append(truncate(report.getDescription(), MAX_DESCRIPTION_CHARS)).append("\n\n");
+        }
+        return body.toString();
+    }
+
+    // --- SMTP connection; caller holds transportLock ---
+
+    private Transport connectedTransport() throws MessagingException {
+        // isConnected() sends a NOOP, so a connection the server dropped is noticed here
+        if (transport != null && transport.isConnected()) {
+            return transport;
+        }
+        closeTransport();
+        Transport fresh = mailSender.getSession().getTransport(mailSender.getProtocol());
+        String username = mailSender.getUsername();
+        String password = mailSender.getPassword();
+        if (username == null || username.isEmpty()) {
+            username = null;
+            password = null;
+        }
+        fresh.connect(mailSender.getHost(), mailSender.getPort(), username, password);
+        transport = fresh;
+        return transport;
+    }
+
+    private void closeIfIdle() {
+        transportLock.lock();
+        try {
+            if (transport != null && System.nanoTime() - lastUsedNanos >= idleCloseMillis * 1_000_000L) {
+                closeTransport();
+            }
+        } finally {
+            transportLock.unlock();
+        }
+    }
+
+    private void closeTransport() {
+        if (transport == null) {
+            return;
+        }
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Closing SMTP connection failed", e);
+        }
+        transport = null;
+    }
+
+    private static String oneLine(String value) {
+        return (value == null) ? "" : value.replaceAll("\\s+", " ").trim();
+    }
+
+    private static String truncate(String value, int maxChars) {
+        if (value == null) {
+            return "";
+        }
+        return (value.length() <= maxChars) ? value : value.substring(0, maxChars - 1) + "…";
+    }
+}
@@ -0,0 +1,109 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.model.BugReport;
+import com.iworks.bugtracker.model.MailOutboxEntry;
+import com.iworks.bugtracker.repository.MailOutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The mail_outbox queue behind alert emails.
+ *
+ * {@link #enqueue} runs inside the submission transaction, so submitting a report
+ * only costs one extra INSERT; SMTP happens later in {@link MailDispatcher}.
+ * Nothing is queued while bugtracker.mail.enabled is false.
+ */
+@Service
+public class MailOutbox {
+
+    /**
+     * How long a claimed row stays hidden from other pollers. Longer than any SMTP
+     * timeout, so it only matters if the sender dies mid-batch.
+     */
+    static final Duration CLAIM_LEASE = Duration.ofMinutes(5);
+
+    // Longer errors are cut down before they're stored in last_error
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final MailOutboxRepository outboxRepository;
+    private final boolean enabled;
+    private final int maxAttempts;
+    private final long retryBaseSeconds;
+    private final long retryMaxSeconds;
+
+    public MailOutbox(
+            MailOutboxRepository outboxRepository,
+            @Value("${bugtracker.mail.enabled:false}") boolean enabled,
+            @Value("${bugtracker.mail.max-attempts:8}") int maxAttempts,
+            @Value("${bugtracker.mail.retry-base-seconds:30}") long retryBaseSeconds,
+            @Value("${bugtracker.mail.retry-max-seconds:3600}") long retryMaxSeconds
+    ) {
+        this.outboxRepository = outboxRepository;
+        this.enabled = enabled;
+        this.maxAttempts = maxAttempts;
+        this.retryBaseSeconds = retryBaseSeconds;
+        this.retryMaxSeconds = retryMaxSeconds;
+    }
+
+    /**
+     * Queues an alert for a just-saved report. Must be called in the transaction
+     * that inserts the report.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(BugReport report) {
+        if (enabled) {
+            outboxRepository.enqueue(report.getId(), LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Claims up to limit due entries, oldest first, and commits the claim right away
+     * so no transaction stays open while mail is being sent.
+     */
+    @Transactional
+    public List<MailOutboxEntry> claimDue(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        return outboxRepository.claimDue(now, now.plus(CLAIM_LEASE), limit);
+    }
+
+    @Transactional
+    public void markSent(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            outboxRepository.deleteSent(ids);
+        }
+    }
+
+    /**
+     * Retries the entries later with exponential backoff, or gives up on the ones
+     * that have had max-attempts.
+     */
+    @Transactional
+    public void markFailed(Collection<Long> ids, String error) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        String message = (error == null) ? "unknown error" : error;
+        if (message.length() > MAX_ERROR_LENGTH) {
+            message = message.substring(0, MAX_ERROR_LENGTH);
+        }
+        outboxRepository.recordFailure(ids, message, LocalDateTime.now(),
+                retryBaseSeconds, retryMaxSeconds, maxAttempts);
+    }
+
+    /** Entries still waiting to be sent (including ones waiting for a retry). */
+    public long countPending() {
+        return outboxRepository.countPending();
+    }
+
+    /** Entries that were given up on after max-attempts. */
+    public long countFailed() {
+        return outboxRepository.countFailed();
+    }
+}
@@ -0,0 +1,81 @@
+package com.iworks.bugtracker.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.iworks.bugtracker.model.BugReport;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The export as newline-delimited JSON: one object per issue and per line, with the
+ * CSV column names as keys. Date-times are ISO-8601 strings; missing values are null.
+ *
+ * Written through a Jackson streaming generator, so no per-row maps or trees are built.
+ */
+final class NdjsonExportWriter implements IssueExportWriter {
+
+    private static final JsonFactory JSON = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    private final JsonGenerator json;
+
+    NdjsonExportWriter(OutputStream out) throws IOException {
+        this.json = JSON.createGenerator(out, JsonEncoding.UTF8);
+        // Lines are ended explicitly, including the last one
+        json.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void write(BugReport b) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", b.getId());
+        text("type", b.getType());
+        text("name", b.getName());
+        text("email", b.getEmail());
+        text("role", b.getRole());
+        text("browser", b.getBrowser());
+        text("description", b.getDescription());
+        dateTime("event_time", b.getEventTime());
+        dateTime("created_at", b.getCreatedAt());
+        json.writeBooleanField("resolved", b.isResolved());
+        text("resolved_by", b.getResolvedBy());
+        text("resolution_description", b.getResolutionDescription());
+        dateTime("resolved_at", b.getResolvedAt());
+        json.writeBooleanField("deleted", b.isDeleted());
+        dateTime("deleted_at", b.getDeletedAt());
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        json.flush();
+    }
+
+    @Override
+    public void finish() throws IOException {
+        json.flush();
+    }
+
+    private void text(String name, String value) throws IOException {
+        if (value == null) {
+            json.writeNullField(name);
+        } else {
+            json.writeStringField(name, value);
+        }
+    }
+
+    private void dateTime(String name, LocalDateTime value) throws IOException {
+        if (value == null) {
+            json.writeNullField(name);
+        } else {
+            json.writeStringField(name, DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+        }
+    }
+}
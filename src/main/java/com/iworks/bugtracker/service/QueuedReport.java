@@ -0,0 +1,56 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.model.BugReport;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A validated submission as stored in the {@link SubmissionJournal}, waiting to be
+ * inserted: everything the request supplied, plus the tracking id and the time it
+ * was received.
+ */
+public record QueuedReport(
+        UUID trackingId,
+        String name,
+        String email,
+        String role,
+        String browser,
+        LocalDateTime eventTime,
+        String type,
+        String description,
+        String screenshotPath,
+        LocalDateTime createdAt
+) {
+
+    public static QueuedReport of(BugReport report) {
+        return new QueuedReport(
+                report.getTrackingId(),
+                report.getName(),
+                report.getEmail(),
+                report.getRole(),
+                report.getBrowser(),
+                report.getEventTime(),
+                report.getType(),
+                report.getDescription(),
+                report.getScreenshotPath(),
+                report.getCreatedAt()
+        );
+    }
+
+    /** A new (unsaved) entity with these fields. */
+    public BugReport toBugReport() {
+        BugReport report = new BugReport();
+        report.setTrackingId(trackingId);
+        report.setName(name);
+        report.setEmail(email);
+        report.setRole(role);
+        report.setBrowser(browser);
+        report.setEventTime(eventTime);
+        report.setType(type);
+        report.setDescription(description);
+        report.setScreenshotPath(screenshotPath);
+        report.setCreatedAt(createdAt);
+        return report;
+    }
+}
@@ -0,0 +1,259 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.model.BugReport;
+import com.iworks.bugtracker.model.ScreenshotBlob;
+import com.iworks.bugtracker.repository.ScreenshotBlobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed storage for uploaded screenshots.
+ *
+ * Each upload is streamed through a SHA-256 digest into a temp file under upload-dir,
+ * then atomically moved to upload-dir/ab/cd/&lt;hash&gt;. Re-submitting an identical
+ * screenshot doesn't write the bytes again. The returned key ("ab/cd/&lt;hash&gt;") is
+ * what BugReport.screenshotPath stores, relative to upload-dir.
+ *
+ * screenshot_blobs.ref_count only counts saved reports: {@link #addReferences} runs in
+ * the transaction that inserts them. Files no report ended up using (insert failed,
+ * journal full) are deleted by {@link #removeUnreferenced} after a grace period (see
+ * {@link ScreenshotSweeper}).
+ */
+@Service
+public class ScreenshotStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ScreenshotStore.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Pattern CONTENT_HASH = Pattern.compile("[0-9a-f]{64}");
+
+    /**
+     * Raster formats browsers display without running anything. Not image/svg+xml,
+     * which can carry script, and not whatever else an uploader claims.
+     */
+    static final Set<String> INLINE_TYPES = Set.of("image/png", "image/jpeg", "image/gif", "image/webp");
+    private static final String OCTET_STREAM = "application/octet-stream";
+
+    private final ScreenshotBlobRepository screenshotBlobRepository;
+    private final Path uploadDir;
+    private final Path tmpDir;
+    private final long maxBytes;
+
+    public ScreenshotStore(
+            ScreenshotBlobRepository screenshotBlobRepository,
+            @Value("${bugtracker.upload-dir}") String uploadDirProperty,
+            @Value("${bugtracker.screenshot.max-bytes:10485760}") long maxBytes
+    ) {
+        this.screenshotBlobRepository = screenshotBlobRepository;
+        this.maxBytes = maxBytes;
+
+        // Normalize paths (works for both relative and absolute paths)
+        this.uploadDir = Paths.get(uploadDirProperty).toAbsolutePath().normalize();
+        // Same filesystem as the final location, so the move can be atomic
+        this.tmpDir = this.uploadDir.resolve(".tmp");
+
+        try {
+            Files.createDirectories(this.tmpDir);
+        } catch (IOException e) {
+            // Fail fast if we can't prepare storage directories
+            throw new IllegalStateException("Failed to create upload directory", e);
+        }
+    }
+
+    /**
+     * Stores the upload and returns its key relative to upload-dir.
+     *
+     * @throws ScreenshotTooLargeException if the upload exceeds the configured limit;
+     *                                     nothing is kept on disk in that case.
+     */
+    public String store(MultipartFile file) throws IOException {
+        // Cheap early reject when the client declared the size
+        if (file.getSize() > maxBytes) {
+            throw new ScreenshotTooLargeException(maxBytes);
+        }
+
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(tmpDir, "upload-", ".part");
+        long size = 0;
+
+        try {
+            try (InputStream in = file.getInputStream();
+                 OutputStream out = Files.newOutputStream(temp)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    size += n;
+                    if (size > maxBytes) {
+                        throw new ScreenshotTooLargeException(maxBytes);
+                    }
+                    digest.update(buffer, 0, n);
+                    out.write(buffer, 0, n);
+                }
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String key = keyFor(hash);
+            Path target = uploadDir.resolve(key);
+
+            // Row first: waits for a removeUnreferenced that holds it, and marks the
+            // file recent so it isn't swept before our report references it
+            screenshotBlobRepository.recordStored(hash, size, contentType(file));
+
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // Same content stored concurrently by another request; keep theirs
+                }
+            }
+            return key;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Locates the file for a BugReport.screenshotPath value.
+     *
+     * Handles both content-addressed keys (ab/cd/&lt;hash&gt;) and the absolute paths
+     * stored before the store existed. Returns null if the file is missing or the
+     * path points outside upload-dir.
+     */
+    public StoredScreenshot locate(String screenshotPath) throws IOException {
+        if (screenshotPath == null || screenshotPath.isBlank()) {
+            return null;
+        }
+        Path file = uploadDir.resolve(screenshotPath).normalize();
+        if (!file.startsWith(uploadDir) || !Files.isRegularFile(file)) {
+            return null;
+        }
+
+        long size = Files.size(file);
+        String name = file.getFileName().toString();
+
+        if (CONTENT_HASH.matcher(name).matches()) {
+            // Rows from before the allow-list may hold any image/* type
+            String contentType = screenshotBlobRepository.findById(name)
+                    .map(ScreenshotBlob::getContentType)
+                    .map(ScreenshotStore::servedContentType)
+                    .orElse(OCTET_STREAM);
+            return new StoredScreenshot(file, contentType, "\"" + name + "\"", size);
+        }
+
+        // Legacy <millis>_<filename> uploads are never rewritten either,
+        // so size + mtime identifies their content.
+        // Probed from the uploader's file name, so just as untrusted
+        String contentType = servedContentType(Files.probeContentType(file));
+        String etag = "\"" + size + "-" + Files.getLastModifiedTime(file).toMillis() + "\"";
+        return new StoredScreenshot(file, contentType, etag, size);
+    }
+
+    /**
+     * Counts the reports' screenshots as referenced. Must be called in the
+     * transaction that inserts the reports, so a rolled-back insert counts nothing.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addReferences(Collection<BugReport> reports) {
+        // Sorted, so concurrent batches lock shared rows in the same order
+        Map<String, Integer> counts = new TreeMap<>();
+        for (BugReport report : reports) {
+            String hash = hashOf(report.getScreenshotPath());
+            if (hash != null) {
+                counts.merge(hash, 1, Integer::sum);
+            }
+        }
+        counts.forEach((hash, count) -> {
+            if (screenshotBlobRepository.addReferences(hash, count) == 0) {
+                // Only if the report waited longer than the grace period to be saved
+                log.warn("Screenshot {} was already removed as unreferenced", hash);
+            }
+        });
+    }
+
+    /**
+     * Deletes up to limit files (and their rows) that no report references and that
+     * were last uploaded before storedBefore.
+     *
+     * @return how many were removed.
+     */
+    @Transactional
+    public int removeUnreferenced(LocalDateTime storedBefore, int limit) throws IOException {
+        List<String> hashes = screenshotBlobRepository.lockUnreferenced(storedBefore, limit);
+        for (String hash : hashes) {
+            // Before the rows go: if this transaction fails, the rows stay and the
+            // next upload of the content writes the file again
+            Files.deleteIfExists(uploadDir.resolve(keyFor(hash)));
+        }
+        screenshotBlobRepository.deleteAllByIdInBatch(hashes);
+        return hashes.size();
+    }
+
+    /**
+     * The content hash in a content-addressed key; null for legacy paths.
+     */
+    static String hashOf(String screenshotPath) {
+        if (screenshotPath == null) {
+            return null;
+        }
+        String name = screenshotPath.substring(screenshotPath.lastIndexOf('/') + 1);
+        return CONTENT_HASH.matcher(name).matches() ? name : null;
+    }
+
+    /**
+     * Shards by the first two bytes of the hash: ab/cd/abcd...
+     */
+    static String keyFor(String hash) {
+        return hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+    }
+
+    /**
+     * The type to serve a screenshot as: one of {@link #INLINE_TYPES}, or
+     * application/octet-stream (downloaded, never rendered) for anything else.
+     */
+    public static String servedContentType(String declared) {
+        if (declared == null) {
+            return OCTET_STREAM;
+        }
+        int params = declared.indexOf(';');
+        String type = (params >= 0 ? declared.substring(0, params) : declared).trim().toLowerCase(Locale.ROOT);
+        return INLINE_TYPES.contains(type) ? type : OCTET_STREAM;
+    }
+
+    private static String contentType(MultipartFile file) {
+        return servedContentType(file.getContentType());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.iworks.bugtracker.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Deletes stored screenshots no saved report references (see {@link ScreenshotStore}):
+ * uploads whose report insert failed, or that the submission journal turned away.
+ *
+ * A file is only removed once it hasn't been uploaded for grace-hours, which has to
+ * cover the longest a journaled report can wait for the drainer (including downtime).
+ */
+@Service
+public class ScreenshotSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(ScreenshotSweeper.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    private final ScreenshotStore screenshotStore;
+    private final long graceHours;
+    private final Counter removed;
+
+    public ScreenshotSweeper(
+            ScreenshotStore screenshotStore,
+            @Value("${bugtracker.screenshot.unreferenced-grace-hours:168}") long graceHours,
+            MeterRegistry meterRegistry
+    ) {
+        this.screenshotStore = screenshotStore;
+        this.graceHours = graceHours;
+        this.removed = Counter.builder("bugtracker.screenshot.unreferenced.removed")
+                .description("Stored screenshots deleted because no report uses them")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${bugtracker.screenshot.cleanup-ms:3600000}",
+            fixedDelayString = "${bugtracker.screenshot.cleanup-ms:3600000}")
+    public void sweep() {
+        LocalDateTime storedBefore = LocalDateTime.now().minusHours(graceHours);
+        long total = 0;
+        try {
+            int batch;
+            do {
+                batch = screenshotStore.removeUnreferenced(storedBefore, BATCH_SIZE);
+                removed.increment(batch);
+                total += batch;
+            } while (batch == BATCH_SIZE);
+        } catch (IOException | RuntimeException e) {
+            // Database or disk trouble; the rest waits for the next run
+            log.warn("Removing unreferenced screenshots failed after {} removed", total, e);
+        }
+        if (total > 0) {
+            log.info("Removed {} unreferenced screenshot(s)", total);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.iworks.bugtracker.service;
+
+/**
+ * Thrown when an uploaded screenshot exceeds bugtracker.screenshot.max-bytes.
+ */
+public class ScreenshotTooLargeException extends RuntimeException {
+
+    public ScreenshotTooLargeException(long maxBytes) {
+        super("Screenshot exceeds the " + maxBytes + " byte limit");
+    }
+}
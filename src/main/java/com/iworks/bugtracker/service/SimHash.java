@@ -0,0 +1,92 @@
+package com.iworks.bugtracker.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 64-bit SimHash fingerprints of issue text.
+ *
+ * Features are the description's words and word pairs (shingles), plus the issue type
+ * and browser. Reports that differ by a few words end up a few bits apart, so
+ * "near duplicate" becomes "small Hamming distance".
+ */
+final class SimHash {
+
+    // Type and browser count as much as this many words
+    private static final int CONTEXT_WEIGHT = 2;
+
+    private SimHash() {
+    }
+
+    static long fingerprint(String type, String browser, String description) {
+        int[] weights = new int[64];
+
+        List<String> words = words(description);
+        for (int i = 0; i < words.size(); i++) {
+            add(weights, "w:" + words.get(i), 1);
+            if (i + 1 < words.size()) {
+                add(weights, "s:" + words.get(i) + " " + words.get(i + 1), 1);
+            }
+        }
+        add(weights, "t:" + normalize(type), CONTEXT_WEIGHT);
+        add(weights, "b:" + normalize(browser), CONTEXT_WEIGHT);
+
+        long fingerprint = 0;
+        for (int bit = 0; bit < 64; bit++) {
+            if (weights[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+
+    static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    private static void add(int[] weights, String feature, int weight) {
+        long hash = hash64(feature);
+        for (int bit = 0; bit < 64; bit++) {
+            weights[bit] += ((hash >>> bit) & 1L) != 0 ? weight : -weight;
+        }
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        for (String token : normalize(text).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                words.add(token);
+            }
+        }
+        return words;
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        // Case- and accent-insensitive
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFKD);
+        return decomposed.replaceAll("\\p{M}+", "").toLowerCase(Locale.ROOT).trim();
+    }
+
+    /**
+     * FNV-1a over the UTF-16 chars, then the MurmurHash3 finalizer so that
+     * every input bit affects every output bit.
+     */
+    private static long hash64(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,15 @@
+package com.iworks.bugtracker.service;
+
+import java.nio.file.Path;
+
+/**
+ * A screenshot file located on disk, with the metadata needed to serve it over HTTP.
+ *
+ * @param file        absolute path inside upload-dir
+ * @param contentType type to serve it as: an allowed raster image type recorded at upload
+ *                    (or probed for legacy files), else application/octet-stream
+ * @param etag        strong entity tag, quoted; the SHA-256 hash for content-addressed files
+ * @param size        file length in bytes
+ */
+public record StoredScreenshot(Path file, String contentType, String etag, long size) {
+}
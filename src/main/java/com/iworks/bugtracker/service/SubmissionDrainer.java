@@ -0,0 +1,195 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.model.BugReport;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts the submissions queued in {@link SubmissionJournal} into bug_reports.
+ *
+ * A single background thread takes whatever has been journaled (up to batch-size
+ * entries) and hands it to {@link BugReportService#submitReports}, so a burst of
+ * submissions becomes a few batched INSERTs instead of one transaction per request.
+ * The journal offset only moves once the transaction has committed; the CSV row is
+ * appended after that, as for direct submissions.
+ *
+ * While the database is unreachable the batch is retried every retry-ms. Any other
+ * failure retries the batch one entry at a time; entries that still fail are moved
+ * to submissions.rejected next to the journal, so they don't hold up the rest.
+ */
+@Component
+public class SubmissionDrainer {
+
+    private static final Logger log = LoggerFactory.getLogger(SubmissionDrainer.class);
+
+    private final SubmissionJournal journal;
+    private final BugReportService bugReportService;
+    private final CsvSpreadsheetWriter csvSpreadsheetWriter;
+    private final int batchSize;
+    private final long retryMillis;
+
+    private final Counter insertedReports;
+    private final Counter rejectedReports;
+    private final DistributionSummary batchSizes;
+    private final Timer lag;
+
+    private Thread drainerThread;
+    private volatile boolean running = true;
+
+    public SubmissionDrainer(
+            SubmissionJournal journal,
+            BugReportService bugReportService,
+            CsvSpreadsheetWriter csvSpreadsheetWriter,
+            @Value("${bugtracker.ingest.batch-size:500}") int batchSize,
+            @Value("${bugtracker.ingest.retry-ms:5000}") long retryMillis,
+            MeterRegistry meterRegistry
+    ) {
+        this.journal = journal;
+        this.bugReportService = bugReportService;
+        this.csvSpreadsheetWriter = csvSpreadsheetWriter;
+        this.batchSize = batchSize;
+        this.retryMillis = retryMillis;
+
+        this.insertedReports = Counter.builder("bugtracker.ingest.inserted")
+                .description("Journaled submissions inserted into the database")
+                .register(meterRegistry);
+        this.rejectedReports = Counter.builder("bugtracker.ingest.rejected")
+                .description("Journaled submissions the database refused (see submissions.rejected)")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("bugtracker.ingest.batch.size")
+                .description("Submissions per insert transaction")
+                .register(meterRegistry);
+        this.lag = Timer.builder("bugtracker.ingest.lag")
+                .description("From acceptance (202) to insert")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts once the context is ready, so the event listeners that keep derived
+     * state (duplicates, live updates) see the inserts.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!journal.isOpen()) {
+            return;
+        }
+        drainerThread = new Thread(this::run, "submission-drainer");
+        drainerThread.setDaemon(true);
+        drainerThread.start();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        // No interrupt: it would close the journal's FileChannel mid-read.
+        // Whatever is still journaled is inserted after the next start.
+        running = false;
+        if (drainerThread != null) {
+            drainerThread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (!journal.awaitEntries(1, TimeUnit.SECONDS)) {
+                    journal.truncateIfDrained();
+                    continue;
+                }
+                if (!drain(journal.read(batchSize))) {
+                    Thread.sleep(retryMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to drain the submission journal; retrying in {} ms", retryMillis, e);
+                try {
+                    Thread.sleep(retryMillis);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    running = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return false if the database is unavailable and the rest should wait.
+     */
+    private boolean drain(List<SubmissionJournal.Entry> entries) throws IOException {
+        if (entries.isEmpty()) {
+            return true;
+        }
+        try {
+            insert(entries);
+            return true;
+        } catch (RuntimeException e) {
+            if (isUnavailable(e)) {
+                log.warn("Database unavailable; {} journaled submission(s) will be retried: {}",
+                        entries.size(), e.toString());
+                return false;
+            }
+            log.warn("Inserting {} journaled submission(s) failed; retrying one at a time",
+                    entries.size(), e);
+        }
+
+        for (SubmissionJournal.Entry entry : entries) {
+            try {
+                insert(List.of(entry));
+            } catch (RuntimeException e) {
+                if (isUnavailable(e)) {
+                    log.warn("Database unavailable; journaled submissions will be retried: {}", e.toString());
+                    return false;
+                }
+                log.error("Rejected journaled submission {}; kept in submissions.rejected",
+                        entry.report().trackingId(), e);
+                journal.reject(entry.report());
+                journal.commit(entry.end());
+                rejectedReports.increment();
+            }
+        }
+        return true;
+    }
+
+    private void insert(List<SubmissionJournal.Entry> entries) throws IOException {
+        List<BugReport> reports = entries.stream()
+                .map(entry -> entry.report().toBugReport())
+                .toList();
+        List<BugReport> saved = bugReportService.submitReports(reports);
+        journal.commit(entries.get(entries.size() - 1).end());
+
+        batchSizes.record(entries.size());
+        insertedReports.increment(saved.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (BugReport report : saved) {
+            lag.record(Duration.between(report.getCreatedAt(), now));
+            csvSpreadsheetWriter.append(report);
+        }
+    }
+
+    private static boolean isUnavailable(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException;
+    }
+}
@@ -0,0 +1,406 @@
+package com.iworks.bugtracker.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * The durable queue behind write-behind submissions (bugtracker.ingest.write-behind=true).
+ *
+ * Submissions are appended to {report-dir}/journal/submissions.journal as
+ * length + CRC32 framed JSON records, and {@link #append} returns once the record is
+ * on disk. Concurrent appends share fsyncs (group commit): a writer whose record was
+ * already covered by another writer's force returns without one of its own.
+ *
+ * {@link SubmissionDrainer} inserts the records into bug_reports and {@link #commit}s
+ * how far it got to submissions.offset; once everything is inserted the file is
+ * truncated (see {@link #truncateIfDrained}). A crash between an insert and the
+ * offset update replays those records, which {@link BugReportService#submitReports}
+ * skips by tracking id. A torn record at the end (crash mid-append, never
+ * acknowledged) is cut off at startup.
+ *
+ * With write-behind off nothing can be appended, but a journal left over from an
+ * earlier run is still opened so the drainer inserts what it holds.
+ */
+@Component
+public class SubmissionJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(SubmissionJournal.class);
+
+    private static final String JOURNAL_FILE = "submissions.journal";
+    private static final String OFFSET_FILE = "submissions.offset";
+    private static final String REJECTED_FILE = "submissions.rejected";
+
+    // Payload length + CRC32 of the payload
+    private static final int HEADER_BYTES = 8;
+    // Far above any valid submission; a bigger length means a corrupt header
+    private static final int MAX_RECORD_BYTES = 64 * 1024;
+    // Under sustained load the drainer is never idle; truncate whenever it catches up past this
+    private static final long TRUNCATE_BYTES = 64L * 1024 * 1024;
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final long maxBacklogBytes;
+    private final Path journalFile;
+    private final Path offsetFile;
+    private final Path rejectedFile;
+    private final Counter fsyncs;
+
+    private FileChannel channel;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition syncedMore = syncLock.newCondition();
+
+    // Appended up to here (written under appendLock)
+    private volatile long writtenEnd;
+    // On disk up to here (written under syncLock); the drainer never reads past it
+    private volatile long syncedEnd;
+    // Inserted up to here (written by the drainer thread)
+    private volatile long drainedEnd;
+
+    public SubmissionJournal(
+            ObjectMapper objectMapper,
+            @Value("${bugtracker.report-dir}") String reportsDirProperty,
+            @Value("${bugtracker.ingest.write-behind:false}") boolean enabled,
+            @Value("${bugtracker.ingest.max-backlog-bytes:268435456}") long maxBacklogBytes,
+            MeterRegistry meterRegistry
+    ) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxBacklogBytes = maxBacklogBytes;
+
+        Path journalDir = Paths.get(reportsDirProperty).toAbsolutePath().normalize().resolve("journal");
+        this.journalFile = journalDir.resolve(JOURNAL_FILE);
+        this.offsetFile = journalDir.resolve(OFFSET_FILE);
+        this.rejectedFile = journalDir.resolve(REJECTED_FILE);
+
+        try {
+            if (enabled) {
+                Files.createDirectories(journalDir);
+            }
+            if (enabled || (Files.exists(journalFile) && Files.size(journalFile) > 0)) {
+                open();
+            }
+        } catch (IOException e) {
+            // Fail fast: accepting submissions we can't make durable would lose them
+            throw new IllegalStateException("Failed to open " + journalFile, e);
+        }
+
+        Gauge.builder("bugtracker.ingest.backlog", this, SubmissionJournal::backlogBytes)
+                .description("Journaled submissions not yet inserted into the database")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.fsyncs = Counter.builder("bugtracker.ingest.fsyncs")
+                .description("Journal fsyncs; fewer than appends when writers share them")
+                .register(meterRegistry);
+    }
+
+    /** A journal record and the offset right after it. */
+    public record Entry(QueuedReport report, long end) {
+    }
+
+    /** Whether new submissions go through the journal. */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Whether there is a journal to drain (enabled, or left over from an earlier run). */
+    public boolean isOpen() {
+        return channel != null;
+    }
+
+    public long backlogBytes() {
+        return writtenEnd - drainedEnd;
+    }
+
+    /**
+     * Appends a submission and waits until it is on disk.
+     *
+     * @throws IllegalStateException if write-behind is off, or the backlog has reached
+     *                               bugtracker.ingest.max-backlog-bytes.
+     */
+    public void append(QueuedReport report) throws IOException {
+        if (!enabled) {
+            throw new IllegalStateException("Write-behind submissions are disabled");
+        }
+        if (backlogBytes() >= maxBacklogBytes) {
+            throw new IllegalStateException("Submission journal is full");
+        }
+
+        byte[] payload = objectMapper.writeValueAsBytes(report);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .flip();
+
+        long end;
+        appendLock.lock();
+        try {
+            // A failed write leaves writtenEnd alone, so the next append overwrites the torn bytes
+            long position = writtenEnd;
+            while (record.hasRemaining()) {
+                position += channel.write(record, position);
+            }
+            writtenEnd = end = position;
+        } finally {
+            appendLock.unlock();
+        }
+        sync(end);
+    }
+
+    /**
+     * Waits until there are records the drainer hasn't inserted yet.
+     *
+     * @return false if there still are none after the timeout.
+     */
+    public boolean awaitEntries(long timeout, TimeUnit unit) throws InterruptedException {
+        syncLock.lock();
+        try {
+            long nanos = unit.toNanos(timeout);
+            while (syncedEnd <= drainedEnd && nanos > 0) {
+                nanos = syncedMore.awaitNanos(nanos);
+            }
+            return syncedEnd > drainedEnd;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Up to maxEntries records, oldest first, starting after the last {@link #commit}.
+     * Drainer thread only.
+     */
+    public List<Entry> read(int maxEntries) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        long position = drainedEnd;
+        long limit = syncedEnd;
+        while (entries.size() < maxEntries && position < limit) {
+            Entry entry = readEntry(position, limit);
+            if (entry == null) {
+                throw new IOException("Corrupt record at offset " + position + " of " + journalFile);
+            }
+            entries.add(entry);
+            position = entry.end();
+        }
+        return entries;
+    }
+
+    /**
+     * Records that everything up to end has been inserted. Drainer thread only.
+     */
+    public void commit(long end) throws IOException {
+        writeOffset(end, false);
+        drainedEnd = end;
+        if (end >= TRUNCATE_BYTES) {
+            truncateIfDrained();
+        }
+    }
+
+    /**
+     * Empties the journal if everything in it has been inserted. Truncating blocks
+     * appends for a few fsyncs, so the drainer does it when idle, or from
+     * {@link #commit} once the file has grown past TRUNCATE_BYTES. Drainer thread only.
+     */
+    public void truncateIfDrained() throws IOException {
+        appendLock.lock();
+        syncLock.lock();
+        try {
+            if (writtenEnd == 0 || drainedEnd != writtenEnd || syncedEnd != writtenEnd) {
+                return;
+            }
+            // Offset first, and durably: a crash in between replays the old records (which
+            // are skipped), whereas a stale offset over a truncated file would skip new ones
+            writeOffset(0, true);
+            channel.truncate(0);
+            channel.force(true);
+            writtenEnd = 0;
+            syncedEnd = 0;
+            drainedEnd = 0;
+        } finally {
+            syncLock.unlock();
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Keeps a record the database won't take in submissions.rejected (one JSON object
+     * per line) for someone to look at. Drainer thread only.
+     */
+    public void reject(QueuedReport report) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(report);
+        ByteBuffer line = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+        try (FileChannel rejected = FileChannel.open(rejectedFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (line.hasRemaining()) {
+                rejected.write(line);
+            }
+            rejected.force(false);
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        appendLock.lock();
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(journalFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        long offset = readOffset();
+        if (offset > size) {
+            // Truncated before the offset file said so: replay it all (duplicates are skipped)
+            offset = 0;
+        }
+
+        long end = offset;
+        Entry entry;
+        while ((entry = readEntry(end, size)) != null) {
+            end = entry.end();
+        }
+        if (end < size) {
+            log.warn("Discarding {} byte(s) of incomplete record at the end of {}", size - end, journalFile);
+            channel.truncate(end);
+            channel.force(true);
+        }
+
+        writtenEnd = end;
+        syncedEnd = end;
+        drainedEnd = offset;
+        if (end > offset) {
+            log.info("{} holds {} byte(s) of submissions still to insert", journalFile, end - offset);
+        }
+    }
+
+    /**
+     * Forces the journal to disk unless another writer's force already covered end.
+     */
+    private void sync(long end) throws IOException {
+        syncLock.lock();
+        try {
+            if (syncedEnd >= end) {
+                return;
+            }
+            // Everything appended so far goes out with this force, not just our record
+            long target = writtenEnd;
+            channel.force(false);
+            fsyncs.increment();
+            syncedEnd = target;
+            syncedMore.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * The complete, intact record at position, or null if there is none before limit.
+     */
+    private Entry readEntry(long position, long limit) throws IOException {
+        if (limit - position < HEADER_BYTES) {
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(header, position);
+        int length = header.getInt(0);
+        int checksum = header.getInt(4);
+        if (length <= 0 || length > MAX_RECORD_BYTES || limit - position - HEADER_BYTES < length) {
+            return null;
+        }
+
+        byte[] payload = new byte[length];
+        readFully(ByteBuffer.wrap(payload), position + HEADER_BYTES);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+        return new Entry(objectMapper.readValue(payload, QueuedReport.class), position + HEADER_BYTES + length);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of " + journalFile);
+            }
+            position += read;
+        }
+    }
+
+    private long readOffset() throws IOException {
+        if (!Files.exists(offsetFile)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(Files.readString(offsetFile).trim());
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring unreadable {}; replaying the whole journal", offsetFile);
+            return 0;
+        }
+    }
+
+    /**
+     * Moving forward needn't be durable: losing an update only replays records that are
+     * then skipped.
+     */
+    private void writeOffset(long offset, boolean durable) throws IOException {
+        Path tmp = offsetFile.resolveSibling(OFFSET_FILE + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer text = ByteBuffer.wrap(Long.toString(offset).getBytes(StandardCharsets.US_ASCII));
+            while (text.hasRemaining()) {
+                out.write(text);
+            }
+            if (durable) {
+                out.force(true);
+            }
+        }
+        Files.move(tmp, offsetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (durable) {
+            forceDirectory(offsetFile.getParent());
+        }
+    }
+
+    /** Makes a rename in dir durable, where the platform allows it (not on Windows). */
+    private static void forceDirectory(Path dir) {
+        try (FileChannel directory = FileChannel.open(dir, StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            log.debug("Can't fsync directory {}", dir, e);
+        }
+    }
+}
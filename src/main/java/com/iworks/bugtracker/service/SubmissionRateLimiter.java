@@ -0,0 +1,136 @@
+package com.iworks.bugtracker.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client limits on POST /api/bug-report: one token bucket per email address and
+ * one per client address, each holding up to burst submissions and refilled at
+ * per-minute. A submission needs a token from both.
+ *
+ * Buckets live in Caffeine, forgotten once they'd be full again (an idle client
+ * gets a fresh full bucket, which is the same thing) or when there are more than
+ * max-keys. Limits are exported as gauges next to the rejection counters.
+ */
+@Component
+public class SubmissionRateLimiter {
+
+    private final Limit byAddress;
+    private final Limit byEmail;
+
+    public SubmissionRateLimiter(
+            @Value("${bugtracker.ratelimit.submit.address.burst:100}") int addressBurst,
+            @Value("${bugtracker.ratelimit.submit.address.per-minute:600}") int addressPerMinute,
+            @Value("${bugtracker.ratelimit.submit.email.burst:5}") int emailBurst,
+            @Value("${bugtracker.ratelimit.submit.email.per-minute:10}") int emailPerMinute,
+            @Value("${bugtracker.ratelimit.max-keys:100000}") long maxKeys,
+            MeterRegistry meterRegistry
+    ) {
+        this.byAddress = new Limit("address", addressBurst, addressPerMinute, maxKeys, meterRegistry);
+        this.byEmail = new Limit("email", emailBurst, emailPerMinute, maxKeys, meterRegistry);
+    }
+
+    /**
+     * Takes a token for this submission.
+     *
+     * @return {@link Duration#ZERO} if the submission may go ahead, otherwise how long
+     * until it would be allowed.
+     */
+    public Duration acquire(String email, String clientAddress) {
+        // Address first: a rejected flood from one address shouldn't drain the email's bucket
+        long wait = byAddress.acquire(clientAddress);
+        if (wait == 0) {
+            wait = byEmail.acquire(email.trim().toLowerCase(Locale.ROOT));
+        }
+        return Duration.ofNanos(wait);
+    }
+
+    /**
+     * One kind of key (address or email) with its buckets.
+     */
+    private static final class Limit {
+
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final Cache<String, Bucket> buckets;
+        private final Counter rejected;
+
+        Limit(String name, int burst, int perMinute, long maxKeys, MeterRegistry meterRegistry) {
+            if (burst < 1 || perMinute < 1) {
+                throw new IllegalArgumentException("Rate limit " + name + " needs burst and per-minute >= 1");
+            }
+            this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / perMinute;
+            this.burstNanos = burst * intervalNanos;
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxKeys)
+                    .expireAfterAccess(Duration.ofNanos(burstNanos))
+                    .build();
+
+            this.rejected = Counter.builder("bugtracker.ratelimit.rejected")
+                    .description("Submissions refused with 429")
+                    .tag("limit", name)
+                    .register(meterRegistry);
+            Gauge.builder("bugtracker.ratelimit.burst", () -> burst)
+                    .description("Submissions allowed at once per key")
+                    .tag("limit", name)
+                    .register(meterRegistry);
+            Gauge.builder("bugtracker.ratelimit.per.minute", () -> perMinute)
+                    .description("Sustained submissions per minute per key")
+                    .tag("limit", name)
+                    .register(meterRegistry);
+            Gauge.builder("bugtracker.ratelimit.keys", buckets, Cache::estimatedSize)
+                    .description("Clients with a partly used bucket")
+                    .tag("limit", name)
+                    .register(meterRegistry);
+        }
+
+        long acquire(String key) {
+            long wait = buckets.get(key, k -> new Bucket(System.nanoTime())).take(intervalNanos, burstNanos);
+            if (wait > 0) {
+                rejected.increment();
+            }
+            return wait;
+        }
+    }
+
+    /**
+     * A token bucket kept as the single time at which it will be full again (the
+     * generic cell rate algorithm), so taking a token is one compare-and-set.
+     */
+    private static final class Bucket {
+
+        private final AtomicLong fullAt;
+
+        Bucket(long now) {
+            this.fullAt = new AtomicLong(now);
+        }
+
+        /**
+         * @return 0 if a token was taken, otherwise nanos until one is available.
+         */
+        long take(long intervalNanos, long burstNanos) {
+            long now = System.nanoTime();
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + intervalNanos;
+                long wait = next - now - burstNanos;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
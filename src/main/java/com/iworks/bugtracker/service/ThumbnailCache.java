@@ -0,0 +1,364 @@
+package com.iworks.bugtracker.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Downscaled JPEG thumbnails of screenshots for the admin list view.
+ *
+ * Thumbnails are rendered on first request (or ahead of time, off-thread, right after
+ * an upload) and kept in a bounded on-disk cache under upload-dir/.thumbs. The cache
+ * evicts least-recently-used files once their total size passes
+ * bugtracker.thumbnail.cache-max-bytes. Concurrent requests for the same thumbnail
+ * share one render.
+ */
+@Service
+public class ThumbnailCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ThumbnailCache.class);
+
+    private static final float JPEG_QUALITY = 0.8f;
+
+    private final ScreenshotStore screenshotStore;
+    private final Path cacheDir;
+    private final Path tmpDir;
+    private final int maxDimension;
+    private final long maxCacheBytes;
+
+    // LRU index of cached files (file name -> size), in access order
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(256, 0.75f, true);
+    private final ReentrantLock indexLock = new ReentrantLock();
+    private long cachedBytes;
+
+    // Renders in progress, so concurrent requests for one thumbnail wait on the same work
+    private final Map<String, CompletableFuture<Thumbnail>> inFlight = new ConcurrentHashMap<>();
+
+    private final ExecutorService prefetchExecutor;
+
+    public ThumbnailCache(
+            ScreenshotStore screenshotStore,
+            @Value("${bugtracker.upload-dir}") String uploadDirProperty,
+            @Value("${bugtracker.thumbnail.max-dimension:200}") int maxDimension,
+            @Value("${bugtracker.thumbnail.cache-max-bytes:104857600}") long maxCacheBytes
+    ) {
+        this.screenshotStore = screenshotStore;
+        this.maxDimension = maxDimension;
+        this.maxCacheBytes = maxCacheBytes;
+
+        this.cacheDir = Paths.get(uploadDirProperty).toAbsolutePath().normalize().resolve(".thumbs");
+        this.tmpDir = this.cacheDir.resolve(".tmp");
+        try {
+            Files.createDirectories(this.tmpDir);
+            loadIndex();
+        } catch (IOException e) {
+            // Fail fast if we can't prepare storage directories
+            throw new IllegalStateException("Failed to prepare thumbnail cache directory", e);
+        }
+
+        // Small and lossy on purpose: prefetching is an optimisation, the first
+        // request renders on demand anyway if the queue was full.
+        this.prefetchExecutor = new ThreadPoolExecutor(
+                1, 2, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(100),
+                r -> {
+                    Thread t = new Thread(r, "thumbnail-prefetch");
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.DiscardPolicy()
+        );
+    }
+
+    /**
+     * A cached thumbnail file and its length. The file may still be evicted by the
+     * time it is read; asking for the thumbnail again renders it again.
+     */
+    public record Thumbnail(Path file, long size) {
+    }
+
+    /**
+     * Returns the cached thumbnail for a screenshot, rendering it if needed (also
+     * if its file has gone missing).
+     *
+     * @return the thumbnail, or null if the source isn't a readable image.
+     */
+    public Thumbnail getThumbnail(StoredScreenshot source) throws IOException {
+        String name = cacheName(source);
+        Path cached = cacheDir.resolve(name);
+
+        indexLock.lock();
+        try {
+            // Size from the index: no file access once we let go of the lock
+            Long size = index.get(name);
+            if (size != null && Files.exists(cached)) {
+                return new Thumbnail(cached, size);
+            }
+        } finally {
+            indexLock.unlock();
+        }
+
+        CompletableFuture<Thumbnail> mine = new CompletableFuture<>();
+        CompletableFuture<Thumbnail> existing = inFlight.putIfAbsent(name, mine);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            Thumbnail rendered = render(source, name);
+            mine.complete(rendered);
+            return rendered;
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(name, mine);
+        }
+    }
+
+    /**
+     * Renders the thumbnail in the background (e.g. right after an upload).
+     * Silently skipped if the prefetch queue is full.
+     */
+    public void prefetch(String screenshotPath) {
+        prefetchExecutor.execute(() -> {
+            try {
+                StoredScreenshot source = screenshotStore.locate(screenshotPath);
+                if (source != null) {
+                    getThumbnail(source);
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("Thumbnail prefetch failed for {}", screenshotPath, e);
+            }
+        });
+    }
+
+    /**
+     * Strong ETag for a thumbnail: derived from the source's ETag and the size.
+     */
+    public String etag(StoredScreenshot source) {
+        return "\"" + cacheName(source) + "\"";
+    }
+
+    /** Total size of the thumbnails in the index. */
+    long cachedBytes() {
+        indexLock.lock();
+        try {
+            return cachedBytes;
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        prefetchExecutor.shutdownNow();
+    }
+
+    private Thumbnail render(StoredScreenshot source, String name) throws IOException {
+        BufferedImage image;
+        try {
+            image = readDownsampled(source.file());
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            // Corrupt or truncated upload; ImageIO throws instead of returning null
+            log.debug("Screenshot {} isn't a readable image", source.file(), e);
+            return null;
+        }
+        if (image == null) {
+            return null;
+        }
+
+        Path temp = Files.createTempFile(tmpDir, "thumb-", ".part");
+        try {
+            writeJpeg(scale(image), temp);
+            long size = Files.size(temp);
+            Path target = cacheDir.resolve(name);
+            // Under the index lock, so a concurrent eviction of a stale entry with
+            // this name can't delete the new file
+            indexLock.lock();
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                admit(name, size);
+            } finally {
+                indexLock.unlock();
+            }
+            return new Thumbnail(target, size);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Decodes the image with source subsampling, so a huge screenshot never gets
+     * fully decoded into the heap just to make a 200px thumbnail.
+     */
+    private BufferedImage readDownsampled(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                // Keep ~2x the target resolution for a smooth final scale
+                int step = Math.max(1, longest / (maxDimension * 2));
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage scale(BufferedImage image) {
+        double ratio = Math.min(1.0,
+                (double) maxDimension / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+
+        // JPEG has no alpha: flatten onto white
+        BufferedImage thumb = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = thumb.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return thumb;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Adds a freshly written file to the index and evicts least-recently-used
+     * thumbnails until the cache fits its budget again.
+     */
+    private void admit(String name, long size) {
+        indexLock.lock();
+        try {
+            Long previous = index.put(name, size);
+            cachedBytes += size - (previous != null ? previous : 0);
+
+            Iterator<Map.Entry<String, Long>> it = index.entrySet().iterator();
+            while (cachedBytes > maxCacheBytes && it.hasNext()) {
+                Map.Entry<String, Long> eldest = it.next();
+                if (eldest.getKey().equals(name)) {
+                    continue; // never evict what we just rendered
+                }
+                try {
+                    Files.deleteIfExists(cacheDir.resolve(eldest.getKey()));
+                } catch (IOException e) {
+                    log.warn("Failed to evict thumbnail {}", eldest.getKey(), e);
+                }
+                cachedBytes -= eldest.getValue();
+                it.remove();
+            }
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the LRU index from the cache directory, oldest files first.
+     */
+    private void loadIndex() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(cacheDir)) {
+            files = listing
+                    .filter(Files::isRegularFile)
+                    .sorted(Comparator.comparing(this::lastModified))
+                    .toList();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        for (Path file : files) {
+            long size = Files.size(file);
+            index.put(file.getFileName().toString(), size);
+            cachedBytes += size;
+        }
+    }
+
+    private long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String cacheName(StoredScreenshot source) {
+        String tag = source.etag().replace("\"", "");
+        return tag + "-" + maxDimension + ".jpg";
+    }
+
+    private static Thumbnail await(CompletableFuture<Thumbnail> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Makes bug_reports.deleted NOT NULL DEFAULT false, without locking the table for
+ * the length of a full UPDATE.
+ *
+ * Rows from before logical delete existed have deleted = NULL (meaning "not
+ * deleted"), so every admin query had to say "deleted = false OR deleted IS NULL".
+ * This migration:
+ *  1. sets the default, so new rows get false even from older app versions
+ *     that insert no value;
+ *  2. sets the NULLs to false in id ranges of {@value #BATCH_IDS}, each range
+ *     committed on its own, so only a few thousand rows are locked at a time;
+ *  3. adds CHECK (deleted IS NOT NULL) NOT VALID, which stops new NULLs at once,
+ *     and sweeps up NULLs inserted while step 2 was running;
+ *  4. validates the check (reads the table, but doesn't block writes);
+ *  5. sets NOT NULL, which PostgreSQL proves from the validated check instead of
+ *     scanning the table under an exclusive lock, and drops the check.
+ *
+ * Runs outside a transaction (each batch commits). The statements that need a
+ * lock on the table give up after {@value #LOCK_TIMEOUT} rather than queueing
+ * behind a long-running query, failing the migration; every step is safe to
+ * repeat, so after flyway repair it picks up where it stopped.
+ */
+public class V11__BackfillDeletedFlag extends BaseJavaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(V11__BackfillDeletedFlag.class);
+
+    static final int BATCH_IDS = 10_000;
+    static final String LOCK_TIMEOUT = "10s";
+    private static final String CHECK = "bug_reports_deleted_not_null";
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET lock_timeout = '" + LOCK_TIMEOUT + "'");
+            try {
+                statement.execute("ALTER TABLE bug_reports ALTER COLUMN deleted SET DEFAULT false");
+
+                long started = System.nanoTime();
+                long updated = backfill(connection, statement);
+                log.info("Set deleted = false on {} bug report(s) in {} ms",
+                        updated, (System.nanoTime() - started) / 1_000_000);
+
+                if (!checkExists(statement)) {
+                    statement.execute("ALTER TABLE bug_reports ADD CONSTRAINT " + CHECK
+                            + " CHECK (deleted IS NOT NULL) NOT VALID");
+                }
+                // Whatever older instances inserted before the check was there
+                statement.executeUpdate("UPDATE bug_reports SET deleted = false WHERE deleted IS NULL");
+                statement.execute("ALTER TABLE bug_reports VALIDATE CONSTRAINT " + CHECK);
+
+                statement.execute("ALTER TABLE bug_reports ALTER COLUMN deleted SET NOT NULL");
+                statement.execute("ALTER TABLE bug_reports DROP CONSTRAINT " + CHECK);
+            } finally {
+                // Also when a step fails: the connection goes back to Flyway's pool
+                statement.execute("RESET lock_timeout");
+            }
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Walks the primary key in ranges of {@link #BATCH_IDS}, one short UPDATE each.
+     */
+    private static long backfill(Connection connection, Statement statement) throws SQLException {
+        long minId;
+        long maxId;
+        try (ResultSet rs = statement.executeQuery("SELECT min(id), max(id) FROM bug_reports")) {
+            rs.next();
+            minId = rs.getLong(1);
+            maxId = rs.getLong(2);
+            if (rs.wasNull()) {
+                return 0;
+            }
+        }
+
+        long updated = 0;
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE bug_reports SET deleted = false WHERE id >= ? AND id < ? AND deleted IS NULL")) {
+            for (long from = minId; from <= maxId; from += BATCH_IDS) {
+                update.setLong(1, from);
+                update.setLong(2, from + BATCH_IDS);
+                updated += update.executeUpdate();
+            }
+        }
+        return updated;
+    }
+
+    private static boolean checkExists(Statement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery(
+                "SELECT 1 FROM pg_constraint WHERE conname = '" + CHECK + "'"
+                        + " AND conrelid = 'bug_reports'::regclass")) {
+            return rs.next();
+        }
+    }
+}
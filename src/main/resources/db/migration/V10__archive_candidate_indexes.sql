@@ -0,0 +1,14 @@
+-- =========================
+-- Lets IssueArchiver find its next batch in bug_reports without a full scan:
+-- deleted issues by deletion time, resolved ones by resolution time.
+--
+-- Built CONCURRENTLY; see the matching .conf file (runs outside a transaction).
+-- =========================
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bug_reports_deleted_at
+    ON bug_reports (deleted_at)
+    WHERE deleted IS TRUE;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bug_reports_resolved_at
+    ON bug_reports (resolved_at)
+    WHERE resolved;
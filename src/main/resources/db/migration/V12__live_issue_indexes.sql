@@ -0,0 +1,28 @@
+-- =========================
+-- bug_reports.deleted is NOT NULL now (V11), so "not deleted" is plain NOT deleted.
+-- Rebuilds the partial indexes from V2 and V10 with the simple predicates the
+-- queries now use (the planner only picks a partial index whose WHERE the query's
+-- filter implies), under their old names.
+--
+-- Built CONCURRENTLY; see the matching .conf file (runs outside a transaction).
+-- =========================
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bug_reports_admin_order_v12
+    ON bug_reports (resolved, created_at DESC, id DESC)
+    WHERE NOT deleted;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bug_reports_type_admin_order_v12
+    ON bug_reports (type, resolved, created_at DESC, id DESC)
+    WHERE NOT deleted;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bug_reports_deleted_at_v12
+    ON bug_reports (deleted_at)
+    WHERE deleted;
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_bug_reports_admin_order;
+DROP INDEX CONCURRENTLY IF EXISTS idx_bug_reports_type_admin_order;
+DROP INDEX CONCURRENTLY IF EXISTS idx_bug_reports_deleted_at;
+
+ALTER INDEX idx_bug_reports_admin_order_v12 RENAME TO idx_bug_reports_admin_order;
+ALTER INDEX idx_bug_reports_type_admin_order_v12 RENAME TO idx_bug_reports_type_admin_order;
+ALTER INDEX idx_bug_reports_deleted_at_v12 RENAME TO idx_bug_reports_deleted_at;
@@ -0,0 +1,33 @@
+-- =========================
+-- Screenshot references are now counted when the bug report is inserted, in the
+-- same transaction (see BugReportService.submitReport), instead of at upload.
+-- A stored file whose report never made it (failed insert, journal full) keeps
+-- ref_count = 0 and is removed by ScreenshotStore.removeUnreferenced once it is
+-- older than the grace period.
+--
+-- stored_at is bumped on every upload of the same content, so a file that is
+-- about to be referenced again is never swept.
+-- =========================
+ALTER TABLE screenshot_blobs ALTER COLUMN ref_count SET DEFAULT 0;
+
+ALTER TABLE screenshot_blobs ADD COLUMN stored_at TIMESTAMP(6) NOT NULL DEFAULT now();
+UPDATE screenshot_blobs SET stored_at = created_at;
+
+-- Recount from the reports themselves (hot and archived): uploads whose report was
+-- never saved were counted too. Reports still waiting in the submission journal are
+-- counted when the drainer inserts them.
+UPDATE screenshot_blobs b
+SET ref_count = counted.refs
+FROM (
+    SELECT s.hash, count(r.id) AS refs
+    FROM screenshot_blobs s
+    LEFT JOIN bug_reports_with_archive r
+        ON r.screenshot_path = substr(s.hash, 1, 2) || '/' || substr(s.hash, 3, 2) || '/' || s.hash
+    GROUP BY s.hash
+) counted
+WHERE counted.hash = b.hash
+  AND counted.refs <> b.ref_count;
+
+CREATE INDEX idx_screenshot_blobs_unreferenced
+    ON screenshot_blobs (stored_at)
+    WHERE ref_count = 0;
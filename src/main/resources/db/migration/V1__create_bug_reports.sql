@@ -0,0 +1,37 @@
+-- =========================
+-- Baseline schema for bug_reports, matching the BugReport entity.
+--
+-- Written to be idempotent so it also upgrades databases that were created
+-- earlier by ddl-auto=update or by the old db/init.sql script.
+-- =========================
+CREATE TABLE IF NOT EXISTS bug_reports (
+    id                     BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name                   VARCHAR(100) NOT NULL,
+    email                  VARCHAR(150) NOT NULL,
+    role                   VARCHAR(100) NOT NULL,
+    browser                VARCHAR(50)  NOT NULL,
+    event_time             TIMESTAMP(6),
+    type                   VARCHAR(50)  NOT NULL,
+    description            VARCHAR(255) NOT NULL,
+    screenshot_path        VARCHAR(500),
+    created_at             TIMESTAMP(6) NOT NULL DEFAULT now(),
+    resolved               BOOLEAN      NOT NULL DEFAULT FALSE,
+    resolved_by            VARCHAR(100),
+    resolution_description VARCHAR(255),
+    resolved_at            TIMESTAMP(6),
+    deleted                BOOLEAN,
+    deleted_at             TIMESTAMP(6)
+);
+
+-- db/init.sql used SERIAL (int4); the entity id is a Long
+ALTER TABLE bug_reports ALTER COLUMN id TYPE BIGINT;
+
+-- Columns missing from db/init.sql-created tables
+ALTER TABLE bug_reports ADD COLUMN IF NOT EXISTS event_time             TIMESTAMP(6);
+ALTER TABLE bug_reports ADD COLUMN IF NOT EXISTS created_at             TIMESTAMP(6) NOT NULL DEFAULT now();
+ALTER TABLE bug_reports ADD COLUMN IF NOT EXISTS resolved               BOOLEAN      NOT NULL DEFAULT FALSE;
+ALTER TABLE bug_reports ADD COLUMN IF NOT EXISTS resolved_by            VARCHAR(100);
+ALTER TABLE bug_reports ADD COLUMN IF NOT EXISTS resolution_description VARCHAR(255);
+ALTER TABLE bug_reports ADD COLUMN IF NOT EXISTS resolved_at            TIMESTAMP(6);
+ALTER TABLE bug_reports ADD COLUMN IF NOT EXISTS deleted                BOOLEAN;
+ALTER TABLE bug_reports ADD COLUMN IF NOT EXISTS deleted_at             TIMESTAMP(6);
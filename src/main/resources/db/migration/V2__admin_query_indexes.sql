@@ -0,0 +1,22 @@
+-- =========================
+-- Indexes for BugReportService.buildAdminSpecification + the admin ordering
+-- (resolved ASC, created_at DESC, id DESC).
+--
+-- Built CONCURRENTLY so existing installs don't block writes while indexing;
+-- see the matching .conf file (runs outside a transaction).
+-- =========================
+
+-- Default admin view (deleted hidden), optionally filtered by resolved.
+-- Serves both page/size and cursor paging without a sort step.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bug_reports_admin_order
+    ON bug_reports (resolved, created_at DESC, id DESC)
+    WHERE deleted IS NOT TRUE;
+
+-- Same, with a type filter (Bug / Feature Request / Comment)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bug_reports_type_admin_order
+    ON bug_reports (type, resolved, created_at DESC, id DESC)
+    WHERE deleted IS NOT TRUE;
+
+-- fromDate / toDate range filters, including viewDeleted=true queries
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bug_reports_created_at
+    ON bug_reports (created_at);
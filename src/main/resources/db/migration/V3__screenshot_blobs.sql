@@ -0,0 +1,12 @@
+-- =========================
+-- Content-addressed screenshot store (see ScreenshotStore).
+-- One row per distinct file under upload-dir/ab/cd/<sha256>;
+-- ref_count = number of bug reports pointing at it.
+-- =========================
+CREATE TABLE screenshot_blobs (
+    hash         VARCHAR(64)  PRIMARY KEY,
+    size_bytes   BIGINT       NOT NULL,
+    content_type VARCHAR(100),
+    ref_count    INTEGER      NOT NULL DEFAULT 1,
+    created_at   TIMESTAMP(6) NOT NULL DEFAULT now()
+);
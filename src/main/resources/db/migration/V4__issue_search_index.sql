@@ -0,0 +1,18 @@
+-- =========================
+-- Full-text search for the admin "q=" filter.
+--
+-- A GIN index over a weighted tsvector expression, so there is no extra column
+-- to keep in sync: description (A), resolution_description (B), name (C), browser (D).
+-- The expression must stay identical to IssueSearchFunctions.DOCUMENT or the
+-- planner won't use the index.
+--
+-- Built CONCURRENTLY; see the matching .conf file (runs outside a transaction).
+-- =========================
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bug_reports_search
+    ON bug_reports USING GIN ((
+        setweight(to_tsvector('english'::regconfig, coalesce(description, '')), 'A')
+        || setweight(to_tsvector('english'::regconfig, coalesce(resolution_description, '')), 'B')
+        || setweight(to_tsvector('simple'::regconfig, coalesce(name, '')), 'C')
+        || setweight(to_tsvector('simple'::regconfig, coalesce(browser, '')), 'D')
+    ));
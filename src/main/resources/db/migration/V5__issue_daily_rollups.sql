@@ -0,0 +1,32 @@
+-- =========================
+-- Incrementally maintained counters behind /api/admin/stats (see IssueStatsService).
+--
+-- One row per (creation day, type, browser). Every count describes the issues
+-- created that day in their current state; resolve_seconds_sum adds up
+-- resolved_at - created_at over the resolved ones (mean time to resolve =
+-- resolve_seconds_sum / resolved_count).
+-- =========================
+CREATE TABLE issue_daily_rollups (
+    day                 DATE        NOT NULL,
+    type                VARCHAR(50) NOT NULL,
+    browser             VARCHAR(50) NOT NULL,
+    created_count       BIGINT      NOT NULL DEFAULT 0,
+    resolved_count      BIGINT      NOT NULL DEFAULT 0,
+    deleted_count       BIGINT      NOT NULL DEFAULT 0,
+    resolve_seconds_sum BIGINT      NOT NULL DEFAULT 0,
+    PRIMARY KEY (day, type, browser)
+);
+
+-- Initial fill from the existing reports (same query as the rebuild job)
+INSERT INTO issue_daily_rollups
+    (day, type, browser, created_count, resolved_count, deleted_count, resolve_seconds_sum)
+SELECT CAST(created_at AS DATE),
+       type,
+       browser,
+       count(*),
+       count(*) FILTER (WHERE resolved),
+       count(*) FILTER (WHERE deleted IS TRUE),
+       coalesce(sum(round(extract(epoch FROM resolved_at - created_at)))
+                    FILTER (WHERE resolved AND resolved_at IS NOT NULL), 0)
+FROM bug_reports
+GROUP BY 1, 2, 3;
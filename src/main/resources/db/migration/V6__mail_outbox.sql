@@ -0,0 +1,20 @@
+-- =========================
+-- Durable queue of alert emails (see MailOutbox / MailDispatcher).
+--
+-- A row is inserted in the same transaction as the bug report it announces, so an
+-- alert is never lost and never sent for a rolled-back submission. The dispatcher
+-- claims due rows, sends them as one digest and deletes them; on failure it pushes
+-- next_attempt_at back, and gives up (failed_at) after the configured attempts.
+-- =========================
+CREATE TABLE mail_outbox (
+    id              BIGSERIAL PRIMARY KEY,
+    bug_report_id   BIGINT    NOT NULL,
+    created_at      TIMESTAMP NOT NULL,
+    attempts        INTEGER   NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error      TEXT,
+    failed_at       TIMESTAMP
+);
+
+-- Dispatcher poll: due rows that haven't been given up on
+CREATE INDEX idx_mail_outbox_due ON mail_outbox (next_attempt_at) WHERE failed_at IS NULL;
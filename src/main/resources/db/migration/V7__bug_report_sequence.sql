@@ -0,0 +1,22 @@
+-- =========================
+-- Ids from a pooled sequence instead of IDENTITY, plus a tracking id.
+--
+-- BugReport allocates ids 50 at a time (each nextval reserves the 50 ids ending at
+-- the returned value), so a batch of reports is inserted in JDBC batches instead of
+-- one INSERT ... RETURNING per row. INCREMENT BY must match the entity's allocationSize.
+--
+-- The column default draws from the same sequence, so rows inserted by hand get an
+-- id that no application instance will hand out.
+-- =========================
+CREATE SEQUENCE IF NOT EXISTS bug_reports_seq INCREMENT BY 50;
+
+ALTER TABLE bug_reports ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE bug_reports ALTER COLUMN id SET DEFAULT nextval('bug_reports_seq');
+ALTER SEQUENCE bug_reports_seq OWNED BY bug_reports.id;
+
+-- Continue above the existing ids
+SELECT setval('bug_reports_seq', COALESCE((SELECT max(id) FROM bug_reports), 0) + 50);
+
+-- Returned to the reporter; write-behind submissions are de-duplicated on it when the
+-- journal is replayed (unique index in V8)
+ALTER TABLE bug_reports ADD COLUMN IF NOT EXISTS tracking_id UUID;
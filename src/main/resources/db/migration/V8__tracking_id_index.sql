@@ -0,0 +1,8 @@
+-- =========================
+-- Unique tracking ids (see V7). Existing rows have none; NULLs don't conflict.
+--
+-- Built CONCURRENTLY; see the matching .conf file (runs outside a transaction).
+-- =========================
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS idx_bug_reports_tracking_id
+    ON bug_reports (tracking_id);
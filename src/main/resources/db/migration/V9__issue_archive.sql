@@ -0,0 +1,61 @@
+-- =========================
+-- Cold storage for issues nobody works on any more (see IssueArchiver).
+--
+-- Issues deleted (and, if configured, resolved) longer ago than the retention
+-- period are moved here from bug_reports in small batches, keeping their id, so
+-- the hot table and its indexes only hold what the admin grid normally shows.
+-- viewDeleted=true queries read bug_reports_with_archive, which puts both back
+-- together. Archived issues are read-only.
+--
+-- Partitioned by year of created_at. The archiver creates a year's partition
+-- (bug_reports_archive_yYYYY) the first time it archives an issue from that year;
+-- a whole year can later be detached or dropped in one statement.
+-- =========================
+CREATE TABLE bug_reports_archive (
+    id                     BIGINT       NOT NULL,
+    tracking_id            UUID,
+    name                   VARCHAR(100) NOT NULL,
+    email                  VARCHAR(150) NOT NULL,
+    role                   VARCHAR(100) NOT NULL,
+    browser                VARCHAR(50)  NOT NULL,
+    event_time             TIMESTAMP(6),
+    type                   VARCHAR(50)  NOT NULL,
+    description            VARCHAR(255) NOT NULL,
+    screenshot_path        VARCHAR(500),
+    created_at             TIMESTAMP(6) NOT NULL,
+    resolved               BOOLEAN      NOT NULL,
+    resolved_by            VARCHAR(100),
+    resolution_description VARCHAR(255),
+    resolved_at            TIMESTAMP(6),
+    deleted                BOOLEAN      NOT NULL DEFAULT FALSE,
+    deleted_at             TIMESTAMP(6),
+    archived_at            TIMESTAMP(6) NOT NULL DEFAULT now(),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Created on every partition. Same admin ordering as idx_bug_reports_admin_order (V2)
+-- and same search expression as idx_bug_reports_search (V4).
+CREATE INDEX idx_bug_reports_archive_admin_order
+    ON bug_reports_archive (resolved, created_at DESC, id DESC);
+
+CREATE INDEX idx_bug_reports_archive_search
+    ON bug_reports_archive USING GIN ((
+        setweight(to_tsvector('english'::regconfig, coalesce(description, '')), 'A')
+        || setweight(to_tsvector('english'::regconfig, coalesce(resolution_description, '')), 'B')
+        || setweight(to_tsvector('simple'::regconfig, coalesce(name, '')), 'C')
+        || setweight(to_tsvector('simple'::regconfig, coalesce(browser, '')), 'D')
+    ));
+
+-- Hot and archived issues together (BugReportWithArchive). A plain UNION ALL of
+-- identically typed columns, so the planner pushes filters, ORDER BY/LIMIT and the
+-- indexes above down into both sides.
+CREATE VIEW bug_reports_with_archive AS
+SELECT id, tracking_id, name, email, role, browser, event_time, type, description,
+       screenshot_path, created_at, resolved, resolved_by, resolution_description,
+       resolved_at, deleted, deleted_at, CAST(NULL AS TIMESTAMP(6)) AS archived_at
+FROM bug_reports
+UNION ALL
+SELECT id, tracking_id, name, email, role, browser, event_time, type, description,
+       screenshot_path, created_at, resolved, resolved_by, resolution_description,
+       resolved_at, deleted, deleted_at, archived_at
+FROM bug_reports_archive;
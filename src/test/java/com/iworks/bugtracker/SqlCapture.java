@@ -0,0 +1,36 @@
+package com.iworks.bugtracker;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the SQL Hibernate sends, for tests that EXPLAIN what the app really runs.
+ * Enable with spring.jpa.properties.hibernate.session_factory.statement_inspector.
+ */
+public class SqlCapture implements StatementInspector {
+
+    private static final List<String> statements = new ArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        synchronized (statements) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+
+    public static void clear() {
+        synchronized (statements) {
+            statements.clear();
+        }
+    }
+
+    /** Statements seen since the last {@link #clear()} that start with the given prefix. */
+    public static List<String> statements(String prefix) {
+        synchronized (statements) {
+            return statements.stream().filter(sql -> sql.startsWith(prefix)).toList();
+        }
+    }
+}
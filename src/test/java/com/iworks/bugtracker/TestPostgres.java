@@ -0,0 +1,64 @@
+package com.iworks.bugtracker;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * One embedded PostgreSQL server for every test that needs the real schema, started
+ * on first use and stopped when the test JVM exits. Flyway migrates it when the
+ * application context starts.
+ */
+public final class TestPostgres {
+
+    private static EmbeddedPostgres postgres;
+
+    private TestPostgres() {
+    }
+
+    /**
+     * Points the datasource at the embedded server and the upload/report
+     * directories at a fresh temp directory.
+     */
+    public static void register(DynamicPropertyRegistry registry) {
+        EmbeddedPostgres server = server();
+        Path dataDir = tempDir();
+        registry.add("spring.datasource.url", () -> server.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("spring.flyway.postgresql.transactional-lock", () -> "false");
+        registry.add("bugtracker.upload-dir", () -> dataDir.resolve("uploads").toString());
+        registry.add("bugtracker.report-dir", () -> dataDir.resolve("reports").toString());
+    }
+
+    private static synchronized EmbeddedPostgres server() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.start();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            EmbeddedPostgres started = postgres;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    started.close();
+                } catch (IOException e) {
+                    // JVM is exiting anyway
+                }
+            }));
+        }
+        return postgres;
+    }
+
+    private static Path tempDir() {
+        try {
+            return Files.createTempDirectory("bugtracker-test");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.iworks.bugtracker.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The bugtracker.* histograms as scraped from /actuator/prometheus: buckets are
+ * cumulative over the process lifetime, so the +Inf bucket always equals _count,
+ * also long after the observations.
+ */
+class MetricsConfigTest {
+
+    private final MockClock clock = new MockClock();
+    private PrometheusMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT, new PrometheusRegistry(), clock);
+        registry.config().meterFilter(new MetricsConfig().bugtrackerHistograms());
+    }
+
+    @Test
+    void timerBucketsDontDecay() {
+        Timer timer = Timer.builder("bugtracker.submit").tag("phase", "insert").register(registry);
+        timer.record(Duration.ofMillis(3));
+        timer.record(Duration.ofMillis(40));
+        timer.record(Duration.ofSeconds(2));
+
+        clock.add(Duration.ofHours(1));
+        timer.record(Duration.ofMillis(3));
+        clock.add(Duration.ofDays(2));
+
+        String scrape = registry.scrape();
+        assertThat(sample(scrape, "bugtracker_submit_seconds_bucket{phase=\"insert\",le=\"0.005\"}")).isEqualTo(2);
+        assertThat(sample(scrape, "bugtracker_submit_seconds_bucket{phase=\"insert\",le=\"0.05\"}")).isEqualTo(3);
+        assertThat(sample(scrape, "bugtracker_submit_seconds_bucket{phase=\"insert\",le=\"2.5\"}")).isEqualTo(4);
+        assertThat(sample(scrape, "bugtracker_submit_seconds_bucket{phase=\"insert\",le=\"+Inf\"}")).isEqualTo(4);
+        assertThat(sample(scrape, "bugtracker_submit_seconds_count{phase=\"insert\"}")).isEqualTo(4);
+        assertCumulative(scrape, "bugtracker_submit_seconds_bucket{");
+    }
+
+    @Test
+    void summaryGetsSizeBuckets() {
+        DistributionSummary rows = DistributionSummary.builder("bugtracker.export.rows").register(registry);
+        rows.record(5);
+        rows.record(50_000);
+        clock.add(Duration.ofDays(2));
+
+        String scrape = registry.scrape();
+        assertThat(sample(scrape, "bugtracker_export_rows_bucket{le=\"10.0\"}")).isEqualTo(1);
+        assertThat(sample(scrape, "bugtracker_export_rows_bucket{le=\"100000.0\"}")).isEqualTo(2);
+        assertThat(sample(scrape, "bugtracker_export_rows_bucket{le=\"+Inf\"}")).isEqualTo(2);
+        assertThat(sample(scrape, "bugtracker_export_rows_count")).isEqualTo(2);
+        assertCumulative(scrape, "bugtracker_export_rows_bucket{");
+    }
+
+    @Test
+    void otherMetersAreLeftAlone() {
+        Timer.builder("http.server.requests").register(registry).record(Duration.ofMillis(3));
+
+        assertThat(registry.scrape()).doesNotContain("http_server_requests_seconds_bucket");
+    }
+
+    private static double sample(String scrape, String series) {
+        for (String line : scrape.split("\n")) {
+            if (line.startsWith(series + " ")) {
+                return Double.parseDouble(line.substring(series.length() + 1).trim());
+            }
+        }
+        throw new AssertionError("No " + series + " in\n" + scrape);
+    }
+
+    private static void assertCumulative(String scrape, String prefix) {
+        List<Double> counts = new ArrayList<>();
+        for (String line : scrape.split("\n")) {
+            if (line.startsWith(prefix)) {
+                counts.add(Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1)));
+            }
+        }
+        assertThat(counts).hasSizeGreaterThan(1).isSorted();
+    }
+}
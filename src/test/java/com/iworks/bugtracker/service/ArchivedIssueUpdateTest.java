@@ -0,0 +1,92 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.TestPostgres;
+import com.iworks.bugtracker.service.BugReportService.BulkUpdateRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Archived issues show up with viewDeleted, flagged as such, and bulk updates of
+ * them (or of ids that don't exist) are rejected rather than silently skipped.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "bugtracker.archive.enabled=false")
+class ArchivedIssueUpdateTest {
+
+    // Rows of this test only, whatever other tests left in the shared database
+    private static final String TYPE = "Archived " + UUID.randomUUID().toString().substring(0, 8);
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        TestPostgres.register(registry);
+    }
+
+    @Autowired
+    private BugReportService bugReportService;
+
+    @Autowired
+    private IssueStatsService issueStatsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void archivedIssuesAreFlaggedAndReadOnly() {
+        // Deleted long before anything else in the shared database, so only it is archived
+        long archived = insert(true, LocalDateTime.of(2001, 1, 1, 0, 0));
+        long live = insert(false, null);
+        bugReportService.archiveIssues(LocalDateTime.of(2002, 1, 1, 0, 0), null, 100);
+        issueStatsService.rebuild();
+
+        List<Map<String, Object>> rows = bugReportService.searchIssues(
+                IssueFilter.of(TYPE, null, null, null, true, null), 0, 10, List.of("id", "archived")).getContent();
+        assertThat(rows).extracting(row -> row.get("id"), row -> row.get("archived"))
+                .containsExactlyInAnyOrder(
+                        tuple(archived, true),
+                        tuple(live, false));
+        assertThat(bugReportService.searchIssues(IssueFilter.of(TYPE, null, null, null, false, null),
+                0, 10, IssueFields.DEFAULT).getContent())
+                .singleElement().satisfies(row -> assertThat(row).containsEntry("archived", false));
+
+        assertThatThrownBy(() -> bugReportService.applyBulkResolutionChanges(
+                List.of(update(live, true), update(archived, false))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("[" + archived + "]");
+        assertThatThrownBy(() -> bugReportService.applyBulkResolutionChanges(List.of(update(Long.MAX_VALUE, true))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(Long.toString(Long.MAX_VALUE));
+
+        // The whole batch was rejected
+        assertThat(jdbcTemplate.queryForObject("SELECT resolved FROM bug_reports WHERE id = ?", Boolean.class, live))
+                .isFalse();
+        assertThat(bugReportService.applyBulkResolutionChanges(List.of(update(live, true)))).isEqualTo(1);
+    }
+
+    private long insert(boolean deleted, LocalDateTime deletedAt) {
+        return jdbcTemplate.queryForObject("INSERT INTO bug_reports (tracking_id, name, email, role, browser, type, "
+                + "description, created_at, resolved, deleted, deleted_at) "
+                + "VALUES (gen_random_uuid(), 'Tester', 'tester@iworkscorp.com', 'QA', 'Chrome', ?, 'Archive me', "
+                + "timestamp '2000-06-01', ?, ?, ?) RETURNING id", Long.class, TYPE, deleted, deleted, deletedAt);
+    }
+
+    private static BulkUpdateRequest update(long id, boolean resolved) {
+        BulkUpdateRequest update = new BulkUpdateRequest();
+        update.setId(id);
+        update.setResolved(resolved);
+        update.setResolvedBy(resolved ? "Admin" : null);
+        return update;
+    }
+}
@@ -0,0 +1,265 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.model.BugReport;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.util.ValueVectorUtility;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reads the Arrow export back with a separate reader and allocator: every column type
+ * with and without nulls, batch boundaries, and the schema readers rely on.
+ */
+class ArrowExportWriterTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 5, 1, 9, 30, 0, 123_456_789);
+
+    /**
+     * Saved exports and readers' code depend on these names, types and nullability:
+     * a change here is a change of the export format, not a refactoring.
+     */
+    @Test
+    void schemaIsPinned() throws IOException {
+        ArrowType int64 = new ArrowType.Int(64, true);
+        ArrowType utf8 = ArrowType.Utf8.INSTANCE;
+        ArrowType bool = ArrowType.Bool.INSTANCE;
+        ArrowType timestamp = new ArrowType.Timestamp(TimeUnit.MICROSECOND, null);
+
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = reader(export(List.of()), allocator)) {
+            List<Field> fields = reader.getVectorSchemaRoot().getSchema().getFields();
+
+            assertThat(fields).extracting(Field::getName)
+                    .containsExactly(CsvExportWriter.HEADER.split(","));
+            assertThat(fields).extracting(Field::getType).containsExactly(
+                    int64, utf8, utf8, utf8, utf8, utf8, utf8, timestamp, timestamp,
+                    bool, utf8, utf8, timestamp, bool, timestamp);
+            assertThat(fields).filteredOn(field -> !field.isNullable()).extracting(Field::getName)
+                    .containsExactly("id", "resolved", "deleted");
+            assertThat(fields).allSatisfy(field -> assertThat(field.getChildren()).isEmpty());
+            assertThat(reader.getVectorSchemaRoot().getSchema()).isEqualTo(ArrowExportWriter.SCHEMA);
+
+            assertThat(reader.loadNextBatch()).isFalse();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, ArrowExportWriter.ROWS_PER_BATCH - 1, ArrowExportWriter.ROWS_PER_BATCH,
+            ArrowExportWriter.ROWS_PER_BATCH + 1, 2 * ArrowExportWriter.ROWS_PER_BATCH + 37})
+    void roundTripsAcrossBatches(int count) throws IOException {
+        List<BugReport> reports = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            reports.add(report(i));
+        }
+
+        List<Integer> batchSizes = new ArrayList<>();
+        int row = 0;
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = reader(export(reports), allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            while (reader.loadNextBatch()) {
+                for (FieldVector vector : root.getFieldVectors()) {
+                    ValueVectorUtility.validateFull(vector);
+                }
+                batchSizes.add(root.getRowCount());
+                for (int i = 0; i < root.getRowCount(); i++, row++) {
+                    assertRow(root, i, reports.get(row));
+                }
+            }
+        }
+
+        assertThat(row).isEqualTo(count);
+        assertThat(batchSizes).hasSize((count + ArrowExportWriter.ROWS_PER_BATCH - 1) / ArrowExportWriter.ROWS_PER_BATCH)
+                .allSatisfy(size -> assertThat(size).isBetween(1, ArrowExportWriter.ROWS_PER_BATCH));
+        assertThat(batchSizes.get(batchSizes.size() - 1))
+                .isEqualTo(count - (batchSizes.size() - 1) * ArrowExportWriter.ROWS_PER_BATCH);
+    }
+
+    /**
+     * One row with every nullable column null, in the second batch, among rows with
+     * none: reset vectors must not carry nulls or values over.
+     */
+    @Test
+    void nullsStayInTheirRow() throws IOException {
+        int nullRow = ArrowExportWriter.ROWS_PER_BATCH + 1;
+        List<BugReport> reports = new ArrayList<>();
+        for (int i = 0; i < ArrowExportWriter.ROWS_PER_BATCH + 3; i++) {
+            BugReport report = report(i);
+            boolean full = i != nullRow;
+            report.setType(full ? "Bug" : null);
+            report.setName(full ? "Tester " + i : null);
+            report.setEmail(full ? "tester" + i + "@iworkscorp.com" : null);
+            report.setRole(full ? "QA" : null);
+            report.setBrowser(full ? "Chrome" : null);
+            report.setDescription(full ? "Issue " + i : null);
+            report.setEventTime(full ? BASE.minusMinutes(i) : null);
+            report.setCreatedAt(full ? BASE.plusSeconds(i) : null);
+            report.setResolved(true);
+            report.setResolvedBy(full ? "alice" : null);
+            report.setResolutionDescription(full ? "fixed" : null);
+            report.setResolvedAt(full ? BASE.plusDays(1) : null);
+            report.setDeleted(true);
+            report.setDeletedAt(full ? BASE.plusDays(2) : null);
+            reports.add(report);
+        }
+
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = reader(export(reports), allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            assertThat(reader.loadNextBatch()).isTrue();
+            for (FieldVector vector : root.getFieldVectors()) {
+                assertThat(vector.getNullCount()).as(vector.getName()).isZero();
+            }
+            assertThat(reader.loadNextBatch()).isTrue();
+
+            assertThat(root.getRowCount()).isEqualTo(3);
+            for (int i = 0; i < 3; i++) {
+                assertRow(root, i, reports.get(ArrowExportWriter.ROWS_PER_BATCH + i));
+            }
+            for (FieldVector vector : root.getFieldVectors()) {
+                boolean nullable = vector.getField().isNullable();
+                assertThat(vector.getNullCount()).as(vector.getName()).isEqualTo(nullable ? 1 : 0);
+                assertThat(vector.isNull(1)).as(vector.getName()).isEqualTo(nullable);
+            }
+        }
+    }
+
+    /**
+     * An export that fails half way is closed without being finished: the column
+     * buffers are freed (closing the allocator throws if any are left) and the stream
+     * stays open.
+     */
+    @Test
+    void closeWithoutFinishFreesTheBuffers() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+
+        IssueExportWriter writer = ExportFormat.ARROW.open(out);
+        for (int i = 0; i < ArrowExportWriter.ROWS_PER_BATCH + 10; i++) {
+            writer.write(report(i));
+        }
+        writer.flush();
+        writer.close();
+
+        assertThat(closed).isFalse();
+        // The schema and the flushed first batch made it out
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = reader(out.toByteArray(), allocator)) {
+            assertThat(reader.loadNextBatch()).isTrue();
+            assertThat(reader.getVectorSchemaRoot().getRowCount()).isEqualTo(ArrowExportWriter.ROWS_PER_BATCH);
+        }
+    }
+
+    @Test
+    void encodesTextLikeStringGetBytes() throws IOException {
+        BugReport report = report(1);
+        report.setDescription("café € 🐛 and a lone \uD800 surrogate");
+        report.setName("");
+
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = reader(export(List.of(report)), allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            assertThat(reader.loadNextBatch()).isTrue();
+
+            assertThat(text(root, "description", 0)).isEqualTo("café € 🐛 and a lone ? surrogate");
+            assertThat(text(root, "name", 0)).isEmpty();
+            assertThat(root.getVector("name").isNull(0)).isFalse();
+        }
+    }
+
+    private static void assertRow(VectorSchemaRoot root, int i, BugReport expected) {
+        assertThat(((BigIntVector) root.getVector("id")).get(i)).isEqualTo(expected.getId());
+        assertThat(text(root, "type", i)).isEqualTo(expected.getType());
+        assertThat(text(root, "name", i)).isEqualTo(expected.getName());
+        assertThat(text(root, "email", i)).isEqualTo(expected.getEmail());
+        assertThat(text(root, "role", i)).isEqualTo(expected.getRole());
+        assertThat(text(root, "browser", i)).isEqualTo(expected.getBrowser());
+        assertThat(text(root, "description", i)).isEqualTo(expected.getDescription());
+        assertThat(timestamp(root, "event_time", i)).isEqualTo(micros(expected.getEventTime()));
+        assertThat(timestamp(root, "created_at", i)).isEqualTo(micros(expected.getCreatedAt()));
+        assertThat(((BitVector) root.getVector("resolved")).getObject(i)).isEqualTo(expected.isResolved());
+        assertThat(text(root, "resolved_by", i)).isEqualTo(expected.getResolvedBy());
+        assertThat(text(root, "resolution_description", i)).isEqualTo(expected.getResolutionDescription());
+        assertThat(timestamp(root, "resolved_at", i)).isEqualTo(micros(expected.getResolvedAt()));
+        assertThat(((BitVector) root.getVector("deleted")).getObject(i)).isEqualTo(expected.isDeleted());
+        assertThat(timestamp(root, "deleted_at", i)).isEqualTo(micros(expected.getDeletedAt()));
+    }
+
+    private static BugReport report(int i) {
+        boolean resolved = i % 3 == 0;
+        boolean deleted = i % 7 == 0;
+        BugReport report = new BugReport();
+        report.setId(1_000_000_000_000L + i);
+        report.setType(i % 2 == 0 ? "Bug" : "Feature Request");
+        report.setName("Tester " + i);
+        report.setEmail("tester" + i + "@iworkscorp.com");
+        report.setRole(i % 5 == 0 ? null : "QA");
+        report.setBrowser("Chrome");
+        report.setDescription("Issue " + i + " ".repeat(i % 50) + "\"quoted\", =formula");
+        report.setEventTime(i % 4 == 0 ? null : BASE.minusMinutes(i));
+        report.setCreatedAt(BASE.plusSeconds(i));
+        report.setResolved(resolved);
+        report.setResolvedBy(resolved ? "alice" : null);
+        report.setResolutionDescription(resolved ? "fixed in build " + i : null);
+        report.setResolvedAt(resolved ? BASE.plusDays(1).plusNanos(i * 1_000L) : null);
+        report.setDeleted(deleted);
+        report.setDeletedAt(deleted ? BASE.plusDays(2) : null);
+        return report;
+    }
+
+    private static byte[] export(List<BugReport> reports) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (IssueExportWriter writer = ExportFormat.ARROW.open(out)) {
+            for (BugReport report : reports) {
+                writer.write(report);
+            }
+            writer.finish();
+        }
+        return out.toByteArray();
+    }
+
+    private static ArrowStreamReader reader(byte[] bytes, BufferAllocator allocator) {
+        return new ArrowStreamReader(new ByteArrayInputStream(bytes), allocator);
+    }
+
+    private static String text(VectorSchemaRoot root, String column, int i) {
+        VarCharVector vector = (VarCharVector) root.getVector(column);
+        return vector.isNull(i) ? null : vector.getObject(i).toString();
+    }
+
+    private static LocalDateTime timestamp(VectorSchemaRoot root, String column, int i) {
+        return ((TimeStampMicroVector) root.getVector(column)).getObject(i);
+    }
+
+    // The export keeps microseconds, like the database columns
+    private static LocalDateTime micros(LocalDateTime value) {
+        return value == null ? null : value.withNano(value.getNano() / 1_000 * 1_000);
+    }
+}
@@ -0,0 +1,137 @@
+package com.iworks.bugtracker.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvEncoderTest {
+
+    @Test
+    void quotesEveryCellAndDoublesQuotes() throws IOException {
+        assertThat(row(encoder -> encoder
+                .text("plain")
+                .text("say \"hi\"")
+                .text("a,b\r\nc")
+                .text("")
+                .text(null)))
+                .isEqualTo("\"plain\",\"say \"\"hi\"\"\",\"a,b\r\nc\",\"\",\"\"\r\n");
+    }
+
+    @Test
+    void charSequencesAreEscapedLikeStrings() throws IOException {
+        assertThat(row(encoder -> encoder.text(new StringBuilder("\"quoted\" =1"))))
+                .isEqualTo("\"\"\"quoted\"\" =1\"\r\n");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"=SUM(A1:A2)", "+1", "-1", "@cmd", "\tx", "\rx"})
+    void guardsFormulaStarts(String value) throws IOException {
+        assertThat(row(encoder -> encoder.text(value))).isEqualTo("\"'" + value + "\"\r\n");
+        assertThat(row(encoder -> encoder.text(new StringBuilder(value)))).isEqualTo("\"'" + value + "\"\r\n");
+    }
+
+    @Test
+    void onlyTheFirstCharacterCounts() throws IOException {
+        assertThat(row(encoder -> encoder.text("a=b").text(" =b").text("'=b")))
+                .isEqualTo("\"a=b\",\" =b\",\"'=b\"\r\n");
+    }
+
+    @Test
+    void numbersAndBooleansAreNotGuarded() throws IOException {
+        assertThat(row(encoder -> encoder
+                .number(0L)
+                .number(-42L)
+                .number(Long.MAX_VALUE)
+                .number(Long.MIN_VALUE)
+                .number(null)
+                .bool(true)
+                .bool(false)))
+                .isEqualTo("\"0\",\"-42\",\"9223372036854775807\",\"-9223372036854775808\",\"\",\"true\",\"false\"\r\n");
+    }
+
+    @Test
+    void writesDateTimesLikeLocalDateTimeToStringWithSeconds() throws IOException {
+        LocalDateTime[] values = {
+                LocalDateTime.of(2024, 5, 1, 9, 30),
+                LocalDateTime.of(2024, 5, 1, 9, 30, 5),
+                LocalDateTime.of(2024, 5, 1, 23, 59, 59, 120_000_000),
+                LocalDateTime.of(2024, 5, 2, 0, 0, 0, 123_456_000),
+                LocalDateTime.of(2024, 5, 2, 0, 0, 0, 1),
+                LocalDateTime.of(999, 12, 31, 1, 2, 3),
+        };
+        assertThat(row(encoder -> {
+            for (LocalDateTime value : values) {
+                encoder.dateTime(value);
+            }
+            encoder.dateTime(null);
+        })).isEqualTo("\"2024-05-01T09:30:00\",\"2024-05-01T09:30:05\",\"2024-05-01T23:59:59.120\","
+                + "\"2024-05-02T00:00:00.123456\",\"2024-05-02T00:00:00.000000001\",\"0999-12-31T01:02:03\",\"\"\r\n");
+    }
+
+    @Test
+    void dateCacheFollowsTheDay() throws IOException {
+        Random random = new Random(7);
+        StringBuilder expected = new StringBuilder();
+        StringWriter out = new StringWriter();
+        CsvEncoder encoder = new CsvEncoder(out);
+        LocalDateTime value = LocalDateTime.of(2023, 12, 30, 22, 0);
+        for (int i = 0; i < 500; i++) {
+            // Mostly the same day, sometimes a jump back or forward
+            value = random.nextInt(10) == 0
+                    ? value.minusDays(random.nextInt(400))
+                    : value.plusSeconds(random.nextInt(7200)).withNano(0);
+            encoder.dateTime(value).endRow();
+            expected.append('"').append(value.getSecond() == 0 ? value.toString() + ":00" : value.toString())
+                    .append("\"\r\n");
+        }
+        encoder.flush();
+
+        assertThat(out.toString()).isEqualTo(expected.toString());
+    }
+
+    @Test
+    void tinyBufferGivesTheSameOutput() throws IOException {
+        StringWriter large = new StringWriter();
+        StringWriter tiny = new StringWriter();
+        for (CsvEncoder encoder : new CsvEncoder[] {new CsvEncoder(large), new CsvEncoder(tiny, 3)}) {
+            encoder.line("id,description,created");
+            encoder.number(123456789L)
+                    .text("a \"long\" description, with \"quotes\" and =formula")
+                    .dateTime(LocalDateTime.of(2024, 2, 29, 12, 34, 56, 789_000_000))
+                    .endRow();
+            encoder.flush();
+        }
+
+        assertThat(tiny.toString()).isEqualTo(large.toString()).startsWith("id,description,created\r\n\"123456789\"");
+    }
+
+    @Test
+    void nothingReachesTheWriterBeforeFlush() throws IOException {
+        StringWriter out = new StringWriter();
+        CsvEncoder encoder = new CsvEncoder(out);
+        encoder.text("x").endRow();
+
+        assertThat(out.toString()).isEmpty();
+        encoder.flush();
+        assertThat(out.toString()).isEqualTo("\"x\"\r\n");
+    }
+
+    private interface Row {
+        void write(CsvEncoder encoder) throws IOException;
+    }
+
+    private static String row(Row row) throws IOException {
+        StringWriter out = new StringWriter();
+        CsvEncoder encoder = new CsvEncoder(out);
+        row.write(encoder);
+        encoder.endRow().flush();
+        return out.toString();
+    }
+}
@@ -0,0 +1,246 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.model.BugReport;
+import com.iworks.bugtracker.repository.BugReportRepository;
+import com.iworks.bugtracker.repository.IssueText;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DuplicateIndexTest {
+
+    private final BugReportRepository repository = mock(BugReportRepository.class);
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 3, 8, 15})
+    void findsEveryFingerprintWithinMaxDistance(int maxDistance) {
+        DuplicateIndex index = index(maxDistance);
+        Random random = new Random(maxDistance);
+
+        for (int trial = 0; trial < 500; trial++) {
+            long fingerprint = random.nextLong();
+            int flips = random.nextInt(maxDistance + 3);
+            long other = flipBits(fingerprint, flips, random);
+
+            index.add(1L, fingerprint);
+            index.add(2L, other);
+            List<DuplicateMatch> matches = index.duplicatesOf(1L);
+
+            if (flips <= maxDistance) {
+                assertThat(matches).containsExactly(new DuplicateMatch(2L, flips));
+            } else {
+                assertThat(matches).isEmpty();
+            }
+        }
+    }
+
+    @Test
+    void ordersMatchesClosestFirst() {
+        DuplicateIndex index = index(8);
+        long fingerprint = 0x0123_4567_89ab_cdefL;
+        index.add(1L, fingerprint);
+        index.add(2L, fingerprint ^ 0b111);
+        index.add(3L, fingerprint ^ 0b1);
+        index.add(4L, fingerprint ^ 0b1_0000_0000);
+
+        assertThat(index.duplicatesOf(1L)).containsExactly(
+                new DuplicateMatch(4L, 1), new DuplicateMatch(3L, 1), new DuplicateMatch(2L, 3));
+    }
+
+    @Test
+    void clustersAreTransitiveAndLargestFirst() {
+        DuplicateIndex index = index(3);
+        long a = 0L;
+        // 1-2-3 chain: 1 and 3 are 6 bits apart but joined through 2
+        index.add(1L, a);
+        index.add(2L, a ^ 0b111);
+        index.add(3L, a ^ 0b111_111);
+        index.add(10L, ~a);
+        index.add(11L, ~a ^ 0b1);
+        index.add(20L, 0x5555_5555_5555_5555L);
+
+        List<DuplicateCluster> clusters = index.clusters();
+
+        assertThat(clusters).extracting(DuplicateCluster::ids)
+                .containsExactly(List.of(1L, 2L, 3L), List.of(10L, 11L));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 8, 15})
+    void clustersMatchAPairwiseScan(int maxDistance) {
+        DuplicateIndex index = index(maxDistance);
+        Random random = new Random(maxDistance);
+        List<Long> fingerprints = new ArrayList<>();
+        for (int i = 0; i < 4000; i++) {
+            // Every tenth a near copy of an earlier one, some just out of range
+            long fingerprint = (i % 10 == 9)
+                    ? flipBits(fingerprints.get(random.nextInt(i)), random.nextInt(maxDistance + 3), random)
+                    : random.nextLong();
+            fingerprints.add(fingerprint);
+            index.add((long) i, fingerprint);
+        }
+
+        assertThat(index.clusters()).containsExactlyInAnyOrderElementsOf(pairwiseClusters(fingerprints, maxDistance));
+    }
+
+    /**
+     * 200k open issues: clustering finds every planted duplicate in seconds (it
+     * compared every pair in the same 7-bit band before), and reports are still
+     * looked up and indexed while it runs.
+     */
+    @Test
+    void clustersAtScale() throws Exception {
+        DuplicateIndex index = index(8);
+        Random random = new Random(42);
+        List<List<Long>> planted = new ArrayList<>();
+        for (long id = 0; id < 200_000; id++) {
+            long fingerprint = random.nextLong();
+            index.add(id, fingerprint);
+            if (id % 200 == 0) {
+                long copy = 1_000_000 + id;
+                index.add(copy, flipBits(fingerprint, 1 + random.nextInt(8), random));
+                planted.add(List.of(id, copy));
+            }
+        }
+
+        ExecutorService clustering = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<DuplicateCluster>> clusters = clustering.submit(index::clusters);
+            // Done long before the clustering, which doesn't hold the lock while it works
+            for (long id = 2_000_000; id < 2_000_020; id++) {
+                index.duplicatesOf(id - 1);
+                index.add(id, random.nextLong());
+            }
+            assertThat(clusters.isDone()).isFalse();
+
+            // Random fingerprints may add a few clusters of their own
+            assertThat(clusters.get(20, TimeUnit.SECONDS)).extracting(DuplicateCluster::ids)
+                    .containsAll(planted);
+        } finally {
+            clustering.shutdownNow();
+        }
+    }
+
+    @Test
+    void followsIssueChanges() {
+        DuplicateIndex index = index(8);
+        String description = "Save button does nothing when the invoice form has an empty due date field";
+        index.onIssueChange(IssueChangeEvent.created(report(1L, description)));
+        index.onIssueChange(IssueChangeEvent.created(report(2L,
+                "Save button does nothing when the invoice form has a blank due date field")));
+        index.onIssueChange(IssueChangeEvent.created(report(3L,
+                "Dashboard chart shows wrong totals after switching the currency to euro")));
+
+        assertThat(index.duplicatesOf(1L)).extracting(DuplicateMatch::id).containsExactly(2L);
+
+        index.onIssueChange(IssueChangeEvent.of(IssueChangeEvent.Kind.RESOLVED, List.of(2L)));
+        assertThat(index.duplicatesOf(1L)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+
+        when(repository.findIssueTextsByIds(List.of(2L))).thenReturn(List.of(text(2L,
+                "Save button does nothing when the invoice form has a blank due date field")));
+        index.onIssueChange(IssueChangeEvent.of(IssueChangeEvent.Kind.UNRESOLVED, List.of(2L)));
+        assertThat(index.duplicatesOf(1L)).extracting(DuplicateMatch::id).containsExactly(2L);
+
+        index.onIssueChange(IssueChangeEvent.of(IssueChangeEvent.Kind.ARCHIVED, List.of(1L, 2L)));
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsOutOfRangeMaxDistance() {
+        assertThatThrownBy(() -> index(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> index(64)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private DuplicateIndex index(int maxDistance) {
+        return new DuplicateIndex(repository, maxDistance, new SimpleMeterRegistry());
+    }
+
+    // Union-find over every pair, sorted like DuplicateIndex.clusters()
+    private static List<DuplicateCluster> pairwiseClusters(List<Long> fingerprints, int maxDistance) {
+        int[] parent = new int[fingerprints.size()];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        for (int i = 0; i < parent.length; i++) {
+            for (int j = i + 1; j < parent.length; j++) {
+                if (SimHash.distance(fingerprints.get(i), fingerprints.get(j)) <= maxDistance) {
+                    parent[root(parent, j)] = root(parent, i);
+                }
+            }
+        }
+        Map<Integer, List<Long>> groups = new TreeMap<>();
+        for (int i = 0; i < parent.length; i++) {
+            groups.computeIfAbsent(root(parent, i), r -> new ArrayList<>()).add((long) i);
+        }
+        return groups.values().stream()
+                .filter(ids -> ids.size() > 1)
+                .map(ids -> new DuplicateCluster(ids.stream().sorted().toList()))
+                .toList();
+    }
+
+    private static int root(int[] parent, int i) {
+        while (parent[i] != i) {
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static long flipBits(long fingerprint, int count, Random random) {
+        long flipped = fingerprint;
+        int done = 0;
+        while (done < count) {
+            long bit = 1L << random.nextInt(64);
+            if ((flipped & bit) == (fingerprint & bit)) {
+                flipped ^= bit;
+                done++;
+            }
+        }
+        return flipped;
+    }
+
+    private static BugReport report(Long id, String description) {
+        BugReport report = new BugReport();
+        report.setId(id);
+        report.setType("Bug");
+        report.setBrowser("Chrome");
+        report.setDescription(description);
+        return report;
+    }
+
+    private static IssueText text(Long id, String description) {
+        return new IssueText() {
+            public Long getId() {
+                return id;
+            }
+
+            public String getType() {
+                return "Bug";
+            }
+
+            public String getBrowser() {
+                return "Chrome";
+            }
+
+            public String getDescription() {
+                return description;
+            }
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package com.iworks.bugtracker.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExportFormatTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "csv, CSV",
+            "CSV, CSV",
+            "' csv.gz ', CSV_GZIP",
+            "gzip, CSV_GZIP",
+            "jsonl, NDJSON",
+            "Arrow, ARROW",
+            "arrows, ARROW",
+    })
+    void formatParameterWins(String format, ExportFormat expected) {
+        assertThat(ExportFormat.negotiate(format, "application/x-ndjson")).isEqualTo(expected);
+    }
+
+    @Test
+    void rejectsUnknownFormat() {
+        assertThatThrownBy(() -> ExportFormat.negotiate("xlsx", null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("xlsx");
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "application/x-ndjson | NDJSON",
+            "application/vnd.apache.arrow.stream | ARROW",
+            "application/gzip | CSV_GZIP",
+            "text/csv | CSV",
+            "application/json, application/x-ndjson | NDJSON",
+            // Highest q wins, whatever the order
+            "application/x-ndjson;q=0.5, application/vnd.apache.arrow.stream | ARROW",
+            "text/csv;q=0.1, application/x-ndjson;q=0.9 | NDJSON",
+            // Equal q: header order
+            "application/vnd.apache.arrow.stream;q=0.8, application/x-ndjson;q=0.8 | ARROW",
+            "application/x-ndjson;q=0, application/vnd.apache.arrow.stream;q=0.2 | ARROW",
+            "application/x-ndjson;q=0 | CSV",
+            // Browsers
+            "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8 | CSV",
+            "*/* | CSV",
+            "application/* | CSV",
+            "not a media type | CSV",
+    })
+    void acceptHeader(String accept, ExportFormat expected) {
+        assertThat(ExportFormat.negotiate(null, accept)).isEqualTo(expected);
+    }
+
+    @Test
+    void defaultsToCsv() {
+        assertThat(ExportFormat.negotiate(null, null)).isEqualTo(ExportFormat.CSV);
+        assertThat(ExportFormat.negotiate(" ", " ")).isEqualTo(ExportFormat.CSV);
+    }
+}
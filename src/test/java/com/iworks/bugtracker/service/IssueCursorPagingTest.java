@@ -0,0 +1,156 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.SqlCapture;
+import com.iworks.bugtracker.TestPostgres;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cursor (keyset) paging over the admin grid: walks every row exactly once in the
+ * grid ordering, and a deep cursor is an index range rather than a scan that
+ * filters out everything before it.
+ *
+ * Criteria values are inlined so the captured SQL can be EXPLAINed as is.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "bugtracker.archive.enabled=false",
+        "spring.jpa.properties.hibernate.criteria.value_handling_mode=inline",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.iworks.bugtracker.SqlCapture"
+})
+class IssueCursorPagingTest {
+
+    private static final int ROWS = 60_000;
+
+    // Rows of this test only, whatever other tests left in the shared database
+    private static final String TYPE = "Paging " + UUID.randomUUID().toString().substring(0, 8);
+
+    private static final Pattern ROWS_REMOVED = Pattern.compile("Rows Removed by Filter: (\\d+)");
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        TestPostgres.register(registry);
+    }
+
+    @Autowired
+    private BugReportService bugReportService;
+
+    @Autowired
+    private IssueStatsService issueStatsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void insertRows() {
+        if (count() > 0) {
+            return;
+        }
+        // Three rows per second, so the cursor has to break created_at ties by id
+        jdbcTemplate.update("INSERT INTO bug_reports (tracking_id, name, email, role, browser, type, "
+                + "description, created_at, resolved, deleted) "
+                + "SELECT gen_random_uuid(), 'Tester', 'tester@iworkscorp.com', 'QA', 'Chrome', ?, "
+                + "'Row ' || g, timestamp '2024-01-01' + (g / 3) * interval '1 second', g % 4 = 0, g % 50 = 0 "
+                + "FROM generate_series(1, ?) g", TYPE, ROWS);
+        jdbcTemplate.execute("ANALYZE bug_reports");
+        // Keep the rollups in line with the table for the tests that compare them
+        issueStatsService.rebuild();
+    }
+
+    @Test
+    void walksEveryRowOnceInGridOrder() {
+        List<Long> expected = jdbcTemplate.queryForList("SELECT id FROM bug_reports WHERE type = ? AND NOT deleted "
+                + "ORDER BY resolved, created_at DESC, id DESC", Long.class, TYPE);
+
+        assertThat(walk(IssueFilter.of(TYPE, null, null, null, false, null), 200)).isEqualTo(expected);
+    }
+
+    @Test
+    void stopsAtTheEndOfAResolvedFilter() {
+        List<Long> expected = jdbcTemplate.queryForList("SELECT id FROM bug_reports WHERE type = ? AND NOT deleted "
+                + "AND NOT resolved ORDER BY created_at DESC, id DESC", Long.class, TYPE);
+
+        assertThat(walk(IssueFilter.of(TYPE, false, null, null, false, null), 199)).isEqualTo(expected);
+    }
+
+    @Test
+    void sliceAcrossTheResolvedBoundaryIsFull() {
+        Map<String, Object> lastUnresolved = jdbcTemplate.queryForMap("SELECT id, created_at FROM bug_reports "
+                + "WHERE type = ? AND NOT deleted AND NOT resolved ORDER BY created_at, id LIMIT 1 OFFSET 2", TYPE);
+        String cursor = new IssueCursor(false, ((java.sql.Timestamp) lastUnresolved.get("created_at")).toLocalDateTime(),
+                (Long) lastUnresolved.get("id")).encode();
+
+        IssueSlice<Map<String, Object>> slice = bugReportService.searchIssuesAfter(
+                IssueFilter.of(TYPE, null, null, null, false, null), cursor, 10, List.of("id"));
+
+        assertThat(slice.getContent()).extracting(row -> row.get("resolved"))
+                .containsExactly(false, false, true, true, true, true, true, true, true, true);
+        assertThat(slice.isHasNext()).isTrue();
+    }
+
+    @Test
+    void deepCursorIsAnIndexRange() {
+        assertIndexRange(IssueFilter.of(TYPE, null, null, null, false, null));
+        assertIndexRange(IssueFilter.of(null, null, null, null, false, null));
+    }
+
+    private void assertIndexRange(IssueFilter filter) {
+        Map<String, Object> deep = jdbcTemplate.queryForMap("SELECT id, created_at FROM bug_reports "
+                + "WHERE type = ? AND NOT deleted AND NOT resolved ORDER BY created_at DESC, id DESC LIMIT 1 OFFSET ?",
+                TYPE, ROWS / 3);
+        String cursor = new IssueCursor(false, ((java.sql.Timestamp) deep.get("created_at")).toLocalDateTime(),
+                (Long) deep.get("id")).encode();
+
+        SqlCapture.clear();
+        bugReportService.searchIssuesAfter(filter, cursor, 50, List.of("id", "description"));
+        List<String> selects = SqlCapture.statements("select");
+        assertThat(selects).hasSize(1);
+
+        String plan = explain(selects.get(0), 51);
+        assertThat(plan).contains("Index Cond").containsPattern("Index Cond: .*created_at <=");
+        Matcher removed = ROWS_REMOVED.matcher(plan);
+        while (removed.find()) {
+            // Not the ROWS / 3 rows before the cursor: those are outside the index range
+            assertThat(Integer.parseInt(removed.group(1))).as(plan).isLessThan(100);
+        }
+    }
+
+    private List<Long> walk(IssueFilter filter, int size) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            IssueSlice<Map<String, Object>> slice = bugReportService.searchIssuesAfter(
+                    filter, cursor, size, List.of("id"));
+            for (Map<String, Object> row : slice.getContent()) {
+                ids.add((Long) row.get("id"));
+            }
+            cursor = slice.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    private String explain(String sql, int limit) {
+        // Only OFFSET and FETCH FIRST are still bind parameters
+        assertThat(sql).endsWith("offset ? rows fetch first ? rows only");
+        String bound = sql.replace("offset ? rows fetch first ? rows only", "offset 0 rows fetch first " + limit + " rows only");
+        List<String> lines = jdbcTemplate.queryForList("EXPLAIN (ANALYZE, COSTS OFF) " + bound, String.class);
+        return String.join("\n", lines);
+    }
+
+    private long count() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM bug_reports WHERE type = ?", Long.class, TYPE);
+    }
+}
@@ -0,0 +1,62 @@
+package com.iworks.bugtracker.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IssueCursorTest {
+
+    @Test
+    void roundTrips() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 3, 14, 15, 9, 26, 535_897_000);
+        IssueCursor decoded = IssueCursor.decode(new IssueCursor(true, createdAt, 42L).encode());
+
+        assertThat(decoded.isResolved()).isTrue();
+        assertThat(decoded.getCreatedAt()).isEqualTo(createdAt);
+        assertThat(decoded.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void roundTripsWholeMinutes() {
+        // LocalDateTime.toString drops zero seconds ("2025-01-01T10:00")
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 1, 10, 0);
+        IssueCursor decoded = IssueCursor.decode(new IssueCursor(false, createdAt, Long.MAX_VALUE).encode());
+
+        assertThat(decoded.isResolved()).isFalse();
+        assertThat(decoded.getCreatedAt()).isEqualTo(createdAt);
+        assertThat(decoded.getId()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        String token = new IssueCursor(false, LocalDateTime.of(2025, 6, 30, 23, 59, 59, 999_999_000), 7L).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "not base64!",
+            "true|2025-01-01T10:00",
+            "true|2025-01-01T10:00|1|extra",
+            "yes|2025-01-01T10:00|1",
+            "true|yesterday|1",
+            "true|2025-01-01T10:00|one",
+    })
+    void rejectsMalformedTokens(String raw) {
+        String token = raw.equals("not base64!")
+                ? raw
+                : Base64.getUrlEncoder().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> IssueCursor.decode(token))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,123 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.TestPostgres;
+import com.iworks.bugtracker.model.BugReport;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * A browser that stops reading must not hold up the request that commits a change,
+ * nor the other clients.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "bugtracker.archive.enabled=false",
+        "bugtracker.events.client-buffer=50",
+        "bugtracker.events.heartbeat-ms=600000"
+})
+class IssueEventStreamTest {
+
+    // Big enough that a few of them fill the socket buffers of a client that doesn't read
+    private static final String LARGE = "x".repeat(200_000);
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        TestPostgres.register(registry);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private IssueEventStream issueEventStream;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void stalledClientIsDroppedWithoutBlockingBroadcasts() throws Exception {
+        double droppedBefore = meterRegistry.counter("bugtracker.events.clients.dropped").count();
+
+        try (Socket stalled = new Socket()) {
+            stalled.setReceiveBufferSize(1024);
+            stalled.connect(new InetSocketAddress("localhost", port));
+            OutputStream request = stalled.getOutputStream();
+            request.write(("GET /api/admin/issues/events HTTP/1.1\r\nHost: localhost\r\n"
+                    + "Accept: text/event-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            request.flush();
+            // ...and never read
+
+            AtomicInteger received = new AtomicInteger();
+            HttpClient http = HttpClient.newHttpClient();
+            HttpRequest subscribe = HttpRequest.newBuilder(
+                    URI.create("http://localhost:" + port + "/api/admin/issues/events")).build();
+            CompletableFuture<Boolean> sawMarker = http
+                    .sendAsync(subscribe, HttpResponse.BodyHandlers.ofLines())
+                    .thenApply(response -> {
+                        try (Stream<String> lines = response.body()) {
+                            return lines
+                                    .peek(line -> {
+                                        if (line.startsWith("data:")) {
+                                            received.incrementAndGet();
+                                        }
+                                    })
+                                    .anyMatch(line -> line.contains("marker-event"));
+                        }
+                    });
+            await().atMost(10, TimeUnit.SECONDS).until(() -> issueEventStream.clientCount() == 2);
+
+            // Well past what the stalled client's buffer and socket can take. Paced by the
+            // reading client, however slow the machine, so only the stalled one overflows
+            assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+                for (int i = 0; i < 150; i++) {
+                    issueEventStream.onIssueChange(IssueChangeEvent.created(report(i, LARGE)));
+                    int sent = i + 1;
+                    await().atMost(10, TimeUnit.SECONDS).pollInterval(Duration.ofMillis(5))
+                            .until(() -> received.get() >= sent - 20);
+                }
+                issueEventStream.onIssueChange(IssueChangeEvent.created(report(1000, "marker-event")));
+            });
+
+            assertThat(sawMarker.get(20, TimeUnit.SECONDS)).isTrue();
+            assertThat(meterRegistry.counter("bugtracker.events.clients.dropped").count())
+                    .isGreaterThan(droppedBefore);
+            assertThat(issueEventStream.clientCount()).isLessThanOrEqualTo(1);
+        }
+    }
+
+    private static BugReport report(long id, String description) {
+        BugReport report = new BugReport();
+        report.setId(id);
+        report.setName("Tester");
+        report.setEmail("tester@iworkscorp.com");
+        report.setRole("QA");
+        report.setBrowser("Chrome");
+        report.setType("Bug");
+        report.setDescription(description);
+        report.setCreatedAt(LocalDateTime.now());
+        return report;
+    }
+}
@@ -0,0 +1,138 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.TestPostgres;
+import com.iworks.bugtracker.model.BugReport;
+import com.iworks.bugtracker.service.BugReportService.BulkUpdateRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The incrementally maintained issue_daily_rollups must always equal what
+ * {@link IssueStatsService#rebuild()} computes from the reports, also when bulk
+ * updates touching the same issues run at the same time.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "bugtracker.archive.enabled=false")
+class IssueStatsConsistencyTest {
+
+    private static final String ROLLUPS = "SELECT day, type, browser, created_count, resolved_count, "
+            + "deleted_count, resolve_seconds_sum FROM issue_daily_rollups ORDER BY day, type, browser";
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        TestPostgres.register(registry);
+    }
+
+    @Autowired
+    private BugReportService bugReportService;
+
+    @Autowired
+    private IssueStatsService issueStatsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void recordedCountersMatchARebuild() {
+        List<Long> ids = submit(20, "Chrome");
+        bugReportService.submitReports(reports(5, "Firefox"));
+
+        bugReportService.applyBulkResolutionChanges(updates(ids.subList(0, 10), true, false, "alice"));
+        bugReportService.applyBulkResolutionChanges(updates(ids.subList(0, 5), true, true, "alice"));
+        bugReportService.applyBulkResolutionChanges(updates(ids.subList(5, 8), false, false, null));
+        // Re-resolving with another resolver changes the issue but not the counters
+        bugReportService.applyBulkResolutionChanges(updates(ids.subList(8, 10), true, false, "bob"));
+
+        assertMatchesRebuild();
+    }
+
+    @Test
+    void concurrentBulkUpdatesOfTheSameIssuesDontDrift() throws Exception {
+        List<Long> ids = submit(40, "Edge");
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 20; round++) {
+                boolean resolve = (round % 2 == 0);
+                CyclicBarrier start = new CyclicBarrier(2);
+                List<Future<Integer>> results = new ArrayList<>();
+                for (String resolver : List.of("alice", "bob")) {
+                    results.add(pool.submit(() -> {
+                        start.await();
+                        return bugReportService.applyBulkResolutionChanges(
+                                updates(ids, resolve, false, resolve ? resolver : null));
+                    }));
+                }
+                for (Future<Integer> result : results) {
+                    result.get();
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertMatchesRebuild();
+    }
+
+    private void assertMatchesRebuild() {
+        List<Map<String, Object>> recorded = jdbcTemplate.queryForList(ROLLUPS);
+        issueStatsService.rebuild();
+        List<Map<String, Object>> rebuilt = jdbcTemplate.queryForList(ROLLUPS);
+        assertThat(recorded).containsExactlyElementsOf(rebuilt);
+    }
+
+    private List<Long> submit(int count, String browser) {
+        List<Long> ids = new ArrayList<>();
+        for (BugReport report : reports(count, browser)) {
+            ids.add(bugReportService.submitReport(report).getId());
+        }
+        return ids;
+    }
+
+    private static List<BugReport> reports(int count, String browser) {
+        List<BugReport> reports = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            BugReport report = new BugReport();
+            report.setTrackingId(UUID.randomUUID());
+            report.setName("Tester");
+            report.setEmail("tester@iworkscorp.com");
+            report.setRole("QA");
+            report.setBrowser(browser);
+            report.setType(i % 3 == 0 ? "Feature Request" : "Bug");
+            report.setDescription("Issue " + i + " in " + browser);
+            report.setCreatedAt(LocalDateTime.now().minusDays(i % 4).minusHours(i));
+            reports.add(report);
+        }
+        return reports;
+    }
+
+    private static List<BulkUpdateRequest> updates(List<Long> ids, boolean resolved, boolean deleted, String resolvedBy) {
+        List<BulkUpdateRequest> updates = new ArrayList<>();
+        for (Long id : ids) {
+            BulkUpdateRequest update = new BulkUpdateRequest();
+            update.setId(id);
+            update.setResolved(resolved);
+            update.setDeleted(deleted);
+            update.setResolvedBy(resolvedBy);
+            update.setResolutionDescription(resolved ? "fixed" : null);
+            updates.add(update);
+        }
+        return updates;
+    }
+}
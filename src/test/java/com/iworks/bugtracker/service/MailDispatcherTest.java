@@ -0,0 +1,290 @@
+package com.iworks.bugtracker.service;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+import com.iworks.bugtracker.TestPostgres;
+import com.iworks.bugtracker.model.BugReport;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * {@link MailDispatcher} and {@link MailOutbox} against an embedded SMTP server
+ * (GreenMail) and the real mail_outbox table.
+ *
+ * The dispatcher reaches the server through a proxy that counts connections. Tests
+ * call {@link MailDispatcher#poll()} themselves; the scheduled poll is an hour away.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "bugtracker.archive.enabled=false",
+        "bugtracker.mail.enabled=true",
+        "bugtracker.mail.poll-ms=3600000",
+        "bugtracker.mail.from=bugtracker@iworkscorp.com",
+        "bugtracker.mail.recipients=alerts@iworkscorp.com",
+        "bugtracker.mail.max-attempts=3",
+        "bugtracker.mail.retry-base-seconds=30",
+        "bugtracker.mail.retry-max-seconds=3600",
+        "spring.mail.host=127.0.0.1",
+        "spring.mail.properties.mail.smtp.auth=false",
+        "spring.mail.properties.mail.smtp.starttls.enable=false"
+})
+class MailDispatcherTest {
+
+    private static final ServerSetup SMTP = new ServerSetup(freePort(), "127.0.0.1", ServerSetup.PROTOCOL_SMTP);
+    private static final CountingProxy PROXY = new CountingProxy(SMTP.getPort());
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        TestPostgres.register(registry);
+        registry.add("spring.mail.port", PROXY::port);
+    }
+
+    @Autowired
+    private MailDispatcher mailDispatcher;
+
+    @Autowired
+    private BugReportService bugReportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private GreenMail smtp;
+
+    @BeforeEach
+    void startSmtp() {
+        smtp = new GreenMail(SMTP);
+        smtp.start();
+        // Only this test class queues alerts; start from an empty outbox and no connection
+        jdbcTemplate.update("DELETE FROM mail_outbox");
+        mailDispatcher.shutdown();
+        PROXY.connections.set(0);
+    }
+
+    @AfterEach
+    void stopSmtp() {
+        smtp.stop();
+    }
+
+    @Test
+    void burstBecomesOneDigest() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            bugReportService.submitReport(report("Burst " + i));
+        }
+
+        mailDispatcher.poll();
+
+        MimeMessage[] received = smtp.getReceivedMessages();
+        assertThat(received).hasSize(1);
+        assertThat(received[0].getSubject()).isEqualTo("[Bugtracker] 5 new reports");
+        assertThat(received[0].getAllRecipients()).extracting(Object::toString)
+                .containsExactly("alerts@iworkscorp.com");
+        assertThat(body(received[0])).startsWith("5 new reports were submitted:")
+                .contains("Burst 0", "Burst 1", "Burst 2", "Burst 3", "Burst 4");
+        assertThat(outboxSize()).isZero();
+    }
+
+    @Test
+    void digestsShareOneConnection() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            bugReportService.submitReport(report("Reuse " + i));
+            mailDispatcher.poll();
+        }
+
+        MimeMessage[] received = smtp.getReceivedMessages();
+        assertThat(received).extracting(MimeMessage::getSubject)
+                .containsExactly("[Bugtracker] New Bug: Reuse 0", "[Bugtracker] New Bug: Reuse 1",
+                        "[Bugtracker] New Bug: Reuse 2");
+        assertThat(PROXY.connections).hasValue(1);
+    }
+
+    @Test
+    void failedSendIsRetriedWithBackoff() throws Exception {
+        double failuresBefore = meterRegistry.counter("bugtracker.mail.send.failures").count();
+        smtp.stop();
+        BugReport report = bugReportService.submitReport(report("Retried"));
+
+        mailDispatcher.poll();
+
+        Map<String, Object> entry = entry(report);
+        assertThat(entry.get("attempts")).isEqualTo(1);
+        assertThat(entry.get("last_error")).isNotNull();
+        assertThat(entry.get("failed_at")).isNull();
+        assertThat(nextAttempt(entry))
+                .isCloseTo(LocalDateTime.now().plusSeconds(30), within(5, ChronoUnit.SECONDS));
+        assertThat(meterRegistry.counter("bugtracker.mail.send.failures").count()).isEqualTo(failuresBefore + 1);
+
+        // Second failure: twice the delay
+        dueNow();
+        mailDispatcher.poll();
+        entry = entry(report);
+        assertThat(entry.get("attempts")).isEqualTo(2);
+        assertThat(nextAttempt(entry))
+                .isCloseTo(LocalDateTime.now().plusSeconds(60), within(5, ChronoUnit.SECONDS));
+
+        // Server back, but the entry isn't due yet
+        smtp = new GreenMail(SMTP);
+        smtp.start();
+        mailDispatcher.poll();
+        assertThat(smtp.getReceivedMessages()).isEmpty();
+
+        dueNow();
+        mailDispatcher.poll();
+        assertThat(smtp.getReceivedMessages()).extracting(MimeMessage::getSubject)
+                .containsExactly("[Bugtracker] New Bug: Retried");
+        assertThat(outboxSize()).isZero();
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        smtp.stop();
+        BugReport report = bugReportService.submitReport(report("Given up"));
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            dueNow();
+            mailDispatcher.poll();
+        }
+
+        Map<String, Object> entry = entry(report);
+        assertThat(entry.get("attempts")).isEqualTo(3);
+        assertThat(entry.get("failed_at")).isNotNull();
+        assertThat(meterRegistry.get("bugtracker.mail.outbox.failed").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("bugtracker.mail.outbox.pending").gauge().value()).isZero();
+
+        // Kept for inspection, and never claimed again
+        smtp = new GreenMail(SMTP);
+        smtp.start();
+        dueNow();
+        mailDispatcher.poll();
+        assertThat(smtp.getReceivedMessages()).isEmpty();
+        assertThat(entry(report).get("attempts")).isEqualTo(3);
+    }
+
+    private Map<String, Object> entry(BugReport report) {
+        return jdbcTemplate.queryForMap("SELECT attempts, next_attempt_at, last_error, failed_at "
+                + "FROM mail_outbox WHERE bug_report_id = ?", report.getId());
+    }
+
+    private long outboxSize() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM mail_outbox", Long.class);
+    }
+
+    // Skips the wait for the next attempt
+    private void dueNow() {
+        jdbcTemplate.update("UPDATE mail_outbox SET next_attempt_at = ?", LocalDateTime.now().minusSeconds(1));
+    }
+
+    private static LocalDateTime nextAttempt(Map<String, Object> entry) {
+        return ((java.sql.Timestamp) entry.get("next_attempt_at")).toLocalDateTime();
+    }
+
+    private static String body(MimeMessage message) throws IOException, MessagingException {
+        return (String) message.getContent();
+    }
+
+    private static BugReport report(String description) {
+        BugReport report = new BugReport();
+        report.setTrackingId(UUID.randomUUID());
+        report.setName("Tester");
+        report.setEmail("tester@iworkscorp.com");
+        report.setRole("QA");
+        report.setBrowser("Chrome");
+        report.setType("Bug");
+        report.setDescription(description);
+        report.setCreatedAt(LocalDateTime.now());
+        return report;
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Forwards connections to the SMTP server, counting them. While the server is
+     * down, connections are accepted and closed right away.
+     */
+    private static final class CountingProxy {
+
+        private final ServerSocket server;
+        private final AtomicInteger connections = new AtomicInteger();
+
+        CountingProxy(int targetPort) {
+            try {
+                server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            daemon(() -> {
+                while (true) {
+                    Socket client;
+                    try {
+                        client = server.accept();
+                    } catch (IOException e) {
+                        return;
+                    }
+                    connections.incrementAndGet();
+                    try {
+                        Socket target = new Socket(InetAddress.getLoopbackAddress(), targetPort);
+                        pipe(client, target);
+                        pipe(target, client);
+                    } catch (IOException e) {
+                        try {
+                            client.close();
+                        } catch (IOException ignored) {
+                            // Closing anyway
+                        }
+                    }
+                }
+            });
+        }
+
+        int port() {
+            return server.getLocalPort();
+        }
+
+        // Closes both sockets when either side is done
+        private static void pipe(Socket from, Socket to) {
+            daemon(() -> {
+                try (from; to) {
+                    from.getInputStream().transferTo(to.getOutputStream());
+                } catch (IOException e) {
+                    // The other direction closed the sockets
+                }
+            });
+        }
+
+        private static void daemon(Runnable task) {
+            Thread thread = new Thread(task, "smtp-proxy");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+}
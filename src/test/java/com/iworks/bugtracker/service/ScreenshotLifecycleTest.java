@@ -0,0 +1,308 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.TestPostgres;
+import com.iworks.bugtracker.model.BugReport;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link ScreenshotStore} and {@link ScreenshotSweeper} against the real schema and
+ * a real upload directory: what ends up on disk and in screenshot_blobs.
+ *
+ * Every test uploads content of its own, so hashes don't collide in the shared database.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "bugtracker.archive.enabled=false",
+        "bugtracker.screenshot.max-bytes=" + ScreenshotLifecycleTest.MAX_BYTES
+})
+class ScreenshotLifecycleTest {
+
+    static final int MAX_BYTES = 256 * 1024;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        TestPostgres.register(registry);
+    }
+
+    @Autowired
+    private ScreenshotStore screenshotStore;
+
+    @Autowired
+    private ScreenshotSweeper screenshotSweeper;
+
+    @Autowired
+    private BugReportService bugReportService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${bugtracker.upload-dir}")
+    private String uploadDirProperty;
+
+    @Test
+    void identicalContentIsStoredOnce() throws IOException {
+        byte[] content = content(10_000);
+
+        String first = screenshotStore.store(upload(content));
+        String second = screenshotStore.store(upload(content));
+
+        assertThat(second).isEqualTo(first).isEqualTo(ScreenshotStore.keyFor(sha256(content)));
+        assertThat(Files.readAllBytes(uploadDir().resolve(first))).isEqualTo(content);
+        try (Stream<Path> shard = Files.list(uploadDir().resolve(first).getParent())) {
+            assertThat(shard).hasSize(1);
+        }
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM screenshot_blobs WHERE hash = ? "
+                + "AND ref_count = 0 AND size_bytes = ?", Long.class, sha256(content), content.length)).isEqualTo(1);
+        assertThat(tempFiles()).isEmpty();
+    }
+
+    @Test
+    void tooLargeUploadLeavesNothingBehind() {
+        byte[] content = content(MAX_BYTES + 1);
+        // Declared size over the limit, and a client that understates it: caught while streaming
+        MockMultipartFile understated = new MockMultipartFile("screenshot", "shot.png", "image/png", content) {
+            @Override
+            public long getSize() {
+                return 1;
+            }
+        };
+
+        assertThatThrownBy(() -> screenshotStore.store(upload(content)))
+                .isInstanceOf(ScreenshotTooLargeException.class);
+        assertThatThrownBy(() -> screenshotStore.store(understated))
+                .isInstanceOf(ScreenshotTooLargeException.class);
+
+        assertThat(Files.exists(uploadDir().resolve(ScreenshotStore.keyFor(sha256(content))))).isFalse();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM screenshot_blobs WHERE hash = ?",
+                Long.class, sha256(content))).isZero();
+        assertThat(tempFiles()).isEmpty();
+    }
+
+    /**
+     * Uploads of the same content at once each write a temp file and move it into
+     * place: the file is always whole, and no temp files are left over.
+     */
+    @Test
+    void concurrentUploadsMoveWholeFilesIntoPlace() throws Exception {
+        byte[] content = content(MAX_BYTES);
+        ExecutorService uploaders = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> keys = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                keys.add(uploaders.submit(() -> {
+                    start.await();
+                    return screenshotStore.store(upload(content));
+                }));
+            }
+            start.countDown();
+            for (Future<String> key : keys) {
+                assertThat(key.get(30, TimeUnit.SECONDS)).isEqualTo(ScreenshotStore.keyFor(sha256(content)));
+            }
+        } finally {
+            uploaders.shutdownNow();
+        }
+
+        assertThat(Files.readAllBytes(uploadDir().resolve(ScreenshotStore.keyFor(sha256(content)))))
+                .isEqualTo(content);
+        assertThat(tempFiles()).isEmpty();
+    }
+
+    @Test
+    void referencesCountOnlyWhenTheReportCommits() throws IOException {
+        byte[] content = content(2_000);
+        String key = screenshotStore.store(upload(content));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            bugReportService.submitReport(report(key));
+            status.setRollbackOnly();
+        });
+        assertThat(refCount(content)).isZero();
+
+        transactionTemplate.executeWithoutResult(status -> bugReportService.submitReport(report(key)));
+        bugReportService.submitReport(report(key));
+        assertThat(refCount(content)).isEqualTo(2);
+
+        // Outside the inserting transaction it refuses to count anything
+        assertThatThrownBy(() -> screenshotStore.addReferences(List.of(report(key))))
+                .isInstanceOf(IllegalTransactionStateException.class);
+        assertThat(refCount(content)).isEqualTo(2);
+    }
+
+    @Test
+    void sweepRemovesOnlyOldUnreferencedFiles() throws IOException {
+        byte[] orphan = content(3_000);
+        byte[] referenced = content(3_000);
+        byte[] recent = content(3_000);
+        String orphanKey = screenshotStore.store(upload(orphan));
+        String referencedKey = screenshotStore.store(upload(referenced));
+        String recentKey = screenshotStore.store(upload(recent));
+        bugReportService.submitReport(report(referencedKey));
+        // Past the default grace period of 168 hours
+        storedAt(orphan, LocalDateTime.now().minusDays(8));
+        storedAt(referenced, LocalDateTime.now().minusDays(8));
+        double removedBefore = meterRegistry.counter("bugtracker.screenshot.unreferenced.removed").count();
+
+        screenshotSweeper.sweep();
+
+        assertThat(Files.exists(uploadDir().resolve(orphanKey))).isFalse();
+        assertThat(rowCount(orphan)).isZero();
+        assertThat(Files.exists(uploadDir().resolve(referencedKey))).isTrue();
+        assertThat(rowCount(referenced)).isEqualTo(1);
+        assertThat(Files.exists(uploadDir().resolve(recentKey))).isTrue();
+        assertThat(rowCount(recent)).isEqualTo(1);
+        assertThat(meterRegistry.counter("bugtracker.screenshot.unreferenced.removed").count())
+                .isGreaterThanOrEqualTo(removedBefore + 1);
+    }
+
+    /**
+     * The same content uploaded again while a sweep is removing it: the upload waits
+     * for the sweep to commit, then writes the file again, so the key it returns
+     * always points at a file.
+     */
+    @Test
+    void reuploadDuringASweepKeepsTheFile() throws Exception {
+        byte[] content = content(4_000);
+        String key = screenshotStore.store(upload(content));
+        storedAt(content, LocalDateTime.now().minusDays(2));
+        Path file = uploadDir().resolve(key);
+
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch swept = new CountDownLatch(1);
+            CountDownLatch uploading = new CountDownLatch(1);
+            Future<Integer> sweep = threads.submit(() -> transactionTemplate.execute(status -> {
+                try {
+                    int removed = screenshotStore.removeUnreferenced(LocalDateTime.now().minusDays(1), 1000);
+                    // File deleted and row deleted, not yet committed
+                    swept.countDown();
+                    uploading.await(10, TimeUnit.SECONDS);
+                    Thread.sleep(500);
+                    return removed;
+                } catch (IOException | InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+
+            assertThat(swept.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(Files.exists(file)).isFalse();
+            Future<String> reupload = threads.submit(() -> {
+                uploading.countDown();
+                return screenshotStore.store(upload(content));
+            });
+            // Waits for the sweep's row lock
+            Thread.sleep(200);
+            assertThat(reupload.isDone()).isFalse();
+
+            assertThat(sweep.get(30, TimeUnit.SECONDS)).isGreaterThanOrEqualTo(1);
+            assertThat(reupload.get(30, TimeUnit.SECONDS)).isEqualTo(key);
+        } finally {
+            threads.shutdownNow();
+        }
+
+        assertThat(Files.readAllBytes(file)).isEqualTo(content);
+        assertThat(rowCount(content)).isEqualTo(1);
+        // Recent again, so the next sweep leaves it for the report that is about to use it
+        screenshotSweeper.sweep();
+        assertThat(Files.exists(file)).isTrue();
+        bugReportService.submitReport(report(key));
+        assertThat(refCount(content)).isEqualTo(1);
+    }
+
+    private Path uploadDir() {
+        return Paths.get(uploadDirProperty).toAbsolutePath().normalize();
+    }
+
+    private List<Path> tempFiles() {
+        try (Stream<Path> files = Files.list(uploadDir().resolve(".tmp"))) {
+            return files.toList();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long rowCount(byte[] content) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM screenshot_blobs WHERE hash = ?",
+                Long.class, sha256(content));
+    }
+
+    private int refCount(byte[] content) {
+        return jdbcTemplate.queryForObject("SELECT ref_count FROM screenshot_blobs WHERE hash = ?",
+                Integer.class, sha256(content));
+    }
+
+    private void storedAt(byte[] content, LocalDateTime storedAt) {
+        jdbcTemplate.update("UPDATE screenshot_blobs SET stored_at = ? WHERE hash = ?", storedAt, sha256(content));
+    }
+
+    private static MockMultipartFile upload(byte[] content) {
+        return new MockMultipartFile("screenshot", "shot.png", "image/png", content);
+    }
+
+    // Unique per call: a random prefix, then filler
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        byte[] prefix = UUID.randomUUID().toString().getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(prefix, 0, content, 0, Math.min(prefix.length, size));
+        return content;
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static BugReport report(String screenshotKey) {
+        BugReport report = new BugReport();
+        report.setTrackingId(UUID.randomUUID());
+        report.setName("Tester");
+        report.setEmail("tester@iworkscorp.com");
+        report.setRole("QA");
+        report.setBrowser("Chrome");
+        report.setType("Bug");
+        report.setDescription("Has a screenshot");
+        report.setScreenshotPath(screenshotKey);
+        report.setCreatedAt(LocalDateTime.now());
+        return report;
+    }
+}
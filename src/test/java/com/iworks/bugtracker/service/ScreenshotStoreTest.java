@@ -0,0 +1,32 @@
+package com.iworks.bugtracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScreenshotStoreTest {
+
+    @Test
+    void servesRasterImagesAsDeclared() {
+        assertThat(ScreenshotStore.servedContentType("image/png")).isEqualTo("image/png");
+        assertThat(ScreenshotStore.servedContentType("image/jpeg")).isEqualTo("image/jpeg");
+        assertThat(ScreenshotStore.servedContentType("IMAGE/GIF")).isEqualTo("image/gif");
+        assertThat(ScreenshotStore.servedContentType("image/webp; charset=binary")).isEqualTo("image/webp");
+    }
+
+    @Test
+    void servesAnythingElseAsOctetStream() {
+        assertThat(ScreenshotStore.servedContentType("image/svg+xml")).isEqualTo("application/octet-stream");
+        assertThat(ScreenshotStore.servedContentType("text/html")).isEqualTo("application/octet-stream");
+        assertThat(ScreenshotStore.servedContentType("image/png-but-really-html")).isEqualTo("application/octet-stream");
+        assertThat(ScreenshotStore.servedContentType(null)).isEqualTo("application/octet-stream");
+    }
+
+    @Test
+    void hashOfContentAddressedKeys() {
+        String hash = "3d7a7fbd9d6ddc5d9d811920f74a83fad2d9c29c2226ce49c1c2263d9b443f54";
+        assertThat(ScreenshotStore.hashOf(ScreenshotStore.keyFor(hash))).isEqualTo(hash);
+        assertThat(ScreenshotStore.hashOf("/uploads/1700000000000_shot.png")).isNull();
+        assertThat(ScreenshotStore.hashOf(null)).isNull();
+    }
+}
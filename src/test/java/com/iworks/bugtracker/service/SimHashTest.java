@@ -0,0 +1,58 @@
+package com.iworks.bugtracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SimHashTest {
+
+    private static final String DESCRIPTION =
+            "Save button does nothing when the invoice form has an empty due date field";
+
+    // The default bugtracker.duplicates.max-distance
+    private static final int MAX_DISTANCE = 8;
+
+    @Test
+    void ignoresCasePunctuationAndAccents() {
+        assertThat(distance(DESCRIPTION, "save BUTTON does nothing, when the invoice form has an empty due-date field!"))
+                .isZero();
+        assertThat(distance("Café menu crashes", "cafe menu crashes")).isZero();
+    }
+
+    @Test
+    void oneWordEditsStayWithinTheDefaultDistance() {
+        assertThat(distance(DESCRIPTION,
+                "Save button does nothing when the invoice form has an empty due date"))
+                .isPositive().isLessThanOrEqualTo(MAX_DISTANCE);
+        assertThat(distance(DESCRIPTION,
+                "Save button does nothing when the invoice form has a blank due date field"))
+                .isPositive().isLessThanOrEqualTo(MAX_DISTANCE);
+        assertThat(distance(DESCRIPTION,
+                "Save button does nothing when the quote form has an empty due date field"))
+                .isPositive().isLessThanOrEqualTo(MAX_DISTANCE);
+    }
+
+    @Test
+    void unrelatedReportsAreFarApart() {
+        assertThat(distance(DESCRIPTION,
+                "Dashboard chart shows wrong totals after switching the currency to euro"))
+                .isGreaterThan(2 * MAX_DISTANCE);
+    }
+
+    @Test
+    void typeAndBrowserCount() {
+        long chrome = SimHash.fingerprint("Bug", "Chrome", DESCRIPTION);
+
+        assertThat(SimHash.distance(chrome, SimHash.fingerprint("Bug", "Firefox", DESCRIPTION))).isPositive();
+        assertThat(SimHash.distance(chrome, SimHash.fingerprint("Feature Request", "Chrome", DESCRIPTION))).isPositive();
+    }
+
+    @Test
+    void toleratesMissingText() {
+        assertThat(SimHash.fingerprint(null, null, null)).isEqualTo(SimHash.fingerprint("", "", ""));
+    }
+
+    private static int distance(String a, String b) {
+        return SimHash.distance(SimHash.fingerprint("Bug", "Chrome", a), SimHash.fingerprint("Bug", "Chrome", b));
+    }
+}
@@ -0,0 +1,247 @@
+package com.iworks.bugtracker.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SubmissionJournalTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path reportDir;
+
+    private final List<SubmissionJournal> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeJournals() throws IOException {
+        for (SubmissionJournal journal : opened) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void readsBackWhatWasAppended() throws IOException {
+        SubmissionJournal journal = open(true);
+        List<QueuedReport> reports = List.of(report("a"), report("b"), report("c"));
+        for (QueuedReport report : reports) {
+            journal.append(report);
+        }
+
+        List<SubmissionJournal.Entry> entries = journal.read(10);
+
+        assertThat(entries).extracting(SubmissionJournal.Entry::report).containsExactlyElementsOf(reports);
+        assertThat(entries.get(2).end()).isEqualTo(Files.size(journalFile()));
+        assertThat(journal.read(2)).hasSize(2);
+        assertThat(journal.backlogBytes()).isEqualTo(Files.size(journalFile()));
+    }
+
+    @Test
+    void commitMovesTheReadPosition() throws IOException {
+        SubmissionJournal journal = open(true);
+        journal.append(report("a"));
+        journal.append(report("b"));
+
+        journal.commit(journal.read(1).get(0).end());
+
+        assertThat(journal.read(10)).extracting(e -> e.report().description()).containsExactly("b");
+    }
+
+    /**
+     * A crash mid-append leaves part of a record that was never acknowledged; it is
+     * cut off at startup and the next append goes where it was.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {1, 7, 8, 20})
+    void cutsOffATornTail(int tornBytes) throws IOException {
+        SubmissionJournal journal = open(true);
+        journal.append(report("a"));
+        journal.append(report("b"));
+        long intact = Files.size(journalFile());
+        journal.append(report("torn"));
+        journal.close();
+        truncate(journalFile(), intact + tornBytes);
+
+        SubmissionJournal reopened = open(true);
+
+        assertThat(Files.size(journalFile())).isEqualTo(intact);
+        reopened.append(report("c"));
+        assertThat(reopened.read(10)).extracting(e -> e.report().description()).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void cutsOffATailWithABadChecksum() throws IOException {
+        SubmissionJournal journal = open(true);
+        journal.append(report("a"));
+        long intact = Files.size(journalFile());
+        journal.append(report("b"));
+        journal.close();
+        // Flip a payload byte of the last record
+        flipByte(journalFile(), Files.size(journalFile()) - 2);
+
+        SubmissionJournal reopened = open(true);
+
+        assertThat(Files.size(journalFile())).isEqualTo(intact);
+        assertThat(reopened.read(10)).extracting(e -> e.report().description()).containsExactly("a");
+    }
+
+    @Test
+    void garbageLengthIsTreatedAsTorn() throws IOException {
+        SubmissionJournal journal = open(true);
+        journal.append(report("a"));
+        long intact = Files.size(journalFile());
+        journal.close();
+        append(journalFile(), new byte[] {0x7f, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0, 0, 0, 0, 1, 2, 3});
+
+        SubmissionJournal reopened = open(true);
+
+        assertThat(Files.size(journalFile())).isEqualTo(intact);
+        assertThat(reopened.read(10)).hasSize(1);
+    }
+
+    @Test
+    void restartResumesAfterTheCommittedOffset() throws IOException {
+        SubmissionJournal journal = open(true);
+        journal.append(report("a"));
+        journal.append(report("b"));
+        journal.append(report("c"));
+        List<SubmissionJournal.Entry> entries = journal.read(10);
+        journal.commit(entries.get(0).end());
+        // Crash after inserting b but before committing it: b is read again
+        journal.close();
+
+        SubmissionJournal reopened = open(true);
+
+        assertThat(reopened.read(10)).extracting(e -> e.report().description()).containsExactly("b", "c");
+        assertThat(reopened.backlogBytes()).isEqualTo(entries.get(2).end() - entries.get(0).end());
+    }
+
+    @Test
+    void staleOffsetReplaysEverything() throws IOException {
+        SubmissionJournal journal = open(true);
+        journal.append(report("a"));
+        journal.append(report("b"));
+        journal.close();
+        Files.writeString(offsetFile(), Long.toString(Files.size(journalFile()) + 100));
+
+        assertThat(open(true).read(10)).hasSize(2);
+    }
+
+    @Test
+    void unreadableOffsetReplaysEverything() throws IOException {
+        SubmissionJournal journal = open(true);
+        journal.append(report("a"));
+        journal.commit(journal.read(1).get(0).end());
+        journal.close();
+        Files.writeString(offsetFile(), "garbage");
+
+        assertThat(open(true).read(10)).hasSize(1);
+    }
+
+    @Test
+    void truncatesOnlyWhenEverythingIsDrained() throws IOException {
+        SubmissionJournal journal = open(true);
+        journal.append(report("a"));
+        journal.append(report("b"));
+        List<SubmissionJournal.Entry> entries = journal.read(10);
+
+        journal.commit(entries.get(0).end());
+        journal.truncateIfDrained();
+        assertThat(Files.size(journalFile())).isEqualTo(entries.get(1).end());
+
+        journal.commit(entries.get(1).end());
+        journal.truncateIfDrained();
+        assertThat(Files.size(journalFile())).isZero();
+        assertThat(Files.readString(offsetFile())).isEqualTo("0");
+        assertThat(journal.backlogBytes()).isZero();
+
+        journal.append(report("c"));
+        assertThat(journal.read(10)).extracting(e -> e.report().description()).containsExactly("c");
+    }
+
+    @Test
+    void leftoverJournalIsDrainedWithWriteBehindOff() throws IOException {
+        SubmissionJournal journal = open(true);
+        journal.append(report("a"));
+        journal.close();
+
+        SubmissionJournal disabled = open(false);
+
+        assertThat(disabled.isOpen()).isTrue();
+        assertThat(disabled.read(10)).hasSize(1);
+        assertThatThrownBy(() -> disabled.append(report("b"))).isInstanceOf(IllegalStateException.class);
+        assertThat(open(false).isOpen()).isTrue();
+    }
+
+    @Test
+    void refusesAppendsPastTheBacklogLimit() throws IOException {
+        SubmissionJournal journal = open(true, 1);
+        journal.append(report("a"));
+
+        assertThatThrownBy(() -> journal.append(report("b")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("full");
+    }
+
+    private SubmissionJournal open(boolean enabled) {
+        return open(enabled, 1L << 30);
+    }
+
+    private SubmissionJournal open(boolean enabled, long maxBacklogBytes) {
+        SubmissionJournal journal = new SubmissionJournal(objectMapper, reportDir.toString(), enabled,
+                maxBacklogBytes, new SimpleMeterRegistry());
+        opened.add(journal);
+        return journal;
+    }
+
+    private Path journalFile() {
+        return reportDir.resolve("journal").resolve("submissions.journal");
+    }
+
+    private Path offsetFile() {
+        return reportDir.resolve("journal").resolve("submissions.offset");
+    }
+
+    private static QueuedReport report(String description) {
+        return new QueuedReport(UUID.randomUUID(), "Tester", "tester@iworkscorp.com", "QA", "Chrome",
+                LocalDateTime.of(2025, 1, 2, 3, 4, 5), "Bug", description, null,
+                LocalDateTime.of(2025, 1, 2, 3, 4, 6, 789_000_000));
+    }
+
+    private static void truncate(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    private static void flipByte(Path file, long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, position);
+            b.put(0, (byte) (b.get(0) ^ 0x20));
+            channel.write(b.rewind(), position);
+        }
+    }
+
+    private static void append(Path file, byte[] bytes) throws IOException {
+        Files.write(file, bytes, StandardOpenOption.APPEND);
+    }
+}
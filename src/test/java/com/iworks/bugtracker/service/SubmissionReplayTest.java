@@ -0,0 +1,79 @@
+package com.iworks.bugtracker.service;
+
+import com.iworks.bugtracker.TestPostgres;
+import com.iworks.bugtracker.model.BugReport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A crash between inserting journaled submissions and committing the journal offset
+ * hands the same records to {@link BugReportService#submitReports} again; they must
+ * not be stored or counted twice.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "bugtracker.archive.enabled=false")
+class SubmissionReplayTest {
+
+    private static final String ROLLUPS = "SELECT day, type, browser, created_count, resolved_count, "
+            + "deleted_count, resolve_seconds_sum FROM issue_daily_rollups ORDER BY day, type, browser";
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        TestPostgres.register(registry);
+    }
+
+    @Autowired
+    private BugReportService bugReportService;
+
+    @Autowired
+    private IssueStatsService issueStatsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void replayedSubmissionsAreSkipped() {
+        List<QueuedReport> journaled = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            journaled.add(report("Replayed " + i));
+        }
+
+        List<BugReport> first = bugReportService.submitReports(toBugReports(journaled.subList(0, 3)));
+        // Restart: the whole batch is read again, plus records appended after it
+        List<BugReport> replay = bugReportService.submitReports(toBugReports(journaled));
+
+        assertThat(first).hasSize(3);
+        assertThat(replay).extracting(BugReport::getDescription).containsExactly("Replayed 3", "Replayed 4");
+        for (QueuedReport report : journaled) {
+            assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM bug_reports WHERE tracking_id = ?",
+                    Long.class, report.trackingId())).isEqualTo(1);
+        }
+        assertThat(bugReportService.submitReports(toBugReports(journaled))).isEmpty();
+
+        List<Map<String, Object>> recorded = jdbcTemplate.queryForList(ROLLUPS);
+        issueStatsService.rebuild();
+        assertThat(recorded).containsExactlyElementsOf(jdbcTemplate.queryForList(ROLLUPS));
+    }
+
+    // Fresh entities each time, as the drainer builds them from the journal
+    private static List<BugReport> toBugReports(List<QueuedReport> reports) {
+        return reports.stream().map(QueuedReport::toBugReport).toList();
+    }
+
+    private static QueuedReport report(String description) {
+        return new QueuedReport(UUID.randomUUID(), "Tester", "tester@iworkscorp.com", "QA", "Safari",
+                null, "Bug", description, null, LocalDateTime.now().withNano(0));
+    }
+}
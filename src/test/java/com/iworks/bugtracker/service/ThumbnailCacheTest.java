@@ -0,0 +1,180 @@
+package com.iworks.bugtracker.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ThumbnailCacheTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private ThumbnailCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ThumbnailCache(null, uploadDir.toString(), 50, 1024 * 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void rendersAndThenServesFromCache() throws IOException {
+        StoredScreenshot source = png("shot.png", 400, 300);
+
+        ThumbnailCache.Thumbnail first = cache.getThumbnail(source);
+        assertThat(first).isNotNull();
+        assertThat(first.size()).isEqualTo(Files.size(first.file()));
+        BufferedImage thumb = ImageIO.read(first.file().toFile());
+        assertThat(thumb.getWidth()).isEqualTo(50);
+
+        ThumbnailCache.Thumbnail second = cache.getThumbnail(source);
+        assertThat(second).isEqualTo(first);
+    }
+
+    @Test
+    void rendersAgainWhenTheCachedFileIsGone() throws IOException {
+        StoredScreenshot source = png("shot.png", 400, 300);
+        ThumbnailCache.Thumbnail first = cache.getThumbnail(source);
+        Files.delete(first.file());
+
+        ThumbnailCache.Thumbnail again = cache.getThumbnail(source);
+        assertThat(again).isNotNull();
+        assertThat(again.file()).exists();
+    }
+
+    @Test
+    void corruptImageIsAMiss() throws IOException {
+        // A valid PNG signature followed by garbage makes the PNG reader throw
+        byte[] bytes = new byte[512];
+        byte[] signature = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n', 0, 0, 0, 13, 'I', 'H', 'D', 'R'};
+        System.arraycopy(signature, 0, bytes, 0, signature.length);
+        Path file = Files.write(uploadDir.resolve("corrupt.png"), bytes);
+
+        assertThat(cache.getThumbnail(new StoredScreenshot(file, "image/png", "\"corrupt\"", bytes.length)))
+                .isNull();
+    }
+
+    @Test
+    void missingOrNonImageSourceIsAMiss() throws IOException {
+        Path text = Files.writeString(uploadDir.resolve("notes.txt"), "not an image");
+
+        assertThat(cache.getThumbnail(new StoredScreenshot(text, "application/octet-stream", "\"txt\"", 12)))
+                .isNull();
+        assertThat(cache.getThumbnail(new StoredScreenshot(uploadDir.resolve("gone.png"), "image/png", "\"gone\"", 1)))
+                .isNull();
+    }
+
+    /**
+     * A budget of two and a half thumbnails: using one makes it the most recent, so the
+     * next render evicts the other. A restarted cache picks the files up again,
+     * oldest first.
+     */
+    @Test
+    void evictsLeastRecentlyUsedOverBudget() throws IOException {
+        long size = thumbnailSize();
+        Path dir = Files.createDirectories(uploadDir.resolve("small"));
+        StoredScreenshot a = png(dir, "a.png");
+        StoredScreenshot b = png(dir, "b.png");
+        StoredScreenshot c = png(dir, "c.png");
+
+        ThumbnailCache small = new ThumbnailCache(null, dir.toString(), 50, 2 * size + size / 2);
+        Path fileA;
+        Path fileB;
+        Path fileC;
+        try {
+            fileA = small.getThumbnail(a).file();
+            fileB = small.getThumbnail(b).file();
+            assertThat(small.cachedBytes()).isEqualTo(2 * size);
+
+            small.getThumbnail(a);
+            fileC = small.getThumbnail(c).file();
+
+            assertThat(fileB).doesNotExist();
+            assertThat(fileA).exists();
+            assertThat(fileC).exists();
+            assertThat(small.cachedBytes()).isEqualTo(2 * size).isEqualTo(cachedOnDisk(dir));
+        } finally {
+            small.shutdown();
+        }
+
+        // Restart: c, though rendered last, is now the oldest file
+        Files.setLastModifiedTime(fileC, FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+        Files.setLastModifiedTime(fileA, FileTime.fromMillis(System.currentTimeMillis() - 30_000));
+        Files.delete(a.file());
+        ThumbnailCache restarted = new ThumbnailCache(null, dir.toString(), 50, 2 * size + size / 2);
+        try {
+            assertThat(restarted.cachedBytes()).isEqualTo(2 * size);
+
+            restarted.getThumbnail(b);
+
+            assertThat(fileC).doesNotExist();
+            assertThat(fileB).exists();
+            // From the index: its source is gone, so it couldn't be rendered again
+            assertThat(restarted.getThumbnail(a).file()).isEqualTo(fileA);
+            assertThat(restarted.cachedBytes()).isEqualTo(2 * size).isEqualTo(cachedOnDisk(dir));
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    @Test
+    void keepsTheThumbnailJustRenderedEvenOverBudget() throws IOException {
+        long size = thumbnailSize();
+        Path dir = Files.createDirectories(uploadDir.resolve("tiny"));
+        StoredScreenshot a = png(dir, "a.png");
+        StoredScreenshot b = png(dir, "b.png");
+
+        ThumbnailCache tiny = new ThumbnailCache(null, dir.toString(), 50, size / 2);
+        try {
+            Path fileA = tiny.getThumbnail(a).file();
+            assertThat(fileA).exists();
+            assertThat(tiny.cachedBytes()).isEqualTo(size);
+
+            Path fileB = tiny.getThumbnail(b).file();
+
+            assertThat(fileA).doesNotExist();
+            assertThat(fileB).exists();
+            assertThat(tiny.cachedBytes()).isEqualTo(size).isEqualTo(cachedOnDisk(dir));
+        } finally {
+            tiny.shutdown();
+        }
+    }
+
+    // The same blank image every time, so every thumbnail has this size
+    private long thumbnailSize() throws IOException {
+        return cache.getThumbnail(png("probe.png", 400, 300)).size();
+    }
+
+    private static long cachedOnDisk(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir.resolve(".thumbs"))) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    private StoredScreenshot png(Path dir, String name) throws IOException {
+        Path file = dir.resolve(name);
+        ImageIO.write(new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB), "png", file.toFile());
+        return new StoredScreenshot(file, "image/png", "\"" + name + "\"", Files.size(file));
+    }
+
+    private StoredScreenshot png(String name, int width, int height) throws IOException {
+        Path file = uploadDir.resolve(name);
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", file.toFile());
+        return new StoredScreenshot(file, "image/png", "\"" + name + "\"", Files.size(file));
+    }
+}